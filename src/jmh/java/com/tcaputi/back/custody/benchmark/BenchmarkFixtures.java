@@ -0,0 +1,124 @@
+package com.tcaputi.back.custody.benchmark;
+
+import com.tcaputi.back.custody.client.interfaces.dto.AddressDto;
+import com.tcaputi.back.custody.client.interfaces.dto.ClientDto;
+import com.tcaputi.back.custody.client.interfaces.dto.CompanyDto;
+import com.tcaputi.back.custody.invoice.domain.model.InvoiceLine;
+import com.tcaputi.back.custody.invoice.domain.model.InvoiceStatus;
+import com.tcaputi.back.custody.invoice.domain.model.InvoiceType;
+import com.tcaputi.back.custody.invoice.interfaces.dto.InvoiceDto;
+import com.tcaputi.back.custody.invoice.interfaces.dto.InvoiceLineDto;
+import com.tcaputi.back.custody.project.domain.model.BillingMode;
+import com.tcaputi.back.custody.project.domain.model.ProjectStatus;
+import com.tcaputi.back.custody.project.interfaces.dto.ProjectDto;
+import com.tcaputi.back.custody.quote.domain.model.QuoteStatus;
+import com.tcaputi.back.custody.quote.interfaces.dto.QuoteDto;
+import com.tcaputi.back.custody.quote.interfaces.dto.QuoteLineDto;
+import com.tcaputi.back.custody.tax.domain.model.TaxType;
+import com.tcaputi.back.custody.tax.interfaces.dto.TaxProfileDto;
+
+import java.lang.reflect.Field;
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Jeux de données des benchmarks : valeurs réalistes (2 décimales, taux de TVA français), déterministes.
+ */
+final class BenchmarkFixtures {
+
+    private static final BigDecimal[] TAX_RATES = {
+            new BigDecimal("20.00"), new BigDecimal("10.00"), new BigDecimal("5.50")
+    };
+
+    static final UUID CLIENT_ID = UUID.fromString("00000000-0000-0000-0000-000000000001");
+    static final UUID PROJECT_ID = UUID.fromString("00000000-0000-0000-0000-000000000002");
+
+    private BenchmarkFixtures() {
+    }
+
+    static List<InvoiceLine> invoiceLines(int count) {
+        List<InvoiceLine> lines = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            InvoiceLine line = new InvoiceLine();
+            line.setDesignation("Prestation " + i);
+            line.setQuantity(BigDecimal.valueOf(1 + i % 12, 0));
+            line.setUnit("jour");
+            line.setUnitPrice(BigDecimal.valueOf(45_000 + i * 137L % 90_000, 2));
+            line.setTaxRate(TAX_RATES[i % TAX_RATES.length]);
+            line.setDiscount(i % 5 == 0 ? new BigDecimal("7.50") : BigDecimal.ZERO);
+            lines.add(line);
+        }
+        return lines;
+    }
+
+    static List<InvoiceLineDto> invoiceLineDtos(int count) {
+        return invoiceLines(count).stream()
+                .map(line -> new InvoiceLineDto(UUID.randomUUID(), null, line.getDesignation(), line.getQuantity(),
+                        line.getUnit(), line.getUnitPrice(), line.getTaxRate(), line.getDiscount()))
+                .toList();
+    }
+
+    static InvoiceDto invoice(int lineCount) {
+        return new InvoiceDto(UUID.randomUUID(), "FA-2025-0042", InvoiceType.FACTURE, CLIENT_ID, PROJECT_ID,
+                LocalDate.of(2025, 3, 1), LocalDate.of(2025, 2, 28), LocalDate.of(2025, 3, 31),
+                "EUR", null, null, invoiceLineDtos(lineCount),
+                new BigDecimal("1000.00"), new BigDecimal("200.00"), new BigDecimal("1200.00"),
+                BigDecimal.ZERO, new BigDecimal("1200.00"),
+                "30 jours fin de mois", new BigDecimal("10.00"), new BigDecimal("40.00"),
+                InvoiceStatus.SENT, "Merci pour votre confiance.", List.of("TVA acquittée sur les débits"));
+    }
+
+    static QuoteDto quote(int lineCount) {
+        List<QuoteLineDto> lines = invoiceLines(lineCount).stream()
+                .map(line -> new QuoteLineDto(UUID.randomUUID(), line.getDesignation(), line.getQuantity(),
+                        line.getUnit(), line.getUnitPrice(), line.getTaxRate(), line.getDiscount()))
+                .toList();
+        return new QuoteDto(UUID.randomUUID(), "Q-2025-0042", CLIENT_ID, PROJECT_ID,
+                LocalDate.of(2025, 3, 1), LocalDate.of(2025, 3, 31), "EUR", null, null, lines,
+                new BigDecimal("1000.00"), new BigDecimal("200.00"), new BigDecimal("1200.00"),
+                QuoteStatus.SENT, "Devis valable 30 jours.");
+    }
+
+    static ClientDto client() {
+        AddressDto address = new AddressDto("10 rue de Rivoli", "75004", "Paris", "France");
+        return new ClientDto(CLIENT_ID, "ACME Industries", "FR12345678901", address, address,
+                "EUR", "fr-FR", "Jeanne Martin", "jeanne.martin@acme.example", "+33 1 23 45 67 89", null);
+    }
+
+    static ProjectDto project() {
+        return new ProjectDto(PROJECT_ID, CLIENT_ID, "PROJ-2025-001", "Refonte du portail client", null,
+                LocalDate.of(2025, 1, 6), null, ProjectStatus.ACTIVE, BillingMode.TIME_AND_MATERIALS,
+                new BigDecimal("650.00"), "EUR");
+    }
+
+    static CompanyDto issuer() {
+        return new CompanyDto(UUID.fromString("00000000-0000-0000-0000-000000000003"), "Custody Conseil", null,
+                "123456789", "12345678900012", "FR12123456789",
+                new AddressDto("123 Rue de la République", "75001", "Paris", "France"),
+                "facturation@example.com", null, null, "FR7630006000011234567890189", "AGRIFRPP",
+                "RCS Paris", "6202A", "SASU");
+    }
+
+    static TaxProfileDto taxProfile() {
+        return new TaxProfileDto(UUID.randomUUID(), TaxType.FR_TVA_STANDARD, "TVA France",
+                List.of("TVA acquittée sur les débits",
+                        "Pénalités de retard : 3 fois le taux d'intérêt légal",
+                        "Indemnité forfaitaire pour frais de recouvrement : 40 €"));
+    }
+
+    /**
+     * Renseigne un champ injecté par Spring (mappers générés, valeurs @Value) sans démarrer de contexte.
+     */
+    static void inject(Object target, String fieldName, Object value) {
+        try {
+            Field field = target.getClass().getDeclaredField(fieldName);
+            field.setAccessible(true);
+            field.set(target, value);
+        } catch (ReflectiveOperationException e) {
+            throw new IllegalStateException("Impossible d'injecter " + fieldName + " dans " + target.getClass(), e);
+        }
+    }
+}
@@ -0,0 +1,31 @@
+package com.tcaputi.back.custody.benchmark;
+
+import com.tcaputi.back.custody.invoice.application.InvoiceNumberService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+/**
+ * Validation du format légal des numéros de facture (l'allocation elle-même est un aller-retour en base).
+ */
+@State(Scope.Benchmark)
+public class InvoiceNumberBenchmark {
+
+    private InvoiceNumberService invoiceNumberService;
+
+    @Setup
+    public void setUp() {
+        invoiceNumberService = new InvoiceNumberService(null);
+    }
+
+    @Benchmark
+    public boolean validNumber() {
+        return invoiceNumberService.isValidInvoiceNumber("FA-2025-0042");
+    }
+
+    @Benchmark
+    public boolean invalidNumber() {
+        return invoiceNumberService.isValidInvoiceNumber("INV-2025-03-042");
+    }
+}
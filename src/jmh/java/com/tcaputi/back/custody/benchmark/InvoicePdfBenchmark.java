@@ -0,0 +1,47 @@
+package com.tcaputi.back.custody.benchmark;
+
+import com.tcaputi.back.custody.client.interfaces.dto.ClientDto;
+import com.tcaputi.back.custody.client.interfaces.dto.CompanyDto;
+import com.tcaputi.back.custody.invoice.application.InvoicePdfRenderingEngine;
+import com.tcaputi.back.custody.invoice.interfaces.dto.InvoiceDto;
+import com.tcaputi.back.custody.project.interfaces.dto.ProjectDto;
+import com.tcaputi.back.custody.tax.interfaces.dto.TaxProfileDto;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.io.OutputStream;
+
+/**
+ * Rendu PDF d'une facture, sans accès base ni écriture réelle : seul le coût du rendu iText est mesuré.
+ */
+@State(Scope.Benchmark)
+public class InvoicePdfBenchmark {
+
+    @Param({"10", "100", "5000"})
+    private int lineCount;
+
+    private InvoicePdfRenderingEngine renderingEngine;
+    private InvoiceDto invoice;
+    private ClientDto client;
+    private ProjectDto project;
+    private CompanyDto issuer;
+    private TaxProfileDto taxProfile;
+
+    @Setup
+    public void setUp() {
+        renderingEngine = new InvoicePdfRenderingEngine();
+        invoice = BenchmarkFixtures.invoice(lineCount);
+        client = BenchmarkFixtures.client();
+        project = BenchmarkFixtures.project();
+        issuer = BenchmarkFixtures.issuer();
+        taxProfile = BenchmarkFixtures.taxProfile();
+    }
+
+    @Benchmark
+    public void renderInvoicePdf() {
+        renderingEngine.render(invoice, client, project, issuer, taxProfile, OutputStream.nullOutputStream());
+    }
+}
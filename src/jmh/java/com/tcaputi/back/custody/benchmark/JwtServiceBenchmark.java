@@ -0,0 +1,71 @@
+package com.tcaputi.back.custody.benchmark;
+
+import com.tcaputi.back.custody.identity.application.JwtService;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.springframework.security.core.userdetails.User;
+import org.springframework.security.core.userdetails.UserDetails;
+
+import java.time.Duration;
+
+/**
+ * Génération, lecture et validation des jetons JWT (chemin de chaque requête authentifiée).
+ */
+@State(Scope.Benchmark)
+public class JwtServiceBenchmark {
+
+    private static final String SECRET = "404E635266556A586E3272357538782F413F4428472B4B6250645367566B5970";
+    private static final int COLD_TOKENS = 1 << 14;
+
+    private JwtService jwtService;
+    private JwtService uncachedJwtService;
+    private UserDetails user;
+    private String token;
+    private String[] coldTokens;
+    private int coldIndex;
+
+    @Setup
+    public void setUp() {
+        jwtService = new JwtService(SECRET, 86_400_000L, 10_000, Duration.ofMinutes(10));
+
+        user = User.withUsername("bench").password("unused").roles("USER").build();
+        token = jwtService.generateToken(user);
+
+        // Cache des jetons vérifiés désactivé et jetons tous distincts (jti aléatoire) : signature recalculée à chaque appel
+        uncachedJwtService = new JwtService(SECRET, 86_400_000L, 0, Duration.ofMinutes(10));
+        coldTokens = new String[COLD_TOKENS];
+        for (int i = 0; i < COLD_TOKENS; i++) {
+            coldTokens[i] = uncachedJwtService.generateToken(user);
+        }
+    }
+
+    @Benchmark
+    public String generateToken() {
+        return jwtService.generateToken(user);
+    }
+
+    @Benchmark
+    public String extractUsername() {
+        return jwtService.extractUsername(token);
+    }
+
+    /**
+     * Jeton déjà vérifié : lecture dans le cache, cas courant d'un client qui enchaîne les requêtes.
+     */
+    @Benchmark
+    public boolean validateToken() {
+        return jwtService.isTokenValid(token, user);
+    }
+
+    /**
+     * Premier passage d'un jeton : lecture et vérification de la signature.
+     */
+    @Benchmark
+    public boolean validateTokenCold() {
+        String coldToken = coldTokens[coldIndex];
+        coldIndex = (coldIndex + 1) & (COLD_TOKENS - 1);
+        return uncachedJwtService.isTokenValid(coldToken, user);
+    }
+}
@@ -0,0 +1,70 @@
+package com.tcaputi.back.custody.benchmark;
+
+import com.tcaputi.back.custody.invoice.domain.model.Invoice;
+import com.tcaputi.back.custody.invoice.infrastructure.InvoiceLineMapperImpl;
+import com.tcaputi.back.custody.invoice.infrastructure.InvoiceMapper;
+import com.tcaputi.back.custody.invoice.infrastructure.InvoiceMapperImpl;
+import com.tcaputi.back.custody.invoice.interfaces.dto.InvoiceDto;
+import com.tcaputi.back.custody.quote.domain.model.Quote;
+import com.tcaputi.back.custody.quote.infrastructure.QuoteMapper;
+import com.tcaputi.back.custody.quote.infrastructure.QuoteMapperImpl;
+import com.tcaputi.back.custody.quote.interfaces.dto.QuoteDto;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+/**
+ * Conversions entité ↔ DTO des implémentations MapStruct générées.
+ */
+@State(Scope.Benchmark)
+public class MapperBenchmark {
+
+    @Param({"10", "100"})
+    private int lineCount;
+
+    private InvoiceMapper invoiceMapper;
+    private QuoteMapper quoteMapper;
+
+    private InvoiceDto invoiceDto;
+    private Invoice invoice;
+    private QuoteDto quoteDto;
+    private Quote quote;
+
+    @Setup
+    public void setUp() {
+        InvoiceMapperImpl invoiceMapperImpl = new InvoiceMapperImpl();
+        BenchmarkFixtures.inject(invoiceMapperImpl, "invoiceLineMapper", new InvoiceLineMapperImpl());
+        invoiceMapper = invoiceMapperImpl;
+        quoteMapper = new QuoteMapperImpl();
+
+        invoiceDto = BenchmarkFixtures.invoice(lineCount);
+        invoice = invoiceMapper.toEntity(invoiceDto);
+        invoice.setLines(BenchmarkFixtures.invoiceLines(lineCount));
+
+        quoteDto = BenchmarkFixtures.quote(lineCount);
+        quote = quoteMapper.toEntity(quoteDto);
+        quote.setLines(quoteMapper.toLineEntityList(quoteDto.lines()));
+    }
+
+    @Benchmark
+    public InvoiceDto invoiceToDto() {
+        return invoiceMapper.toDto(invoice);
+    }
+
+    @Benchmark
+    public Invoice invoiceToEntity() {
+        return invoiceMapper.toEntity(invoiceDto);
+    }
+
+    @Benchmark
+    public QuoteDto quoteToDto() {
+        return quoteMapper.toDto(quote);
+    }
+
+    @Benchmark
+    public Quote quoteToEntity() {
+        return quoteMapper.toEntity(quoteDto);
+    }
+}
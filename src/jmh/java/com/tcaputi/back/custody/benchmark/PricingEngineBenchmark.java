@@ -0,0 +1,36 @@
+package com.tcaputi.back.custody.benchmark;
+
+import com.tcaputi.back.custody.common.pricing.PricingEngine;
+import com.tcaputi.back.custody.common.pricing.PricingResult;
+import com.tcaputi.back.custody.invoice.domain.model.InvoiceLine;
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+
+import java.util.List;
+
+/**
+ * Calcul des totaux d'une facture (InvoiceService.calculateTotals délègue entièrement au moteur).
+ */
+@State(Scope.Benchmark)
+public class PricingEngineBenchmark {
+
+    @Param({"10", "100", "5000"})
+    private int lineCount;
+
+    private PricingEngine pricingEngine;
+    private List<InvoiceLine> lines;
+
+    @Setup
+    public void setUp() {
+        pricingEngine = new PricingEngine();
+        lines = BenchmarkFixtures.invoiceLines(lineCount);
+    }
+
+    @Benchmark
+    public PricingResult calculateTotals() {
+        return pricingEngine.price(lines);
+    }
+}
@@ -0,0 +1,32 @@
+package com.tcaputi.back.custody.analytics.application;
+
+import com.tcaputi.back.custody.invoice.domain.model.Invoice;
+import com.tcaputi.back.custody.invoice.domain.model.InvoiceStatus;
+
+import java.math.BigDecimal;
+import java.util.UUID;
+
+/**
+ * Part d'une facture dans les agrégats de chiffre d'affaires.
+ */
+public record RevenueContribution(int year, int month, String currency, UUID clientId, BigDecimal amount) {
+
+    private static final String DEFAULT_CURRENCY = "EUR";
+
+    /**
+     * @return la contribution de la facture, ou null si elle ne compte pas dans le chiffre d'affaires
+     */
+    public static RevenueContribution of(Invoice invoice) {
+        if (invoice.getStatus() != InvoiceStatus.PAID || invoice.getIssueDate() == null
+                || invoice.getTotal() == null || invoice.getClient() == null) {
+            return null;
+        }
+
+        return new RevenueContribution(
+                invoice.getIssueDate().getYear(),
+                invoice.getIssueDate().getMonthValue(),
+                invoice.getCurrency() != null ? invoice.getCurrency() : DEFAULT_CURRENCY,
+                invoice.getClient().getId(),
+                invoice.getTotal());
+    }
+}
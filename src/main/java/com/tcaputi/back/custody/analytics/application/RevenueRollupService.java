@@ -0,0 +1,111 @@
+package com.tcaputi.back.custody.analytics.application;
+
+import com.tcaputi.back.custody.analytics.infrastructure.RevenueRollupRepository;
+import com.tcaputi.back.custody.analytics.interfaces.dto.MonthlyRevenueDto;
+import com.tcaputi.back.custody.analytics.interfaces.dto.MonthlyRevenueEurDto;
+import com.tcaputi.back.custody.fx.application.ExchangeRateService;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.LocalDate;
+import java.time.YearMonth;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+import java.util.UUID;
+
+@Slf4j
+@Service
+@RequiredArgsConstructor
+@Transactional(readOnly = true)
+public class RevenueRollupService {
+
+    private final RevenueRollupRepository revenueRollupRepository;
+    private final ExchangeRateService exchangeRateService;
+
+    /**
+     * Reporte dans les agrégats le passage d'une facture d'une contribution à une autre
+     * (null = la facture ne compte pas). Doit être appelé dans la transaction qui modifie la facture.
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public void applyChange(RevenueContribution before, RevenueContribution after) {
+        if (Objects.equals(before, after)) {
+            return;
+        }
+
+        if (before != null) {
+            revenueRollupRepository.addContribution(before.year(), before.month(), before.currency(),
+                    before.clientId(), before.amount().negate(), -1);
+        }
+        if (after != null) {
+            revenueRollupRepository.addContribution(after.year(), after.month(), after.currency(),
+                    after.clientId(), after.amount(), 1);
+        }
+    }
+
+    public List<MonthlyRevenueDto> getMonthlyRevenue(YearMonth from, YearMonth to, UUID clientId, String currency) {
+        if (to.isBefore(from)) {
+            throw new IllegalArgumentException("La période de fin ne peut pas être antérieure à la période de début");
+        }
+
+        return revenueRollupRepository.findMonthlyRevenue(toPeriod(from), toPeriod(to), clientId, currency);
+    }
+
+    /**
+     * Chiffre d'affaires mensuel converti en EUR au taux de fin de mois (du jour pour le mois en cours).
+     * Les taux de la période sont chargés en une fois ; la conversion des lignes se fait ensuite en mémoire.
+     */
+    public List<MonthlyRevenueEurDto> getMonthlyRevenueInEur(YearMonth from, YearMonth to, UUID clientId) {
+        List<MonthlyRevenueDto> rows = getMonthlyRevenue(from, to, clientId, null);
+
+        LocalDate today = LocalDate.now();
+        exchangeRateService.ensureLoaded(from.atEndOfMonth(), to.atEndOfMonth());
+
+        // Lignes triées par mois puis devise : un mois se referme dès que le suivant commence
+        List<MonthlyRevenueEurDto> result = new ArrayList<>();
+        YearMonth current = null;
+        BigDecimal revenueEur = BigDecimal.ZERO;
+        long invoiceCount = 0;
+        for (MonthlyRevenueDto row : rows) {
+            YearMonth month = YearMonth.of(row.year(), row.month());
+            if (!month.equals(current)) {
+                if (current != null) {
+                    result.add(new MonthlyRevenueEurDto(current.getYear(), current.getMonthValue(), revenueEur, invoiceCount));
+                }
+                current = month;
+                revenueEur = BigDecimal.ZERO;
+                invoiceCount = 0;
+            }
+            LocalDate rateDate = month.atEndOfMonth().isAfter(today) ? today : month.atEndOfMonth();
+            BigDecimal rate = exchangeRateService.getRate(row.currency(), rateDate);
+            revenueEur = revenueEur.add(row.revenue().divide(rate, 2, RoundingMode.HALF_UP));
+            invoiceCount += row.invoiceCount();
+        }
+        if (current != null) {
+            result.add(new MonthlyRevenueEurDto(current.getYear(), current.getMonthValue(), revenueEur, invoiceCount));
+        }
+        return result;
+    }
+
+    /**
+     * Recalcule les agrégats depuis les factures. La table est verrouillée d'abord, de sorte que le recalcul
+     * lit les factures après toute écriture concurrente déjà reportée : rien n'est compté deux fois ni perdu.
+     */
+    @Transactional
+    public int rebuild() {
+        revenueRollupRepository.lockRollups();
+        revenueRollupRepository.deleteAllRollups();
+        int rows = revenueRollupRepository.rebuildFromInvoices();
+        log.info("Agrégats de chiffre d'affaires recalculés : {} ligne(s)", rows);
+        return rows;
+    }
+
+    private int toPeriod(YearMonth yearMonth) {
+        return yearMonth.getYear() * 100 + yearMonth.getMonthValue();
+    }
+}
@@ -0,0 +1,43 @@
+package com.tcaputi.back.custody.analytics.domain.model;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.math.BigDecimal;
+import java.util.UUID;
+
+/**
+ * Chiffre d'affaires encaissé (factures PAID) agrégé par mois d'émission, devise et client.
+ * Maintenu dans la transaction de chaque écriture de facture, jamais recalculé à la lecture.
+ */
+@Entity
+@Builder
+@Setter
+@Getter
+@NoArgsConstructor
+@AllArgsConstructor
+@Table(name = "revenue_rollups",
+       uniqueConstraints = @UniqueConstraint(columnNames = {"period_year", "period_month", "currency", "client_id"}))
+public class RevenueRollup {
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(nullable = false)
+    private Integer periodYear;
+
+    @Column(nullable = false)
+    private Integer periodMonth;
+
+    @Column(nullable = false)
+    private String currency;
+
+    @Column(nullable = false)
+    private UUID clientId;
+
+    @Column(nullable = false, precision = 19, scale = 2)
+    private BigDecimal revenue;
+
+    @Column(nullable = false)
+    private Long invoiceCount;
+}
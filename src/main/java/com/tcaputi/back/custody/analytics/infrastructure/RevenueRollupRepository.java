@@ -0,0 +1,75 @@
+package com.tcaputi.back.custody.analytics.infrastructure;
+
+import com.tcaputi.back.custody.analytics.domain.model.RevenueRollup;
+import com.tcaputi.back.custody.analytics.interfaces.dto.MonthlyRevenueDto;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.UUID;
+
+@Repository
+public interface RevenueRollupRepository extends JpaRepository<RevenueRollup, Long> {
+
+    /**
+     * Ajoute (ou retranche, avec des valeurs négatives) une contribution à l'agrégat du mois.
+     */
+    @Modifying
+    @Query(value = """
+            INSERT INTO revenue_rollups (period_year, period_month, currency, client_id, revenue, invoice_count)
+            VALUES (:year, :month, :currency, :clientId, :amount, :count)
+            ON CONFLICT (period_year, period_month, currency, client_id)
+            DO UPDATE SET revenue = revenue_rollups.revenue + EXCLUDED.revenue,
+                          invoice_count = revenue_rollups.invoice_count + EXCLUDED.invoice_count
+            """, nativeQuery = true)
+    int addContribution(@Param("year") int year,
+                        @Param("month") int month,
+                        @Param("currency") String currency,
+                        @Param("clientId") UUID clientId,
+                        @Param("amount") BigDecimal amount,
+                        @Param("count") long count);
+
+    // Séries mensuelles : les périodes sont comparées sous la forme AAAAMM
+    @Query("SELECT new com.tcaputi.back.custody.analytics.interfaces.dto.MonthlyRevenueDto(" +
+           "r.periodYear, r.periodMonth, r.currency, SUM(r.revenue), SUM(r.invoiceCount)) " +
+           "FROM RevenueRollup r WHERE " +
+           "(r.periodYear * 100 + r.periodMonth) BETWEEN :fromPeriod AND :toPeriod AND " +
+           "(:clientId IS NULL OR r.clientId = :clientId) AND " +
+           "(:currency IS NULL OR r.currency = :currency) " +
+           "GROUP BY r.periodYear, r.periodMonth, r.currency " +
+           "ORDER BY r.periodYear, r.periodMonth, r.currency")
+    List<MonthlyRevenueDto> findMonthlyRevenue(@Param("fromPeriod") int fromPeriod,
+                                               @Param("toPeriod") int toPeriod,
+                                               @Param("clientId") UUID clientId,
+                                               @Param("currency") String currency);
+
+    /**
+     * Bloque les mises à jour incrémentales jusqu'à la fin de la transaction : celles déjà écrites sont validées
+     * avant l'obtention du verrou, les suivantes attendent la fin du recalcul.
+     */
+    @Modifying
+    @Query(value = "LOCK TABLE revenue_rollups IN EXCLUSIVE MODE", nativeQuery = true)
+    void lockRollups();
+
+    @Modifying
+    @Query(value = "DELETE FROM revenue_rollups", nativeQuery = true)
+    int deleteAllRollups();
+
+    /**
+     * Recalcule tous les agrégats depuis les factures, même règle que {@code RevenueContribution.of}.
+     */
+    @Modifying
+    @Query(value = """
+            INSERT INTO revenue_rollups (period_year, period_month, currency, client_id, revenue, invoice_count)
+            SELECT EXTRACT(YEAR FROM i.issue_date), EXTRACT(MONTH FROM i.issue_date), COALESCE(i.currency, 'EUR'),
+                   i.client_id, SUM(i.total), COUNT(*)
+            FROM invoices i
+            WHERE i.status = 'PAID' AND i.issue_date IS NOT NULL AND i.total IS NOT NULL
+            GROUP BY 1, 2, 3, 4
+            """, nativeQuery = true)
+    int rebuildFromInvoices();
+}
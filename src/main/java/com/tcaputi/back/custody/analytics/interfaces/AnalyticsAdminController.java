@@ -0,0 +1,24 @@
+package com.tcaputi.back.custody.analytics.interfaces;
+
+import com.tcaputi.back.custody.analytics.application.RevenueRollupService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+@RestController
+@RequestMapping("/admin/analytics")
+@RequiredArgsConstructor
+class AnalyticsAdminController {
+
+    private final RevenueRollupService revenueRollupService;
+
+    /**
+     * Recalcule les agrégats depuis les factures (initialisation ou reprise après import direct en base).
+     */
+    @PostMapping("/revenue/rebuild")
+    public ResponseEntity<Integer> rebuildRevenueRollups() {
+        return ResponseEntity.ok(revenueRollupService.rebuild());
+    }
+}
@@ -0,0 +1,58 @@
+package com.tcaputi.back.custody.analytics.interfaces;
+
+import com.tcaputi.back.custody.analytics.application.RevenueRollupService;
+import com.tcaputi.back.custody.analytics.interfaces.dto.MonthlyRevenueDto;
+import com.tcaputi.back.custody.analytics.interfaces.dto.MonthlyRevenueEurDto;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.time.YearMonth;
+import java.util.List;
+import java.util.UUID;
+
+@Slf4j
+@RestController
+@RequestMapping("/analytics")
+@RequiredArgsConstructor
+class AnalyticsController {
+
+    private final RevenueRollupService revenueRollupService;
+
+    /**
+     * Chiffre d'affaires mois par mois (ex: from=2024-01&to=2025-12) ; les mois sans facture payée sont absents.
+     */
+    @GetMapping("/revenue")
+    public ResponseEntity<List<MonthlyRevenueDto>> getMonthlyRevenue(
+            @RequestParam YearMonth from,
+            @RequestParam YearMonth to,
+            @RequestParam(required = false) UUID clientId,
+            @RequestParam(required = false) String currency) {
+        try {
+            return ResponseEntity.ok(revenueRollupService.getMonthlyRevenue(from, to, clientId, currency));
+        } catch (IllegalArgumentException e) {
+            log.warn("Erreur lors de la récupération du chiffre d'affaires : {}", e.getMessage());
+            return ResponseEntity.badRequest().build();
+        }
+    }
+
+    /**
+     * Chiffre d'affaires mois par mois, toutes devises ramenées en EUR.
+     */
+    @GetMapping("/revenue/eur")
+    public ResponseEntity<List<MonthlyRevenueEurDto>> getMonthlyRevenueInEur(
+            @RequestParam YearMonth from,
+            @RequestParam YearMonth to,
+            @RequestParam(required = false) UUID clientId) {
+        try {
+            return ResponseEntity.ok(revenueRollupService.getMonthlyRevenueInEur(from, to, clientId));
+        } catch (IllegalArgumentException e) {
+            log.warn("Erreur lors de la récupération du chiffre d'affaires en EUR : {}", e.getMessage());
+            return ResponseEntity.badRequest().build();
+        }
+    }
+}
@@ -0,0 +1,10 @@
+package com.tcaputi.back.custody.analytics.interfaces.dto;
+
+import java.math.BigDecimal;
+
+public record MonthlyRevenueDto(Integer year,
+                                Integer month,
+                                String currency,
+                                BigDecimal revenue,
+                                Long invoiceCount) {
+}
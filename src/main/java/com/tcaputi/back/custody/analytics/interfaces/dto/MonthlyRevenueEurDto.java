@@ -0,0 +1,12 @@
+package com.tcaputi.back.custody.analytics.interfaces.dto;
+
+import java.math.BigDecimal;
+
+/**
+ * Chiffre d'affaires mensuel toutes devises confondues, contre-valeur en EUR au taux de fin de mois.
+ */
+public record MonthlyRevenueEurDto(Integer year,
+                                   Integer month,
+                                   BigDecimal revenueEur,
+                                   Long invoiceCount) {
+}
@@ -4,13 +4,20 @@ import com.tcaputi.back.custody.client.domain.model.Client;
 import com.tcaputi.back.custody.client.infrastructure.ClientMapper;
 import com.tcaputi.back.custody.client.infrastructure.ClientRepository;
 import com.tcaputi.back.custody.client.interfaces.dto.ClientDto;
+import com.tcaputi.back.custody.common.config.CacheConfig;
+import com.tcaputi.back.custody.common.dto.CursorPage;
+import com.tcaputi.back.custody.common.infrastructure.CursorCodec;
+import com.tcaputi.back.custody.common.infrastructure.ETags;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.cache.annotation.CacheEvict;
+import org.springframework.cache.annotation.Cacheable;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.stereotype.Service;
 
 import java.util.List;
+import java.util.Objects;
 import java.util.Optional;
 import java.util.UUID;
 
@@ -27,11 +34,35 @@ public class ClientService {
         return clients.map(clientMapper::toDto);
     }
 
+    public CursorPage<ClientDto> getClientsByCursor(String cursor, int size, boolean withTotal) {
+        CursorPage.validateSize(size);
+        int limit = size + 1; // Une ligne de plus pour savoir s'il existe une page suivante
+
+        List<Client> clients;
+        if (cursor == null) {
+            clients = clientRepository.findFirstKeysetPage(limit);
+        } else {
+            CursorCodec.Cursor position = CursorCodec.decode(cursor);
+            clients = clientRepository.findKeysetPageAfter(Objects.requireNonNullElse(position.key(), ""), position.id(), limit);
+        }
+
+        Long total = withTotal ? clientRepository.count() : null;
+        return CursorPage.of(clients, size, clientMapper::toDto,
+                client -> CursorCodec.encode(client.getLegalName(), client.getId()), total);
+    }
+
+    // Données de référence lues à presque chaque requête : servies depuis le cache, les absences ne sont pas mémorisées
+    @Cacheable(cacheNames = CacheConfig.CLIENTS, key = "#id", unless = "#result == null")
     public Optional<ClientDto> getClientById(UUID id) {
         return clientRepository.findById(id)
                 .map(clientMapper::toDto);
     }
 
+    public Optional<String> getClientETag(UUID id) {
+        return clientRepository.findStampById(id)
+                .map(stamp -> ETags.of(stamp.id(), stamp.updatedAt()));
+    }
+
     public Integer getClientCount() {
         return (int) clientRepository.count();
     }
@@ -67,6 +98,7 @@ public class ClientService {
         return clientMapper.toDto(savedClient);
     }
 
+    @CacheEvict(cacheNames = CacheConfig.CLIENTS, key = "#id")
     public boolean deleteClient(UUID id) {
         if (!clientRepository.existsById(id)) {
             log.warn("Tentative de suppression d'un client inexistant : {}", id);
@@ -78,6 +110,7 @@ public class ClientService {
         return true;
     }
 
+    @CacheEvict(cacheNames = CacheConfig.CLIENTS, key = "#id")
     public Optional<ClientDto> updateClient(UUID id, ClientDto dto) {
         if (!id.equals(dto.id())) {
             throw new IllegalArgumentException("L'ID dans l'URL ne correspond pas à l'ID dans le body");
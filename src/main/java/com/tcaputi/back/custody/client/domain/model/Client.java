@@ -4,6 +4,7 @@ import com.tcaputi.back.custody.client.domain.model.embedded.Address;
 import jakarta.persistence.*;
 import lombok.*;
 
+import java.time.Instant;
 import java.util.UUID;
 
 @Entity
@@ -12,7 +13,7 @@ import java.util.UUID;
 @Getter
 @NoArgsConstructor
 @AllArgsConstructor
-@Table(name = "clients")
+@Table(name = "clients", indexes = @Index(name = "idx_clients_legal_name_id", columnList = "legalName, id"))
 public class Client {
 
     @Id
@@ -52,4 +53,12 @@ public class Client {
     @Column(columnDefinition = "TEXT")
     private String notes;
 
+    private Instant updatedAt; // Base des ETags, mise à jour à chaque écriture de l'entité
+
+    @PrePersist
+    @PreUpdate
+    void touch() {
+        updatedAt = Instant.now();
+    }
 }
+
@@ -12,6 +12,7 @@ public interface ClientMapper {
 
     @Mapping(source = "billingAddress", target = "billingAddress")
     @Mapping(source = "shippingAddress", target = "shippingAddress")
+    @Mapping(target = "updatedAt", ignore = true) // Renseigné à l'écriture
     Client toEntity(ClientDto dto);
 
     @Mapping(source = "billingAddress", target = "billingAddress")
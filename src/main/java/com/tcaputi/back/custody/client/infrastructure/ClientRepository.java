@@ -1,11 +1,13 @@
 package com.tcaputi.back.custody.client.infrastructure;
 
 import com.tcaputi.back.custody.client.domain.model.Client;
+import com.tcaputi.back.custody.common.dto.EntityStamp;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 
 import java.util.List;
+import java.util.Optional;
 import java.util.UUID;
 
 public interface ClientRepository extends JpaRepository<Client, UUID> {
@@ -21,6 +23,15 @@ public interface ClientRepository extends JpaRepository<Client, UUID> {
             @Param("contactName") String contactName
     );
 
+    // Pagination par curseur : tri (legal_name, id)
+    @Query(value = "SELECT * FROM clients c ORDER BY c.legal_name, c.id LIMIT :limit", nativeQuery = true)
+    List<Client> findFirstKeysetPage(@Param("limit") int limit);
 
+    @Query(value = "SELECT * FROM clients c WHERE (c.legal_name, c.id) > (:legalName, :id) " +
+            "ORDER BY c.legal_name, c.id LIMIT :limit", nativeQuery = true)
+    List<Client> findKeysetPageAfter(@Param("legalName") String legalName, @Param("id") UUID id, @Param("limit") int limit);
 
+    // ETag : date de dernière écriture, sans charger l'entité
+    @Query("SELECT new com.tcaputi.back.custody.common.dto.EntityStamp(c.id, c.updatedAt) FROM Client c WHERE c.id = :id")
+    Optional<EntityStamp> findStampById(@Param("id") UUID id);
 }
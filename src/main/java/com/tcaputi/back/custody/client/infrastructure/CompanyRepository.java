@@ -0,0 +1,15 @@
+package com.tcaputi.back.custody.client.infrastructure;
+
+import com.tcaputi.back.custody.client.domain.model.Company;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+import java.util.Optional;
+import java.util.UUID;
+
+@Repository
+public interface CompanyRepository extends JpaRepository<Company, UUID> {
+
+    // Une seule fiche émetteur attendue ; l'ordre rend le choix stable si plusieurs ont été saisies
+    Optional<Company> findFirstByOrderByIdAsc();
+}
@@ -2,15 +2,19 @@ package com.tcaputi.back.custody.client.interfaces;
 
 import com.tcaputi.back.custody.client.application.ClientService;
 import com.tcaputi.back.custody.client.interfaces.dto.ClientDto;
+import com.tcaputi.back.custody.common.dto.CursorPage;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.data.domain.Page;
+import org.springframework.http.CacheControl;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 
 import java.net.URI;
 import java.util.List;
+import java.util.Optional;
 import java.util.UUID;
 
 @Slf4j
@@ -29,15 +33,36 @@ class ClientController {
         return ResponseEntity.ok(clients);
     }
 
+    @GetMapping("/cursor")
+    public ResponseEntity<CursorPage<ClientDto>> getClientsByCursor(
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "20") Integer size,
+            @RequestParam(defaultValue = "false") boolean withTotal) {
+        try {
+            return ResponseEntity.ok(clientService.getClientsByCursor(cursor, size, withTotal));
+        } catch (IllegalArgumentException e) {
+            log.warn("Erreur lors de la pagination des clients : {}", e.getMessage());
+            return ResponseEntity.badRequest().build();
+        }
+    }
+
     @GetMapping("/count")
     public int getClientCount() {
         return clientService.getClientCount();
     }
 
     @GetMapping("/{id}")
-    public ResponseEntity<ClientDto> getClient(@PathVariable UUID id) {
+    public ResponseEntity<ClientDto> getClient(@PathVariable UUID id, WebRequest request) {
+        Optional<String> eTag = clientService.getClientETag(id);
+        if (eTag.isEmpty()) {
+            return ResponseEntity.notFound().build();
+        }
+        if (request.checkNotModified(eTag.get())) {
+            return null; // 304 déjà posé sur la réponse, sans relire l'entité
+        }
+
         return clientService.getClientById(id)
-                .map(ResponseEntity::ok)
+                .map(dto -> ResponseEntity.ok().eTag(eTag.get()).cacheControl(CacheControl.noCache().cachePrivate()).body(dto))
                 .orElse(ResponseEntity.notFound().build());
     }
 
@@ -0,0 +1,48 @@
+package com.tcaputi.back.custody.common.config;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cache.CacheManager;
+import org.springframework.cache.annotation.EnableCaching;
+import org.springframework.cache.caffeine.CaffeineCacheManager;
+import org.springframework.cache.transaction.TransactionAwareCacheManagerProxy;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+
+import java.time.Duration;
+import java.util.List;
+
+/**
+ * Cache en mémoire des données de référence (clients, projets), lues à presque chaque requête et rarement modifiées.
+ * Taille et durée de vie bornées ; les statistiques sont publiées sous les métriques cache.gets, cache.evictions…
+ */
+@Configuration
+@EnableCaching
+public class CacheConfig {
+
+    public static final String CLIENTS = "clients";
+    public static final String PROJECTS = "projects";
+
+    @Bean
+    public CacheManager cacheManager(MeterRegistry meterRegistry,
+                                     @Value("${custody.cache.reference.maximum-size:10000}") long maximumSize,
+                                     @Value("${custody.cache.reference.ttl:PT10M}") Duration ttl) {
+        CaffeineCacheManager cacheManager = new CaffeineCacheManager();
+        cacheManager.setAllowNullValues(false);
+        for (String name : List.of(CLIENTS, PROJECTS)) {
+            Cache<Object, Object> cache = Caffeine.newBuilder()
+                    .maximumSize(maximumSize)
+                    .expireAfterWrite(ttl)
+                    .recordStats()
+                    .build();
+            CaffeineCacheMetrics.monitor(meterRegistry, cache, name);
+            cacheManager.registerCustomCache(name, cache);
+        }
+        // Écritures et évictions appliquées au commit : une transaction annulée n'invalide rien
+        // et une lecture concurrente ne remet pas en cache l'état d'avant la mise à jour
+        return new TransactionAwareCacheManagerProxy(cacheManager);
+    }
+}
@@ -0,0 +1,62 @@
+package com.tcaputi.back.custody.common.config;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+
+import java.util.concurrent.ThreadPoolExecutor;
+
+@Configuration
+public class ExecutorConfig {
+
+    /**
+     * Pool borné dédié au rendu PDF (tâche CPU) : une thread par cœur par défaut.
+     */
+    @Bean
+    public ThreadPoolTaskExecutor pdfRenderingExecutor(
+            @Value("${custody.pdf.rendering.parallelism:0}") int parallelism) {
+        int poolSize = parallelism > 0 ? parallelism : Runtime.getRuntime().availableProcessors();
+
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(poolSize);
+        executor.setMaxPoolSize(poolSize);
+        executor.setThreadNamePrefix("PDF_Renderer");
+        executor.setWaitForTasksToCompleteOnShutdown(true);
+        executor.setAwaitTerminationSeconds(60);
+        return executor;
+    }
+
+    /**
+     * Thread unique des envois d'emails déclenchés à la mise en file.
+     * Un seul réveil en attente suffit : la boucle d'envoi vide l'outbox, les demandes en surplus sont ignorées.
+     */
+    @Bean
+    public ThreadPoolTaskExecutor mailDispatchExecutor() {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(1);
+        executor.setMaxPoolSize(1);
+        executor.setQueueCapacity(1);
+        executor.setRejectedExecutionHandler(new ThreadPoolExecutor.DiscardPolicy());
+        executor.setThreadNamePrefix("Mail_Dispatcher");
+        executor.setWaitForTasksToCompleteOnShutdown(true);
+        executor.setAwaitTerminationSeconds(30);
+        return executor;
+    }
+
+    /**
+     * Pool des relances : un client par tâche, chacun dans sa transaction.
+     * Borné pour ne pas accaparer les connexions JDBC pendant une campagne.
+     */
+    @Bean
+    public ThreadPoolTaskExecutor dunningExecutor(
+            @Value("${custody.dunning.concurrency:4}") int concurrency) {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(concurrency);
+        executor.setMaxPoolSize(concurrency);
+        executor.setThreadNamePrefix("Dunning");
+        executor.setWaitForTasksToCompleteOnShutdown(true);
+        executor.setAwaitTerminationSeconds(60);
+        return executor;
+    }
+}
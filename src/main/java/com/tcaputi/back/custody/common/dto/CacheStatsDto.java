@@ -0,0 +1,12 @@
+package com.tcaputi.back.custody.common.dto;
+
+/**
+ * État d'un cache en mémoire depuis le démarrage.
+ */
+public record CacheStatsDto(String name,
+                            long size,
+                            long hits,
+                            long misses,
+                            double hitRate,
+                            long evictions) {
+}
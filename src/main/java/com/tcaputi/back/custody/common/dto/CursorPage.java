@@ -0,0 +1,31 @@
+package com.tcaputi.back.custody.common.dto;
+
+import java.util.List;
+import java.util.function.Function;
+
+/**
+ * Page d'une liste paginée par curseur (keyset).
+ * nextCursor est null sur la dernière page ; total n'est renseigné que s'il a été demandé.
+ */
+public record CursorPage<T>(List<T> items, String nextCursor, Long total) {
+
+    public static final int MAX_SIZE = 200;
+
+    public static void validateSize(int size) {
+        if (size < 1 || size > MAX_SIZE) {
+            throw new IllegalArgumentException("La taille de page doit être comprise entre 1 et " + MAX_SIZE);
+        }
+    }
+
+    /**
+     * Construit la page à partir des lignes lues avec une de plus que la taille demandée :
+     * la ligne en trop indique seulement qu'une page suivante existe.
+     */
+    public static <E, T> CursorPage<T> of(List<E> fetched, int size, Function<E, T> mapper,
+                                          Function<E, String> cursorOf, Long total) {
+        boolean hasNext = fetched.size() > size;
+        List<E> pageItems = hasNext ? fetched.subList(0, size) : fetched;
+        String nextCursor = hasNext ? cursorOf.apply(pageItems.getLast()) : null;
+        return new CursorPage<>(pageItems.stream().map(mapper).toList(), nextCursor, total);
+    }
+}
@@ -0,0 +1,10 @@
+package com.tcaputi.back.custody.common.dto;
+
+import java.time.Instant;
+import java.util.UUID;
+
+/**
+ * Identifiant et date de dernière écriture d'une entité, lus sans charger l'entité pour calculer son ETag.
+ */
+public record EntityStamp(UUID id, Instant updatedAt) {
+}
@@ -0,0 +1,51 @@
+package com.tcaputi.back.custody.common.infrastructure;
+
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.time.format.DateTimeParseException;
+import java.util.Base64;
+import java.util.UUID;
+
+/**
+ * Encodage des curseurs de pagination : la clé de tri et l'identifiant de la dernière ligne lue,
+ * en base64url pour rester opaques côté client.
+ */
+public final class CursorCodec {
+
+    private static final char SEPARATOR = '|';
+
+    private CursorCodec() {
+    }
+
+    /**
+     * @param key valeur de tri de la dernière ligne, null si absente
+     */
+    public static String encode(String key, UUID id) {
+        String raw = (key != null ? key : "") + SEPARATOR + id;
+        return Base64.getUrlEncoder().withoutPadding().encodeToString(raw.getBytes(StandardCharsets.UTF_8));
+    }
+
+    public static Cursor decode(String cursor) {
+        try {
+            String raw = new String(Base64.getUrlDecoder().decode(cursor), StandardCharsets.UTF_8);
+            // L'identifiant ne contient jamais le séparateur, la clé peut le contenir
+            int separator = raw.lastIndexOf(SEPARATOR);
+            String key = raw.substring(0, separator);
+            UUID id = UUID.fromString(raw.substring(separator + 1));
+            return new Cursor(key.isEmpty() ? null : key, id);
+        } catch (RuntimeException e) {
+            throw new IllegalArgumentException("Curseur de pagination invalide");
+        }
+    }
+
+    public record Cursor(String key, UUID id) {
+
+        public LocalDate dateKey() {
+            try {
+                return key != null ? LocalDate.parse(key) : null;
+            } catch (DateTimeParseException e) {
+                throw new IllegalArgumentException("Curseur de pagination invalide");
+            }
+        }
+    }
+}
@@ -0,0 +1,31 @@
+package com.tcaputi.back.custody.common.infrastructure;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.HexFormat;
+
+/**
+ * ETags forts des ressources : empreinte des valeurs qui déterminent le contenu de la réponse
+ * (identifiant, dates de dernière écriture, version du rendu).
+ */
+public final class ETags {
+
+    private static final int LENGTH_BYTES = 16;
+
+    private ETags() {
+    }
+
+    public static String of(Object... parts) {
+        StringBuilder raw = new StringBuilder();
+        for (Object part : parts) {
+            raw.append(part != null ? part : "-").append('|');
+        }
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(raw.toString().getBytes(StandardCharsets.UTF_8));
+            return "\"" + HexFormat.of().formatHex(digest, 0, LENGTH_BYTES) + "\"";
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 indisponible", e);
+        }
+    }
+}
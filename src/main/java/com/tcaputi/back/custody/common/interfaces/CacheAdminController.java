@@ -0,0 +1,59 @@
+package com.tcaputi.back.custody.common.interfaces;
+
+import com.github.benmanes.caffeine.cache.stats.CacheStats;
+import com.tcaputi.back.custody.common.dto.CacheStatsDto;
+import lombok.RequiredArgsConstructor;
+import org.springframework.cache.Cache;
+import org.springframework.cache.CacheManager;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.DeleteMapping;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.List;
+
+@RestController
+@RequestMapping("/admin/caches")
+@RequiredArgsConstructor
+class CacheAdminController {
+
+    private final CacheManager cacheManager;
+
+    @GetMapping
+    public ResponseEntity<List<CacheStatsDto>> getCaches() {
+        return ResponseEntity.ok(cacheManager.getCacheNames().stream()
+                .sorted()
+                .map(name -> toStats(name, cacheManager.getCache(name)))
+                .toList());
+    }
+
+    /**
+     * Vide un cache (correction directe en base, reprise de données).
+     */
+    @DeleteMapping("/{name}")
+    public ResponseEntity<Void> flush(@PathVariable String name) {
+        Cache cache = cacheManager.getCache(name);
+        if (cache == null) {
+            return ResponseEntity.notFound().build();
+        }
+        cache.invalidate();
+        return ResponseEntity.noContent().build();
+    }
+
+    @DeleteMapping
+    public ResponseEntity<Void> flushAll() {
+        cacheManager.getCacheNames().forEach(name -> cacheManager.getCache(name).invalidate());
+        return ResponseEntity.noContent().build();
+    }
+
+    private static CacheStatsDto toStats(String name, Cache cache) {
+        if (!(cache.getNativeCache() instanceof com.github.benmanes.caffeine.cache.Cache<?, ?> nativeCache)) {
+            return new CacheStatsDto(name, 0, 0, 0, 0, 0);
+        }
+        CacheStats stats = nativeCache.stats();
+        return new CacheStatsDto(name, nativeCache.estimatedSize(), stats.hitCount(), stats.missCount(),
+                stats.hitRate(), stats.evictionCount());
+    }
+}
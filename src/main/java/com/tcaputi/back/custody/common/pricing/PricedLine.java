@@ -0,0 +1,24 @@
+package com.tcaputi.back.custody.common.pricing;
+
+import java.math.BigDecimal;
+
+/**
+ * Ligne chiffrable par le {@link PricingEngine} (ligne de facture ou de devis).
+ * Valeurs nulles : quantité 1, prix unitaire 0, remise 0 %, TVA 0 %.
+ */
+public interface PricedLine {
+
+    BigDecimal getQuantity();
+
+    BigDecimal getUnitPrice();
+
+    /**
+     * Remise en pourcentage du montant de la ligne.
+     */
+    BigDecimal getDiscount();
+
+    /**
+     * Taux de TVA en pourcentage.
+     */
+    BigDecimal getTaxRate();
+}
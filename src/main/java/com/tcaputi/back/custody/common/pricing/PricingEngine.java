@@ -0,0 +1,217 @@
+package com.tcaputi.back.custody.common.pricing;
+
+import org.springframework.stereotype.Component;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Calcul des totaux des factures et devis.
+ * <p>
+ * Règles (arrondi HALF_UP au centime) :
+ * <ul>
+ *     <li>montant = quantité × prix unitaire (exact)</li>
+ *     <li>remise = montant × remise % / 100, arrondie par ligne ; une remise hors de 0-100 % est refusée</li>
+ *     <li>net = montant - remise (exact)</li>
+ *     <li>TVA = net × taux / 100, arrondie par ligne</li>
+ *     <li>sous-total = somme exacte des nets, arrondie ; total = somme exacte des nets + TVA, arrondie</li>
+ * </ul>
+ * Le calcul se fait en une passe sur des entiers longs mis à l'échelle ; si une valeur a trop de décimales
+ * ou dépasse la capacité d'un long, tout le document est recalculé en BigDecimal avec les mêmes règles.
+ */
+@Component
+public class PricingEngine {
+
+    private static final BigDecimal HUNDRED = BigDecimal.valueOf(100);
+    private static final long[] POWERS_OF_TEN = new long[19];
+    private static final int MAX_SCALE = POWERS_OF_TEN.length - 1;
+    private static final int NET_SCALE = 8;   // échelle d'accumulation des montants nets
+    private static final int RATE_SCALE = 4;  // échelle des taux de TVA en clé de ventilation
+    private static final int CENTS_SCALE = 2;
+
+    static {
+        POWERS_OF_TEN[0] = 1;
+        for (int i = 1; i < POWERS_OF_TEN.length; i++) {
+            POWERS_OF_TEN[i] = POWERS_OF_TEN[i - 1] * 10;
+        }
+    }
+
+    public PricingResult price(List<? extends PricedLine> lines) {
+        if (lines == null || lines.isEmpty()) {
+            return PricingResult.EMPTY;
+        }
+        validateDiscounts(lines);
+
+        try {
+            PricingResult result = priceFixedPoint(lines);
+            if (result != null) {
+                return result;
+            }
+        } catch (ArithmeticException e) {
+            // Dépassement de capacité : calcul en BigDecimal
+        }
+        return priceBigDecimal(lines);
+    }
+
+    /**
+     * @return null si une valeur n'est pas représentable dans les échelles du calcul en entiers
+     */
+    private PricingResult priceFixedPoint(List<? extends PricedLine> lines) {
+        long netSum = 0;       // échelle NET_SCALE
+        long discountSum = 0;  // centimes
+        long taxSum = 0;       // centimes
+        RateTotals rates = new RateTotals();
+
+        for (PricedLine line : lines) {
+            BigDecimal quantity = line.getQuantity() != null ? line.getQuantity() : BigDecimal.ONE;
+            BigDecimal unitPrice = line.getUnitPrice() != null ? line.getUnitPrice() : BigDecimal.ZERO;
+            BigDecimal discountRate = line.getDiscount() != null ? line.getDiscount() : BigDecimal.ZERO;
+            BigDecimal taxRate = line.getTaxRate() != null ? line.getTaxRate() : BigDecimal.ZERO;
+
+            int amountScale = quantity.scale() + unitPrice.scale();
+            int netScale = Math.max(amountScale, CENTS_SCALE);
+            if (quantity.scale() < 0 || unitPrice.scale() < 0 || discountRate.scale() < 0 || taxRate.scale() < 0
+                    || netScale > NET_SCALE || taxRate.scale() > RATE_SCALE
+                    || amountScale + discountRate.scale() > MAX_SCALE || netScale + taxRate.scale() > MAX_SCALE) {
+                return null;
+            }
+
+            long amount = Math.multiplyExact(unscaled(quantity), unscaled(unitPrice));
+            long discount = roundHalfUp(Math.multiplyExact(amount, unscaled(discountRate)),
+                    POWERS_OF_TEN[amountScale + discountRate.scale()]);
+            long net = Math.subtractExact(
+                    Math.multiplyExact(amount, POWERS_OF_TEN[netScale - amountScale]),
+                    Math.multiplyExact(discount, POWERS_OF_TEN[netScale - CENTS_SCALE]));
+            long taxRateUnscaled = unscaled(taxRate);
+            long tax = roundHalfUp(Math.multiplyExact(net, taxRateUnscaled), POWERS_OF_TEN[netScale + taxRate.scale()]);
+
+            long scaledNet = Math.multiplyExact(net, POWERS_OF_TEN[NET_SCALE - netScale]);
+            netSum = Math.addExact(netSum, scaledNet);
+            discountSum = Math.addExact(discountSum, discount);
+            taxSum = Math.addExact(taxSum, tax);
+            rates.add(Math.multiplyExact(taxRateUnscaled, POWERS_OF_TEN[RATE_SCALE - taxRate.scale()]), scaledNet, tax);
+        }
+
+        long netToCents = POWERS_OF_TEN[NET_SCALE - CENTS_SCALE];
+        long subtotal = roundHalfUp(netSum, netToCents);
+        long total = roundHalfUp(Math.addExact(netSum, Math.multiplyExact(taxSum, netToCents)), netToCents);
+
+        List<PricingResult.VatBreakdown> breakdown = new ArrayList<>(rates.size);
+        for (int i = 0; i < rates.size; i++) {
+            breakdown.add(new PricingResult.VatBreakdown(
+                    normalizeRate(BigDecimal.valueOf(rates.keys[i], RATE_SCALE)),
+                    cents(roundHalfUp(rates.nets[i], netToCents)),
+                    cents(rates.taxes[i])));
+        }
+
+        return new PricingResult(cents(subtotal), cents(discountSum), cents(taxSum), cents(total), breakdown);
+    }
+
+    private PricingResult priceBigDecimal(List<? extends PricedLine> lines) {
+        BigDecimal subtotal = BigDecimal.ZERO;
+        BigDecimal discountTotal = BigDecimal.ZERO;
+        BigDecimal taxTotal = BigDecimal.ZERO;
+        Map<BigDecimal, BigDecimal[]> rates = new LinkedHashMap<>();
+
+        for (PricedLine line : lines) {
+            BigDecimal quantity = line.getQuantity() != null ? line.getQuantity() : BigDecimal.ONE;
+            BigDecimal unitPrice = line.getUnitPrice() != null ? line.getUnitPrice() : BigDecimal.ZERO;
+            BigDecimal discountRate = line.getDiscount() != null ? line.getDiscount() : BigDecimal.ZERO;
+            BigDecimal taxRate = line.getTaxRate() != null ? line.getTaxRate() : BigDecimal.ZERO;
+
+            BigDecimal amount = quantity.multiply(unitPrice);
+            BigDecimal discount = amount.multiply(discountRate).divide(HUNDRED, CENTS_SCALE, RoundingMode.HALF_UP);
+            BigDecimal net = amount.subtract(discount);
+            BigDecimal tax = net.multiply(taxRate).divide(HUNDRED, CENTS_SCALE, RoundingMode.HALF_UP);
+
+            subtotal = subtotal.add(net);
+            discountTotal = discountTotal.add(discount);
+            taxTotal = taxTotal.add(tax);
+
+            BigDecimal[] rateTotals = rates.computeIfAbsent(normalizeRate(taxRate),
+                    rate -> new BigDecimal[]{BigDecimal.ZERO, BigDecimal.ZERO});
+            rateTotals[0] = rateTotals[0].add(net);
+            rateTotals[1] = rateTotals[1].add(tax);
+        }
+
+        List<PricingResult.VatBreakdown> breakdown = new ArrayList<>(rates.size());
+        rates.forEach((rate, totals) -> breakdown.add(new PricingResult.VatBreakdown(
+                rate, totals[0].setScale(CENTS_SCALE, RoundingMode.HALF_UP), totals[1].setScale(CENTS_SCALE, RoundingMode.HALF_UP))));
+
+        return new PricingResult(
+                subtotal.setScale(CENTS_SCALE, RoundingMode.HALF_UP),
+                discountTotal.setScale(CENTS_SCALE, RoundingMode.HALF_UP),
+                taxTotal.setScale(CENTS_SCALE, RoundingMode.HALF_UP),
+                subtotal.add(taxTotal).setScale(CENTS_SCALE, RoundingMode.HALF_UP),
+                breakdown);
+    }
+
+    private static void validateDiscounts(List<? extends PricedLine> lines) {
+        for (PricedLine line : lines) {
+            BigDecimal discount = line.getDiscount();
+            if (discount != null && (discount.signum() < 0 || discount.compareTo(HUNDRED) > 0)) {
+                throw new IllegalArgumentException("La remise doit être un pourcentage compris entre 0 et 100 : " + discount);
+            }
+        }
+    }
+
+    private static long unscaled(BigDecimal value) {
+        return value.unscaledValue().longValueExact();
+    }
+
+    /**
+     * Division par une puissance de dix, arrondie au plus proche, les demis s'éloignant de zéro (HALF_UP).
+     */
+    private static long roundHalfUp(long value, long divisor) {
+        long quotient = value / divisor;
+        long remainder = Math.abs(value % divisor);
+        if (remainder >= divisor - remainder) {
+            quotient += Long.signum(value);
+        }
+        return quotient;
+    }
+
+    private static BigDecimal cents(long value) {
+        return BigDecimal.valueOf(value, CENTS_SCALE);
+    }
+
+    // 20 -> 20.00, 5.5 -> 5.50, 5.125 -> 5.125 : une clé unique par taux quelle que soit l'échelle saisie
+    private static BigDecimal normalizeRate(BigDecimal rate) {
+        BigDecimal stripped = rate.stripTrailingZeros();
+        return stripped.scale() < CENTS_SCALE ? stripped.setScale(CENTS_SCALE) : stripped;
+    }
+
+    /**
+     * Totaux par taux de TVA ; les taux d'un document sont peu nombreux, une recherche linéaire suffit.
+     */
+    private static final class RateTotals {
+        private long[] keys = new long[4];
+        private long[] nets = new long[4];
+        private long[] taxes = new long[4];
+        private int size;
+
+        void add(long rate, long net, long tax) {
+            for (int i = 0; i < size; i++) {
+                if (keys[i] == rate) {
+                    nets[i] = Math.addExact(nets[i], net);
+                    taxes[i] = Math.addExact(taxes[i], tax);
+                    return;
+                }
+            }
+            if (size == keys.length) {
+                keys = Arrays.copyOf(keys, size * 2);
+                nets = Arrays.copyOf(nets, size * 2);
+                taxes = Arrays.copyOf(taxes, size * 2);
+            }
+            keys[size] = rate;
+            nets[size] = net;
+            taxes[size] = tax;
+            size++;
+        }
+    }
+}
@@ -0,0 +1,28 @@
+package com.tcaputi.back.custody.common.pricing;
+
+import java.math.BigDecimal;
+import java.util.List;
+
+/**
+ * Totaux d'un document, arrondis au centime.
+ *
+ * @param subtotal      total HT après remises
+ * @param discountTotal somme des remises
+ * @param vatBreakdown  ventilation de la TVA par taux, dans l'ordre d'apparition des taux
+ */
+public record PricingResult(BigDecimal subtotal,
+                            BigDecimal discountTotal,
+                            BigDecimal taxTotal,
+                            BigDecimal total,
+                            List<VatBreakdown> vatBreakdown) {
+
+    public static final PricingResult EMPTY =
+            new PricingResult(BigDecimal.ZERO, BigDecimal.ZERO, BigDecimal.ZERO, BigDecimal.ZERO, List.of());
+
+    /**
+     * @param base montant HT soumis au taux
+     * @param tax  TVA du taux (somme des TVA arrondies par ligne)
+     */
+    public record VatBreakdown(BigDecimal rate, BigDecimal base, BigDecimal tax) {
+    }
+}
@@ -0,0 +1,23 @@
+package com.tcaputi.back.custody.dunning.application;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Factures en retard d'un client, traitées ensemble pour n'envoyer qu'une relance par client.
+ */
+public record ClientDunning(UUID clientId, List<OverdueInvoice> invoices) {
+
+    public record OverdueInvoice(UUID id, String number, LocalDate dueDate, BigDecimal total,
+                                 BigDecimal outstandingAmount, String currency) {
+
+        /**
+         * Montant réclamé : le reste à payer, le total pour une facture antérieure aux soldes enregistrés.
+         */
+        public BigDecimal amountDue() {
+            return outstandingAmount != null ? outstandingAmount : total;
+        }
+    }
+}
@@ -0,0 +1,121 @@
+package com.tcaputi.back.custody.dunning.application;
+
+import com.tcaputi.back.custody.dunning.interfaces.dto.DunningRunResult;
+import com.tcaputi.back.custody.invoice.domain.model.Invoice;
+import com.tcaputi.back.custody.invoice.infrastructure.InvoiceRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.atomic.AtomicBoolean;
+
+/**
+ * Campagne de relance des factures en retard.
+ * Les factures sont lues par lots triés par client, chaque client est relancé dans sa propre transaction
+ * sur un pool borné ; les paliers enregistrés rendent la campagne rejouable.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class DunningJob {
+
+    private final InvoiceRepository invoiceRepository;
+    private final DunningService dunningService;
+    @Qualifier("dunningExecutor")
+    private final ThreadPoolTaskExecutor dunningExecutor;
+
+    private final AtomicBoolean running = new AtomicBoolean();
+
+    @Value("${custody.dunning.chunk-size:500}")
+    private int chunkSize;
+
+    @Scheduled(cron = "${custody.dunning.cron:0 30 7 * * *}")
+    public void scheduledRun() {
+        try {
+            run();
+        } catch (IllegalStateException e) {
+            log.warn(e.getMessage());
+        }
+    }
+
+    public DunningRunResult run() {
+        if (!running.compareAndSet(false, true)) {
+            throw new IllegalStateException("Une campagne de relance est déjà en cours");
+        }
+        try {
+            return runCampaign(LocalDate.now());
+        } finally {
+            running.set(false);
+        }
+    }
+
+    private DunningRunResult runCampaign(LocalDate today) {
+        LocalDate dueBefore = today.minusDays(dunningService.getFirstStageDays());
+        int lastStage = dunningService.getStageCount();
+
+        int[] totals = new int[3]; // clients relancés, factures relancées, clients en erreur
+        Map<UUID, List<ClientDunning.OverdueInvoice>> carried = new LinkedHashMap<>();
+        Invoice last = null;
+        List<Invoice> chunk;
+        do {
+            chunk = last == null
+                    ? invoiceRepository.findFirstDunningChunk(dueBefore, lastStage, chunkSize)
+                    : invoiceRepository.findDunningChunkAfter(dueBefore, lastStage, last.getClient().getId(), last.getId(), chunkSize);
+            if (!chunk.isEmpty()) {
+                last = chunk.get(chunk.size() - 1);
+            }
+
+            Map<UUID, List<ClientDunning.OverdueInvoice>> groups = carried;
+            for (Invoice invoice : chunk) {
+                groups.computeIfAbsent(invoice.getClient().getId(), id -> new ArrayList<>())
+                        .add(new ClientDunning.OverdueInvoice(invoice.getId(), invoice.getNumber(), invoice.getDueDate(),
+                                invoice.getTotal(), invoice.getOutstandingAmount(), invoice.getCurrency()));
+            }
+
+            // Les factures du dernier client peuvent se poursuivre dans le lot suivant : il est traité avec lui
+            carried = new LinkedHashMap<>();
+            if (chunk.size() == chunkSize) {
+                UUID lastClientId = last.getClient().getId();
+                carried.put(lastClientId, groups.remove(lastClientId));
+            }
+
+            remindAll(groups, today, totals);
+        } while (chunk.size() == chunkSize);
+
+        DunningRunResult result = new DunningRunResult(totals[0], totals[1], totals[2]);
+        log.info("Campagne de relance terminée : {} client(s), {} facture(s), {} client(s) en erreur",
+                result.remindedClients(), result.remindedInvoices(), result.failedClients());
+        return result;
+    }
+
+    private void remindAll(Map<UUID, List<ClientDunning.OverdueInvoice>> groups, LocalDate today, int[] totals) {
+        List<CompletableFuture<Integer>> futures = new ArrayList<>(groups.size());
+        groups.forEach((clientId, invoices) -> futures.add(CompletableFuture
+                .supplyAsync(() -> dunningService.remindClient(new ClientDunning(clientId, invoices), today), dunningExecutor)
+                .exceptionally(e -> {
+                    log.error("Erreur lors de la relance du client {} : {}", clientId, e.getMessage(), e);
+                    return -1;
+                })));
+
+        for (CompletableFuture<Integer> future : futures) {
+            int reminded = future.join();
+            if (reminded < 0) {
+                totals[2]++;
+            } else if (reminded > 0) {
+                totals[0]++;
+                totals[1] += reminded;
+            }
+        }
+    }
+}
@@ -0,0 +1,137 @@
+package com.tcaputi.back.custody.dunning.application;
+
+import com.tcaputi.back.custody.client.domain.model.Client;
+import com.tcaputi.back.custody.client.infrastructure.ClientRepository;
+import com.tcaputi.back.custody.dunning.infrastructure.DunningRecordRepository;
+import com.tcaputi.back.custody.invoice.application.EmailOutboxService;
+import com.tcaputi.back.custody.invoice.interfaces.dto.EmailJobDto;
+import jakarta.annotation.PostConstruct;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Relance d'un client : avance le palier de chacune de ses factures et met en file un seul email
+ * récapitulatif, dans la même transaction.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class DunningService {
+
+    private static final DateTimeFormatter DATE_FORMAT = DateTimeFormatter.ofPattern("dd/MM/yyyy");
+
+    private final ClientRepository clientRepository;
+    private final DunningRecordRepository dunningRecordRepository;
+    private final EmailOutboxService emailOutboxService;
+
+    // Paliers en jours après l'échéance
+    @Value("${custody.dunning.stages:7,15,30}")
+    private List<Integer> stages;
+
+    @PostConstruct
+    void validateStages() {
+        if (stages.isEmpty()) {
+            throw new IllegalStateException("Au moins un palier de relance doit être configuré");
+        }
+        for (int i = 1; i < stages.size(); i++) {
+            if (stages.get(i) <= stages.get(i - 1)) {
+                throw new IllegalStateException("Les paliers de relance doivent être strictement croissants : " + stages);
+            }
+        }
+    }
+
+    public int getFirstStageDays() {
+        return stages.get(0);
+    }
+
+    public int getStageCount() {
+        return stages.size();
+    }
+
+    /**
+     * Relance les factures du client qui ont atteint un nouveau palier ; retourne le nombre de factures relancées.
+     */
+    @Transactional
+    public int remindClient(ClientDunning dunning, LocalDate today) {
+        Client client = clientRepository.findById(dunning.clientId()).orElse(null);
+        if (client == null || client.getContactEmail() == null || client.getContactEmail().isBlank()) {
+            log.warn("Relance impossible pour le client {} : aucune adresse email de contact", dunning.clientId());
+            return 0;
+        }
+
+        Instant now = Instant.now();
+        List<ClientDunning.OverdueInvoice> reminded = new ArrayList<>();
+        int highestStage = 0;
+        for (ClientDunning.OverdueInvoice invoice : dunning.invoices()) {
+            int stage = stageReached(invoice.dueDate(), today);
+            if (stage > 0 && dunningRecordRepository.advanceStage(invoice.id(), stage, now) == 1) {
+                reminded.add(invoice);
+                highestStage = Math.max(highestStage, stage);
+            }
+        }
+        if (reminded.isEmpty()) {
+            return 0;
+        }
+
+        EmailJobDto job = emailOutboxService.enqueueEmail(client.getContactEmail(),
+                buildSubject(highestStage), buildBody(client, reminded));
+        dunningRecordRepository.attachEmailJob(reminded.stream().map(ClientDunning.OverdueInvoice::id).toList(), job.id());
+
+        log.debug("Relance de palier {} pour le client {} : {} facture(s)", highestStage, client.getId(), reminded.size());
+        return reminded.size();
+    }
+
+    /**
+     * Rang du dernier palier atteint à la date donnée, 0 si aucun.
+     */
+    private int stageReached(LocalDate dueDate, LocalDate today) {
+        int stage = 0;
+        while (stage < stages.size() && !today.isBefore(dueDate.plusDays(stages.get(stage)))) {
+            stage++;
+        }
+        return stage;
+    }
+
+    private String buildSubject(int stage) {
+        if (stage == stages.size() && stages.size() > 1) {
+            return "Dernière relance : factures impayées";
+        }
+        return stage == 1 ? "Rappel : factures en attente de règlement" : "Relance n°" + stage + " : factures impayées";
+    }
+
+    private String buildBody(Client client, List<ClientDunning.OverdueInvoice> invoices) {
+        String name = client.getContactName() != null && !client.getContactName().isBlank()
+                ? client.getContactName() : client.getLegalName();
+
+        StringBuilder body = new StringBuilder()
+                .append("Bonjour ").append(name).append(",\n\n")
+                .append("Sauf erreur de notre part, les factures suivantes restent impayées à ce jour :\n\n");
+        for (ClientDunning.OverdueInvoice invoice : invoices) {
+            String currency = invoice.currency() != null ? invoice.currency() : "EUR";
+            BigDecimal amountDue = invoice.amountDue();
+            body.append("- Facture ").append(invoice.number())
+                    .append(", échue le ").append(invoice.dueDate().format(DATE_FORMAT))
+                    .append(" : ").append(amountDue != null ? amountDue.toPlainString() : "-")
+                    .append(' ').append(currency);
+            // Facture partiellement réglée : le total rappelle ce qui a déjà été encaissé
+            if (amountDue != null && invoice.total() != null && amountDue.compareTo(invoice.total()) < 0) {
+                body.append(" restant dû sur ").append(invoice.total().toPlainString()).append(' ').append(currency);
+            }
+            body.append('\n');
+        }
+        return body.append("\nMerci de bien vouloir procéder à leur règlement dans les meilleurs délais. ")
+                .append("Si celui-ci a déjà été effectué, nous vous prions de ne pas tenir compte de ce message.\n\n")
+                .append("Cordialement,\n")
+                .toString();
+    }
+}
@@ -0,0 +1,31 @@
+package com.tcaputi.back.custody.dunning.domain.model;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.time.Instant;
+import java.util.UUID;
+
+/**
+ * Dernier palier de relance atteint par une facture en retard.
+ * Le palier n'avance qu'une fois par valeur, ce qui rend les campagnes rejouables sans double envoi.
+ */
+@Entity
+@Builder
+@Setter
+@Getter
+@NoArgsConstructor
+@AllArgsConstructor
+@Table(name = "dunning_records")
+public class DunningRecord {
+    @Id
+    private UUID invoiceId;
+
+    @Column(nullable = false)
+    private Integer stage; // Rang du palier (1 = premier palier configuré)
+
+    @Column(nullable = false)
+    private Instant lastReminderAt;
+
+    private UUID emailJobId; // Email de l'outbox portant la dernière relance
+}
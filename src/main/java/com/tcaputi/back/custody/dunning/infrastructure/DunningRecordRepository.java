@@ -0,0 +1,34 @@
+package com.tcaputi.back.custody.dunning.infrastructure;
+
+import com.tcaputi.back.custody.dunning.domain.model.DunningRecord;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.Instant;
+import java.util.Collection;
+import java.util.UUID;
+
+@Repository
+public interface DunningRecordRepository extends JpaRepository<DunningRecord, UUID> {
+
+    /**
+     * Fait passer la facture au palier indiqué s'il est supérieur au palier enregistré.
+     * Retourne 0 si la relance a déjà été faite, y compris par une autre instance (ligne verrouillée jusqu'à son commit).
+     */
+    @Modifying
+    @Query(value = """
+            INSERT INTO dunning_records (invoice_id, stage, last_reminder_at)
+            VALUES (:invoiceId, :stage, :now)
+            ON CONFLICT (invoice_id)
+            DO UPDATE SET stage = EXCLUDED.stage, last_reminder_at = EXCLUDED.last_reminder_at
+            WHERE dunning_records.stage < EXCLUDED.stage
+            """, nativeQuery = true)
+    int advanceStage(@Param("invoiceId") UUID invoiceId, @Param("stage") int stage, @Param("now") Instant now);
+
+    @Modifying
+    @Query("UPDATE DunningRecord d SET d.emailJobId = :emailJobId WHERE d.invoiceId IN :invoiceIds")
+    int attachEmailJob(@Param("invoiceIds") Collection<UUID> invoiceIds, @Param("emailJobId") UUID emailJobId);
+}
@@ -0,0 +1,33 @@
+package com.tcaputi.back.custody.dunning.interfaces;
+
+import com.tcaputi.back.custody.dunning.application.DunningJob;
+import com.tcaputi.back.custody.dunning.interfaces.dto.DunningRunResult;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+@Slf4j
+@RestController
+@RequestMapping("/admin/dunning")
+@RequiredArgsConstructor
+class DunningAdminController {
+
+    private final DunningJob dunningJob;
+
+    /**
+     * Lance une campagne de relance hors planification ; sans effet sur les factures déjà relancées à leur palier.
+     */
+    @PostMapping("/run")
+    public ResponseEntity<DunningRunResult> runDunning() {
+        try {
+            return ResponseEntity.ok(dunningJob.run());
+        } catch (IllegalStateException e) {
+            log.warn(e.getMessage());
+            return ResponseEntity.status(HttpStatus.CONFLICT).build();
+        }
+    }
+}
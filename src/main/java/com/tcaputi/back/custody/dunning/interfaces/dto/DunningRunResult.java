@@ -0,0 +1,7 @@
+package com.tcaputi.back.custody.dunning.interfaces.dto;
+
+/**
+ * Bilan d'une campagne de relance : clients relancés, factures passées au palier suivant, clients en erreur.
+ */
+public record DunningRunResult(int remindedClients, int remindedInvoices, int failedClients) {
+}
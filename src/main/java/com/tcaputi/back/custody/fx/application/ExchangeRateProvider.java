@@ -0,0 +1,22 @@
+package com.tcaputi.back.custody.fx.application;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.util.Map;
+
+/**
+ * Source de taux de change. Les taux sont exprimés en unités de devise pour 1 EUR (convention BCE),
+ * par jour de publication : les jours sans publication (week-ends, fériés) sont simplement absents.
+ */
+public interface ExchangeRateProvider {
+
+    /**
+     * Nom enregistré sur les documents dont le taux provient de cette source.
+     */
+    String getName();
+
+    /**
+     * Tous les taux publiés entre les deux dates incluses, en un seul appel.
+     */
+    Map<LocalDate, Map<String, BigDecimal>> fetchRates(LocalDate from, LocalDate to);
+}
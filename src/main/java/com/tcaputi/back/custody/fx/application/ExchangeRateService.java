@@ -0,0 +1,163 @@
+package com.tcaputi.back.custody.fx.application;
+
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.LocalDate;
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.ConcurrentSkipListMap;
+
+/**
+ * Cache des taux de change indexé par date puis par devise, alimenté en masse auprès du fournisseur.
+ * Un taux se lit au dernier jour publié à la date demandée ou avant, dans la limite de custody.fx.max-staleness-days ;
+ * une fois la période chargée, toutes les lectures se font en mémoire.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class ExchangeRateService {
+
+    public static final String BASE_CURRENCY = "EUR";
+    private static final int CROSS_RATE_SCALE = 10;
+
+    private final ExchangeRateProvider exchangeRateProvider;
+
+    private final ConcurrentSkipListMap<LocalDate, Map<String, BigDecimal>> rates = new ConcurrentSkipListMap<>();
+
+    // Période déjà demandée au fournisseur, toujours contiguë ; null tant que rien n'a été chargé
+    private volatile LocalDate loadedFrom;
+    private volatile LocalDate loadedTo;
+
+    @Value("${custody.fx.preload-days:400}")
+    private int preloadDays;
+
+    @Value("${custody.fx.max-staleness-days:7}")
+    private int maxStalenessDays;
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void preloadOnStartup() {
+        LocalDate today = LocalDate.now();
+        ensureLoaded(today.minusDays(preloadDays), today);
+        log.info("Taux de change préchargés : {} jour(s) publiés", rates.size());
+    }
+
+    /**
+     * Recharge les derniers jours pour récupérer les publications du jour.
+     */
+    @Scheduled(cron = "${custody.fx.refresh-cron:0 0 17 * * MON-FRI}")
+    public void refreshRecent() {
+        LocalDate today = LocalDate.now();
+        merge(exchangeRateProvider.fetchRates(today.minusDays(maxStalenessDays), today));
+    }
+
+    /**
+     * Charge en une fois les taux d'une période, et ceux des jours qui précèdent son début
+     * pour couvrir les dates sans publication. Les lectures dans la période ne sollicitent plus le fournisseur.
+     */
+    public void ensureLoaded(LocalDate from, LocalDate to) {
+        LocalDate today = LocalDate.now();
+        LocalDate start = from.minusDays(maxStalenessDays);
+        LocalDate end = to.isAfter(today) ? today : to;
+        if (end.isBefore(start) || isLoaded(start, end)) {
+            return;
+        }
+        synchronized (this) {
+            load(start, end);
+        }
+    }
+
+    private boolean isLoaded(LocalDate start, LocalDate end) {
+        LocalDate from = loadedFrom;
+        LocalDate to = loadedTo;
+        return from != null && !start.isBefore(from) && !end.isAfter(to);
+    }
+
+    private void load(LocalDate start, LocalDate end) {
+        if (loadedFrom == null) {
+            merge(exchangeRateProvider.fetchRates(start, end));
+            loadedFrom = start;
+            loadedTo = end;
+            return;
+        }
+        // Seules les portions manquantes sont demandées ; la période chargée reste contiguë
+        if (start.isBefore(loadedFrom)) {
+            merge(exchangeRateProvider.fetchRates(start, loadedFrom.minusDays(1)));
+            loadedFrom = start;
+        }
+        if (end.isAfter(loadedTo)) {
+            merge(exchangeRateProvider.fetchRates(loadedTo.plusDays(1), end));
+            loadedTo = end;
+        }
+    }
+
+    /**
+     * Taux de la devise (unités pour 1 EUR) applicable à la date.
+     */
+    public Optional<BigDecimal> findRate(String currency, LocalDate date) {
+        if (currency == null || BASE_CURRENCY.equalsIgnoreCase(currency)) {
+            return Optional.of(BigDecimal.ONE);
+        }
+        ensureLoaded(date, date);
+
+        String code = currency.toUpperCase(Locale.ROOT);
+        LocalDate oldest = date.minusDays(maxStalenessDays);
+        for (Map.Entry<LocalDate, Map<String, BigDecimal>> day : rates.headMap(date, true).descendingMap().entrySet()) {
+            if (day.getKey().isBefore(oldest)) {
+                break;
+            }
+            BigDecimal rate = day.getValue().get(code);
+            if (rate != null) {
+                return Optional.of(rate);
+            }
+        }
+        return Optional.empty();
+    }
+
+    public BigDecimal getRate(String currency, LocalDate date) {
+        return findRate(currency, date).orElseThrow(() ->
+                new IllegalArgumentException("Aucun taux de change disponible pour " + currency + " au " + date));
+    }
+
+    /**
+     * Taux à figer sur un document émis à cette date.
+     */
+    public ExchangeRateStamp stamp(String currency, LocalDate date) {
+        return new ExchangeRateStamp(exchangeRateProvider.getName(), getRate(currency, date));
+    }
+
+    /**
+     * Nombre d'unités de la devise cible pour une unité de la devise source, via l'EUR.
+     */
+    public BigDecimal getCrossRate(String fromCurrency, String toCurrency, LocalDate date) {
+        return getRate(toCurrency, date).divide(getRate(fromCurrency, date), CROSS_RATE_SCALE, RoundingMode.HALF_UP);
+    }
+
+    /**
+     * Contre-valeur en EUR, arrondie au centime.
+     */
+    public BigDecimal toEur(BigDecimal amount, String currency, LocalDate date) {
+        return amount.divide(getRate(currency, date), 2, RoundingMode.HALF_UP);
+    }
+
+    public String getProviderName() {
+        return exchangeRateProvider.getName();
+    }
+
+    private void merge(Map<LocalDate, Map<String, BigDecimal>> fetched) {
+        fetched.forEach((date, dayRates) -> rates.merge(date, Map.copyOf(dayRates), (current, added) -> {
+            Map<String, BigDecimal> merged = new HashMap<>(current);
+            merged.putAll(added);
+            return Map.copyOf(merged);
+        }));
+    }
+}
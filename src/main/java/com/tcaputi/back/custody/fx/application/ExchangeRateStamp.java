@@ -0,0 +1,9 @@
+package com.tcaputi.back.custody.fx.application;
+
+import java.math.BigDecimal;
+
+/**
+ * Taux figé sur un document à sa création : sa source et sa valeur (unités de devise pour 1 EUR).
+ */
+public record ExchangeRateStamp(String provider, BigDecimal value) {
+}
@@ -0,0 +1,92 @@
+package com.tcaputi.back.custody.fx.infrastructure;
+
+import com.tcaputi.back.custody.fx.application.ExchangeRateProvider;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.io.Resource;
+import org.springframework.core.io.ResourceLoader;
+import org.springframework.stereotype.Component;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStreamReader;
+import java.io.UncheckedIOException;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.time.LocalDate;
+import java.time.format.DateTimeParseException;
+import java.util.HashMap;
+import java.util.Map;
+
+/**
+ * Taux lus dans un fichier local au format de l'historique de la BCE (eurofxref-hist.csv) :
+ * une ligne par jour, une colonne par devise. Sert hors connexion et en test ;
+ * sans fichier configuré, aucun taux n'est disponible et seuls les documents en EUR peuvent être créés.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class FileExchangeRateProvider implements ExchangeRateProvider {
+
+    private static final String NAME = "file";
+    private static final String NOT_AVAILABLE = "N/A";
+
+    private final ResourceLoader resourceLoader;
+
+    @Value("${custody.fx.file:}")
+    private String location;
+
+    @Override
+    public String getName() {
+        return NAME;
+    }
+
+    @Override
+    public Map<LocalDate, Map<String, BigDecimal>> fetchRates(LocalDate from, LocalDate to) {
+        if (location.isBlank()) {
+            return Map.of();
+        }
+        Resource resource = resourceLoader.getResource(location);
+        if (!resource.exists()) {
+            log.warn("Fichier de taux de change introuvable : {}", location);
+            return Map.of();
+        }
+
+        Map<LocalDate, Map<String, BigDecimal>> rates = new HashMap<>();
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(resource.getInputStream(), StandardCharsets.UTF_8))) {
+            String header = reader.readLine();
+            if (header == null) {
+                return Map.of();
+            }
+            String[] currencies = header.split(",");
+
+            String line;
+            while ((line = reader.readLine()) != null) {
+                String[] cells = line.split(",");
+                if (cells.length < 2 || cells[0].isBlank()) {
+                    continue;
+                }
+                LocalDate date = LocalDate.parse(cells[0].trim());
+                if (date.isBefore(from) || date.isAfter(to)) {
+                    continue;
+                }
+
+                Map<String, BigDecimal> day = new HashMap<>();
+                for (int i = 1; i < cells.length && i < currencies.length; i++) {
+                    String currency = currencies[i].trim();
+                    String value = cells[i].trim();
+                    if (!currency.isEmpty() && !value.isEmpty() && !NOT_AVAILABLE.equals(value)) {
+                        day.put(currency, new BigDecimal(value));
+                    }
+                }
+                rates.put(date, day);
+            }
+        } catch (IOException e) {
+            throw new UncheckedIOException("Lecture du fichier de taux " + location + " impossible", e);
+        } catch (DateTimeParseException | NumberFormatException e) {
+            throw new IllegalStateException("Fichier de taux " + location + " invalide : " + e.getMessage(), e);
+        }
+        return rates;
+    }
+}
@@ -0,0 +1,34 @@
+package com.tcaputi.back.custody.fx.interfaces;
+
+import com.tcaputi.back.custody.fx.application.ExchangeRateService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.time.LocalDate;
+
+@RestController
+@RequestMapping("/admin/fx")
+@RequiredArgsConstructor
+class ExchangeRateAdminController {
+
+    private final ExchangeRateService exchangeRateService;
+
+    /**
+     * Précharge les taux d'une période (reprise d'historique, rapports sur d'anciens exercices).
+     */
+    @PostMapping("/preload")
+    public ResponseEntity<Void> preload(
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to) {
+        if (to.isBefore(from)) {
+            return ResponseEntity.badRequest().build();
+        }
+        exchangeRateService.ensureLoaded(from, to);
+        return ResponseEntity.noContent().build();
+    }
+}
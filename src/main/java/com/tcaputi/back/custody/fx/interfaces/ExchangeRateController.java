@@ -0,0 +1,35 @@
+package com.tcaputi.back.custody.fx.interfaces;
+
+import com.tcaputi.back.custody.fx.application.ExchangeRateService;
+import com.tcaputi.back.custody.fx.interfaces.dto.ExchangeRateDto;
+import lombok.RequiredArgsConstructor;
+import org.springframework.format.annotation.DateTimeFormat;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.time.LocalDate;
+
+@RestController
+@RequestMapping("/fx")
+@RequiredArgsConstructor
+class ExchangeRateController {
+
+    private final ExchangeRateService exchangeRateService;
+
+    /**
+     * Taux d'une devise à une date (du jour par défaut), tel qu'il serait figé sur un document.
+     */
+    @GetMapping("/rates")
+    public ResponseEntity<ExchangeRateDto> getRate(
+            @RequestParam String currency,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate date) {
+        LocalDate rateDate = date != null ? date : LocalDate.now();
+        return exchangeRateService.findRate(currency, rateDate)
+                .map(rate -> ResponseEntity.ok(new ExchangeRateDto(currency.toUpperCase(), rateDate, rate,
+                        exchangeRateService.getProviderName())))
+                .orElse(ResponseEntity.notFound().build());
+    }
+}
@@ -0,0 +1,13 @@
+package com.tcaputi.back.custody.fx.interfaces.dto;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+/**
+ * Taux applicable à une date, en unités de devise pour 1 EUR.
+ */
+public record ExchangeRateDto(String currency,
+                              LocalDate date,
+                              BigDecimal rate,
+                              String provider) {
+}
@@ -23,6 +23,8 @@ public class AuthService {
     private final PasswordEncoder passwordEncoder;
     private final JwtService jwtService;
     private final AuthenticationManager authenticationManager;
+    private final RefreshTokenService refreshTokenService;
+    private final TokenRevocationService tokenRevocationService;
 
     @Transactional
     public AuthResponse register(RegisterRequest request) {
@@ -49,10 +51,10 @@ public class AuthService {
         user = userRepository.save(user);
         log.info("Utilisateur créé avec succès: {}", user.getUsername());
         
-        String token = jwtService.generateToken(user);
-        return new AuthResponse(token, user);
+        return issueTokens(user);
     }
 
+    @Transactional
     public AuthResponse login(LoginRequest request) {
         log.info("Tentative de connexion pour l'utilisateur: {}", request.username());
         
@@ -61,9 +63,37 @@ public class AuthService {
         );
         
         User user = (User) authentication.getPrincipal();
-        String token = jwtService.generateToken(user);
         
         log.info("Connexion réussie pour l'utilisateur: {}", user.getUsername());
-        return new AuthResponse(token, user);
+        return issueTokens(user);
+    }
+
+    /**
+     * Échange un jeton de rafraîchissement contre une nouvelle paire de jetons ; l'ancien ne peut plus servir.
+     */
+    public AuthResponse refresh(String refreshToken) {
+        RefreshTokenService.Rotation rotation = refreshTokenService.rotate(refreshToken);
+        String token = jwtService.generateToken(rotation.user());
+        return new AuthResponse(token, rotation.refreshToken(), jwtService.getExpirationSeconds(), rotation.user());
+    }
+
+    /**
+     * Révoque le jeton d'accès présenté jusqu'à son expiration, et le jeton de rafraîchissement s'il est fourni.
+     */
+    @Transactional
+    public void logout(String accessToken, String refreshToken) {
+        if (accessToken != null) {
+            jwtService.verify(accessToken)
+                    .ifPresent(claims -> tokenRevocationService.revoke(claims.getId(), claims.getExpiration().toInstant()));
+        }
+        if (refreshToken != null && !refreshToken.isBlank()) {
+            refreshTokenService.revoke(refreshToken);
+        }
+    }
+
+    private AuthResponse issueTokens(User user) {
+        String token = jwtService.generateToken(user);
+        String refreshToken = refreshTokenService.issue(user);
+        return new AuthResponse(token, refreshToken, jwtService.getExpirationSeconds(), user);
     }
 }
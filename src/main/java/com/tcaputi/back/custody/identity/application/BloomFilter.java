@@ -0,0 +1,77 @@
+package com.tcaputi.back.custody.identity.application;
+
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Filtre de Bloom sans verrou : {@link #mightContain} ne se trompe que par excès, avec le taux de faux positifs
+ * choisi tant que le nombre d'éléments reste sous la capacité prévue. Aucun retrait possible : le filtre se reconstruit.
+ */
+final class BloomFilter {
+
+    private static final double LN2 = Math.log(2);
+
+    private final AtomicLongArray words;
+    private final long bitCount;
+    private final int hashCount;
+    private final int capacity;
+
+    private BloomFilter(long bitCount, int hashCount, int capacity) {
+        this.words = new AtomicLongArray((int) ((bitCount + 63) / 64));
+        this.bitCount = bitCount;
+        this.hashCount = hashCount;
+        this.capacity = capacity;
+    }
+
+    static BloomFilter create(int expectedInsertions, double falsePositiveRate) {
+        int n = Math.max(1, expectedInsertions);
+        long bits = Math.max(64, (long) Math.ceil(-n * Math.log(falsePositiveRate) / (LN2 * LN2)));
+        int hashes = Math.max(1, (int) Math.round((double) bits / n * LN2));
+        return new BloomFilter(bits, hashes, n);
+    }
+
+    int capacity() {
+        return capacity;
+    }
+
+    void put(String value) {
+        long hash1 = hash(value);
+        long hash2 = mix(hash1 ^ 0x9E3779B97F4A7C15L) | 1;
+        for (int i = 0; i < hashCount; i++) {
+            long bit = Math.floorMod(hash1 + i * hash2, bitCount);
+            long mask = 1L << bit;
+            words.getAndAccumulate((int) (bit >>> 6), mask, (current, added) -> current | added);
+        }
+    }
+
+    boolean mightContain(String value) {
+        long hash1 = hash(value);
+        long hash2 = mix(hash1 ^ 0x9E3779B97F4A7C15L) | 1;
+        for (int i = 0; i < hashCount; i++) {
+            long bit = Math.floorMod(hash1 + i * hash2, bitCount);
+            if ((words.get((int) (bit >>> 6)) & (1L << bit)) == 0) {
+                return false;
+            }
+        }
+        return true;
+    }
+
+    // FNV-1a 64 bits, puis mélange final pour répartir les bits
+    private static long hash(String value) {
+        long hash = 0xCBF29CE484222325L;
+        for (byte b : value.getBytes(StandardCharsets.UTF_8)) {
+            hash ^= b;
+            hash *= 0x100000001B3L;
+        }
+        return mix(hash);
+    }
+
+    private static long mix(long value) {
+        value ^= value >>> 33;
+        value *= 0xFF51AFD7ED558CCDL;
+        value ^= value >>> 33;
+        value *= 0xC4CEB9FE1A85EC53L;
+        value ^= value >>> 33;
+        return value;
+    }
+}
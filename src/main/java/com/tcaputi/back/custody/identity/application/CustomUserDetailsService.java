@@ -1,23 +1,73 @@
 package com.tcaputi.back.custody.identity.application;
 
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.tcaputi.back.custody.identity.domain.model.User;
 import com.tcaputi.back.custody.identity.infrastructure.UserRepository;
-import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
 import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.security.core.userdetails.UserDetailsService;
 import org.springframework.security.core.userdetails.UsernameNotFoundException;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Duration;
 
 @Slf4j
 @Service
-@RequiredArgsConstructor
 public class CustomUserDetailsService implements UserDetailsService {
 
     private final UserRepository userRepository;
 
+    // Principaux des requêtes authentifiées par jeton ; une modification du compte évince l'entrée aussitôt sur ce nœud,
+    // la durée de vie borne le délai de prise en compte sur les autres
+    private final Cache<String, User> principals;
+
+    public CustomUserDetailsService(UserRepository userRepository,
+                                    @Value("${custody.auth.principal-cache.maximum-size:10000}") long maximumSize,
+                                    @Value("${custody.auth.principal-cache.ttl:PT1M}") Duration ttl) {
+        this.userRepository = userRepository;
+        this.principals = Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .expireAfterWrite(ttl)
+                .build();
+    }
+
+    /**
+     * Lecture en base, pour la connexion : le mot de passe vérifié est toujours celui enregistré.
+     */
     @Override
     public UserDetails loadUserByUsername(String username) throws UsernameNotFoundException {
         return userRepository.findByUsername(username)
                 .orElseThrow(() -> new UsernameNotFoundException("Utilisateur non trouvé: " + username));
     }
+
+    /**
+     * Principal d'une requête authentifiée par jeton, servi depuis le cache.
+     */
+    public UserDetails loadPrincipal(String username) throws UsernameNotFoundException {
+        User principal = principals.get(username, key -> userRepository.findByUsername(key).orElse(null));
+        if (principal == null) {
+            throw new UsernameNotFoundException("Utilisateur non trouvé: " + username);
+        }
+        return principal;
+    }
+
+    /**
+     * Évince le principal d'un compte modifié, à nouveau après le commit si une transaction est en cours :
+     * une requête concurrente ne peut pas remettre en cache l'état d'avant la modification.
+     */
+    public void evictPrincipal(String username) {
+        principals.invalidate(username);
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    principals.invalidate(username);
+                }
+            });
+        }
+    }
 }
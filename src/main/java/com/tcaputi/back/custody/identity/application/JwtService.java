@@ -1,6 +1,10 @@
 package com.tcaputi.back.custody.identity.application;
 
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
 import io.jsonwebtoken.Claims;
+import io.jsonwebtoken.JwtException;
+import io.jsonwebtoken.JwtParser;
 import io.jsonwebtoken.Jwts;
 import io.jsonwebtoken.SignatureAlgorithm;
 import io.jsonwebtoken.io.Decoders;
@@ -11,20 +15,43 @@ import org.springframework.security.core.userdetails.UserDetails;
 import org.springframework.stereotype.Service;
 
 import java.security.Key;
+import java.time.Duration;
 import java.util.Date;
 import java.util.HashMap;
 import java.util.Map;
+import java.util.Optional;
+import java.util.UUID;
 import java.util.function.Function;
 
+/**
+ * Émission et vérification des jetons d'accès JWT, de courte durée et identifiés par un jti révocable.
+ * La clé et le parseur sont construits une fois ; un jeton déjà vérifié est servi depuis un cache borné
+ * sans recalcul de la signature, son expiration restant contrôlée à chaque lecture.
+ */
 @Slf4j
 @Service
 public class JwtService {
 
-    @Value("${jwt.secret:404E635266556A586E3272357538782F413F4428472B4B6250645367566B5970}")
-    private String secretKey;
+    private final Key signInKey;
+    private final JwtParser parser;
+    private final long jwtExpiration;
+    private final Cache<String, Claims> verifiedTokens;
 
-    @Value("${jwt.expiration:86400000}") // 24 heures par défaut
-    private long jwtExpiration;
+    public JwtService(
+            @Value("${jwt.secret:404E635266556A586E3272357538782F413F4428472B4B6250645367566B5970}") String secretKey,
+            @Value("${jwt.expiration:900000}") long jwtExpiration, // 15 minutes par défaut, prolongées par le jeton de rafraîchissement
+            @Value("${custody.auth.token-cache.maximum-size:10000}") long tokenCacheSize,
+            @Value("${custody.auth.token-cache.ttl:PT10M}") Duration tokenCacheTtl) {
+        this.signInKey = Keys.hmacShaKeyFor(Decoders.BASE64.decode(secretKey));
+        this.parser = Jwts.parserBuilder()
+                .setSigningKey(signInKey)
+                .build();
+        this.jwtExpiration = jwtExpiration;
+        this.verifiedTokens = Caffeine.newBuilder()
+                .maximumSize(tokenCacheSize)
+                .expireAfterWrite(tokenCacheTtl)
+                .build();
+    }
 
     public String extractUsername(String token) {
         return extractClaim(token, Claims::getSubject);
@@ -35,6 +62,35 @@ public class JwtService {
         return claimsResolver.apply(claims);
     }
 
+    /**
+     * Revendications d'un jeton à la signature valide et non expiré ; vide sinon.
+     * Une seule vérification de signature par jeton tant qu'il reste dans le cache.
+     */
+    public Optional<Claims> verify(String token) {
+        Claims claims = verifiedTokens.getIfPresent(token);
+        if (claims == null) {
+            try {
+                claims = parser.parseClaimsJws(token).getBody();
+            } catch (JwtException | IllegalArgumentException e) {
+                log.debug("Jeton JWT refusé : {}", e.getMessage());
+                return Optional.empty();
+            }
+            verifiedTokens.put(token, claims);
+        }
+        if (isExpired(claims)) {
+            verifiedTokens.invalidate(token);
+            return Optional.empty();
+        }
+        return Optional.of(claims);
+    }
+
+    /**
+     * Durée de vie d'un jeton d'accès, en secondes.
+     */
+    public long getExpirationSeconds() {
+        return jwtExpiration / 1000;
+    }
+
     public String generateToken(UserDetails userDetails) {
         return generateToken(new HashMap<>(), userDetails);
     }
@@ -47,35 +103,25 @@ public class JwtService {
         return Jwts.builder()
                 .setClaims(extraClaims)
                 .setSubject(userDetails.getUsername())
+                .setId(UUID.randomUUID().toString()) // jti : identifiant de révocation
                 .setIssuedAt(new Date(System.currentTimeMillis()))
                 .setExpiration(new Date(System.currentTimeMillis() + expiration))
-                .signWith(getSignInKey(), SignatureAlgorithm.HS256)
+                .signWith(signInKey, SignatureAlgorithm.HS256)
                 .compact();
     }
 
     public boolean isTokenValid(String token, UserDetails userDetails) {
-        final String username = extractUsername(token);
-        return (username.equals(userDetails.getUsername())) && !isTokenExpired(token);
+        return verify(token)
+                .map(claims -> userDetails.getUsername().equals(claims.getSubject()))
+                .orElse(false);
     }
 
-    private boolean isTokenExpired(String token) {
-        return extractExpiration(token).before(new Date());
-    }
-
-    private Date extractExpiration(String token) {
-        return extractClaim(token, Claims::getExpiration);
+    private static boolean isExpired(Claims claims) {
+        Date expiration = claims.getExpiration();
+        return expiration != null && expiration.before(new Date());
     }
 
     private Claims extractAllClaims(String token) {
-        return Jwts.parserBuilder()
-                .setSigningKey(getSignInKey())
-                .build()
-                .parseClaimsJws(token)
-                .getBody();
-    }
-
-    private Key getSignInKey() {
-        byte[] keyBytes = Decoders.BASE64.decode(secretKey);
-        return Keys.hmacShaKeyFor(keyBytes);
+        return verify(token).orElseThrow(() -> new IllegalArgumentException("Jeton JWT invalide ou expiré"));
     }
 }
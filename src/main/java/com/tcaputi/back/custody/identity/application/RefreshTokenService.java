@@ -0,0 +1,129 @@
+package com.tcaputi.back.custody.identity.application;
+
+import com.tcaputi.back.custody.identity.domain.model.RefreshToken;
+import com.tcaputi.back.custody.identity.domain.model.User;
+import com.tcaputi.back.custody.identity.infrastructure.RefreshTokenRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.security.SecureRandom;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Base64;
+import java.util.HexFormat;
+import java.util.UUID;
+
+/**
+ * Jetons de rafraîchissement opaques, à usage unique : chaque rafraîchissement en émet un nouveau de la même famille.
+ * Présenter un jeton déjà utilisé signale un vol probable, toute la famille est alors révoquée.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class RefreshTokenService {
+
+    private static final int TOKEN_BYTES = 32;
+
+    private final RefreshTokenRepository refreshTokenRepository;
+    private final SecureRandom secureRandom = new SecureRandom();
+
+    @Value("${custody.auth.refresh-token.ttl:P30D}")
+    private Duration refreshTokenTtl;
+
+    public record Rotation(User user, String refreshToken) {
+    }
+
+    /**
+     * Ouvre une nouvelle famille (connexion) et retourne la valeur du jeton, qui n'est jamais stockée en clair.
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public String issue(User user) {
+        return issue(user, UUID.randomUUID());
+    }
+
+    /**
+     * Consomme un jeton et le remplace. Jeton inconnu, expiré, révoqué ou compte désactivé : IllegalArgumentException.
+     */
+    @Transactional(noRollbackFor = IllegalArgumentException.class)
+    public Rotation rotate(String rawToken) {
+        RefreshToken current = refreshTokenRepository.findByTokenHash(hash(rawToken))
+                .orElseThrow(() -> new IllegalArgumentException("Jeton de rafraîchissement inconnu"));
+
+        Instant now = Instant.now();
+        if (current.getRevokedAt() != null) {
+            // La révocation de la famille doit être validée malgré le refus : d'où noRollbackFor
+            int revokedCount = refreshTokenRepository.revokeFamily(current.getFamilyId(), now);
+            log.warn("Réutilisation d'un jeton de rafraîchissement pour {} : {} jeton(s) de la famille révoqué(s)",
+                    current.getUser().getUsername(), revokedCount);
+            throw new IllegalArgumentException("Jeton de rafraîchissement déjà utilisé ou révoqué");
+        }
+        if (!current.getExpiresAt().isAfter(now)) {
+            throw new IllegalArgumentException("Jeton de rafraîchissement expiré");
+        }
+
+        User user = current.getUser();
+        current.setRevokedAt(now);
+        if (!user.isEnabled()) {
+            throw new IllegalArgumentException("Compte désactivé");
+        }
+        return new Rotation(user, issue(user, current.getFamilyId()));
+    }
+
+    @Transactional
+    public void revoke(String rawToken) {
+        refreshTokenRepository.findByTokenHash(hash(rawToken))
+                .filter(token -> token.getRevokedAt() == null)
+                .ifPresent(token -> token.setRevokedAt(Instant.now()));
+    }
+
+    @Transactional
+    public int revokeAllForUser(UUID userId) {
+        return refreshTokenRepository.revokeAllByUserId(userId, Instant.now());
+    }
+
+    @Scheduled(cron = "${custody.auth.refresh-token.purge-cron:0 30 3 * * *}")
+    @Transactional
+    public void purgeExpired() {
+        int deleted = refreshTokenRepository.deleteExpired(Instant.now());
+        if (deleted > 0) {
+            log.info("{} jeton(s) de rafraîchissement expiré(s) supprimé(s)", deleted);
+        }
+    }
+
+    private String issue(User user, UUID familyId) {
+        byte[] bytes = new byte[TOKEN_BYTES];
+        secureRandom.nextBytes(bytes);
+        String rawToken = Base64.getUrlEncoder().withoutPadding().encodeToString(bytes);
+
+        Instant now = Instant.now();
+        refreshTokenRepository.save(RefreshToken.builder()
+                .tokenHash(hash(rawToken))
+                .user(user)
+                .familyId(familyId)
+                .createdAt(now)
+                .expiresAt(now.plus(refreshTokenTtl))
+                .build());
+        return rawToken;
+    }
+
+    // Jeton aléatoire de 256 bits : une empreinte sans sel suffit, aucune attaque par dictionnaire n'est possible
+    private static String hash(String rawToken) {
+        if (rawToken == null || rawToken.isBlank()) {
+            throw new IllegalArgumentException("Jeton de rafraîchissement requis");
+        }
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(rawToken.getBytes(StandardCharsets.UTF_8));
+            return HexFormat.of().formatHex(digest);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 indisponible", e);
+        }
+    }
+}
@@ -0,0 +1,114 @@
+package com.tcaputi.back.custody.identity.application;
+
+import com.tcaputi.back.custody.identity.domain.model.RevokedToken;
+import com.tcaputi.back.custody.identity.infrastructure.RevokedTokenRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * Liste des jetons d'accès révoqués, enregistrée en base et tenue en mémoire pour le filtre d'authentification.
+ * Un filtre de Bloom écarte sans recherche la quasi-totalité des jetons, jamais révoqués ; l'ensemble exact
+ * tranche les faux positifs. Les révocations des autres instances sont relues périodiquement, jamais à la requête.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class TokenRevocationService {
+
+    // Marge de relecture : couvre les écarts d'horloge entre instances, les doublons étant sans effet
+    private static final Duration SYNC_OVERLAP = Duration.ofSeconds(30);
+    private static final double FALSE_POSITIVE_RATE = 0.01;
+
+    private final RevokedTokenRepository revokedTokenRepository;
+
+    private final Map<String, Instant> revoked = new ConcurrentHashMap<>();
+    private volatile BloomFilter bloomFilter = BloomFilter.create(0, FALSE_POSITIVE_RATE);
+    private volatile Instant syncedUntil = Instant.EPOCH;
+
+    @Value("${custody.auth.revocation.expected-entries:100000}")
+    private int expectedEntries;
+
+    public boolean isRevoked(String jti) {
+        if (jti == null || !bloomFilter.mightContain(jti)) {
+            return false;
+        }
+        Instant expiresAt = revoked.get(jti);
+        return expiresAt != null && expiresAt.isAfter(Instant.now());
+    }
+
+    /**
+     * Révoque un jeton d'accès jusqu'à son expiration ; effectif immédiatement sur cette instance.
+     */
+    @Transactional
+    public void revoke(String jti, Instant expiresAt) {
+        if (jti == null || !expiresAt.isAfter(Instant.now())) {
+            return; // Jeton déjà expiré : rien à révoquer
+        }
+        revokedTokenRepository.insertIfAbsent(jti, expiresAt, Instant.now());
+        remember(jti, expiresAt);
+        log.debug("Jeton {} révoqué jusqu'au {}", jti, expiresAt);
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void loadOnStartup() {
+        Instant now = Instant.now();
+        List<RevokedToken> active = revokedTokenRepository.findByExpiresAtAfter(now);
+        active.forEach(token -> revoked.put(token.getJti(), token.getExpiresAt()));
+        rebuildBloomFilter();
+        syncedUntil = now;
+        log.info("{} jeton(s) révoqué(s) chargé(s)", active.size());
+    }
+
+    @Scheduled(fixedDelayString = "${custody.auth.revocation.sync-interval:PT10S}",
+               initialDelayString = "${custody.auth.revocation.sync-interval:PT10S}")
+    public void syncFromDatabase() {
+        Instant now = Instant.now();
+        revokedTokenRepository.findByRevokedAtAfter(syncedUntil.minus(SYNC_OVERLAP))
+                .forEach(token -> remember(token.getJti(), token.getExpiresAt()));
+        syncedUntil = now;
+    }
+
+    /**
+     * Oublie les jetons expirés, en base et en mémoire, et reconstruit le filtre de Bloom qui ne sait pas retirer.
+     */
+    @Scheduled(cron = "${custody.auth.revocation.purge-cron:0 0 * * * *}")
+    @Transactional
+    public void purgeExpired() {
+        Instant now = Instant.now();
+        int deleted = revokedTokenRepository.deleteExpired(now);
+        revoked.values().removeIf(expiresAt -> !expiresAt.isAfter(now));
+        rebuildBloomFilter();
+        if (deleted > 0) {
+            log.info("{} révocation(s) expirée(s) supprimée(s)", deleted);
+        }
+    }
+
+    private void remember(String jti, Instant expiresAt) {
+        // Ensemble exact d'abord : un lecteur qui trouve le jti dans le filtre le trouve aussi dans l'ensemble
+        revoked.put(jti, expiresAt);
+        bloomFilter.put(jti);
+        if (revoked.size() > bloomFilter.capacity()) {
+            rebuildBloomFilter(); // Au-delà de la capacité prévue, le taux de faux positifs se dégrade
+        }
+    }
+
+    private synchronized void rebuildBloomFilter() {
+        BloomFilter rebuilt = BloomFilter.create(Math.max(expectedEntries, 2 * revoked.size()), FALSE_POSITIVE_RATE);
+        revoked.keySet().forEach(rebuilt::put);
+        bloomFilter = rebuilt;
+        // Révocation ajoutée pendant la reconstruction, après le parcours : reportée dans le nouveau filtre
+        revoked.keySet().forEach(rebuilt::put);
+    }
+}
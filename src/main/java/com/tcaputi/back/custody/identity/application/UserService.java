@@ -0,0 +1,67 @@
+package com.tcaputi.back.custody.identity.application;
+
+import com.tcaputi.back.custody.identity.domain.model.User;
+import com.tcaputi.back.custody.identity.infrastructure.UserRepository;
+import com.tcaputi.back.custody.identity.interfaces.dto.UserDto;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Sort;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.Optional;
+import java.util.UUID;
+
+/**
+ * Administration des comptes. Toute modification des droits évince le principal mis en cache pour l'authentification.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+@Transactional(readOnly = true)
+public class UserService {
+
+    private final UserRepository userRepository;
+    private final CustomUserDetailsService userDetailsService;
+    private final RefreshTokenService refreshTokenService;
+
+    public Page<UserDto> getUsers(Integer page, Integer size) {
+        return userRepository.findAll(PageRequest.of(page, size, Sort.by("username")))
+                .map(UserService::toDto);
+    }
+
+    @Transactional
+    public Optional<UserDto> updateRole(UUID id, User.Role role) {
+        if (role == null) {
+            throw new IllegalArgumentException("Le rôle est requis");
+        }
+        return userRepository.findById(id).map(user -> {
+            user.setRole(role);
+            userDetailsService.evictPrincipal(user.getUsername());
+            log.info("Rôle de l'utilisateur {} modifié : {}", user.getUsername(), role);
+            return toDto(user);
+        });
+    }
+
+    @Transactional
+    public Optional<UserDto> updateActive(UUID id, boolean active) {
+        return userRepository.findById(id).map(user -> {
+            user.setActive(active);
+            userDetailsService.evictPrincipal(user.getUsername());
+            if (!active) {
+                // Les jetons d'accès en cours sont refusés via le principal ; plus aucun rafraîchissement possible
+                refreshTokenService.revokeAllForUser(user.getId());
+            }
+            log.info("Utilisateur {} {}", user.getUsername(), active ? "réactivé" : "désactivé");
+            return toDto(user);
+        });
+    }
+
+    // Le hash du mot de passe ne sort jamais de l'application
+    private static UserDto toDto(User user) {
+        return new UserDto(user.getId(), user.getUsername(), user.getEmail(), null, user.getFirstName(),
+                user.getLastName(), user.getRole(), user.isActive(), user.getCreatedAt(), user.getUpdatedAt());
+    }
+}
@@ -0,0 +1,45 @@
+package com.tcaputi.back.custody.identity.domain.model;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.time.Instant;
+import java.util.UUID;
+
+/**
+ * Jeton de rafraîchissement, conservé sous forme d'empreinte SHA-256 : la valeur elle-même n'est connue que du client.
+ * Chaque rafraîchissement remplace le jeton par un nouveau de la même famille ; la réutilisation d'un jeton déjà remplacé
+ * révoque toute la famille.
+ */
+@Entity
+@Builder
+@Setter
+@Getter
+@NoArgsConstructor
+@AllArgsConstructor
+@Table(name = "refresh_tokens", indexes = {
+        @Index(name = "idx_refresh_tokens_family_id", columnList = "familyId"),
+        @Index(name = "idx_refresh_tokens_expires_at", columnList = "expiresAt")
+})
+public class RefreshToken {
+    @Id
+    @GeneratedValue(strategy = GenerationType.UUID)
+    private UUID id;
+
+    @Column(nullable = false, unique = true, length = 64)
+    private String tokenHash;
+
+    @ManyToOne(fetch = FetchType.LAZY, optional = false)
+    private User user;
+
+    @Column(nullable = false)
+    private UUID familyId;
+
+    @Column(nullable = false)
+    private Instant createdAt;
+
+    @Column(nullable = false)
+    private Instant expiresAt;
+
+    private Instant revokedAt;
+}
@@ -0,0 +1,30 @@
+package com.tcaputi.back.custody.identity.domain.model;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.time.Instant;
+
+/**
+ * Jeton d'accès révoqué avant son expiration, identifié par son jti ; la ligne devient inutile une fois le jeton expiré.
+ */
+@Entity
+@Builder
+@Setter
+@Getter
+@NoArgsConstructor
+@AllArgsConstructor
+@Table(name = "revoked_tokens", indexes = {
+        @Index(name = "idx_revoked_tokens_revoked_at", columnList = "revokedAt"),
+        @Index(name = "idx_revoked_tokens_expires_at", columnList = "expiresAt")
+})
+public class RevokedToken {
+    @Id
+    private String jti;
+
+    @Column(nullable = false)
+    private Instant expiresAt;
+
+    @Column(nullable = false)
+    private Instant revokedAt;
+}
@@ -2,6 +2,8 @@ package com.tcaputi.back.custody.identity.infrastructure;
 
 import com.tcaputi.back.custody.identity.application.CustomUserDetailsService;
 import com.tcaputi.back.custody.identity.application.JwtService;
+import com.tcaputi.back.custody.identity.application.TokenRevocationService;
+import io.jsonwebtoken.Claims;
 import jakarta.servlet.FilterChain;
 import jakarta.servlet.ServletException;
 import jakarta.servlet.http.HttpServletRequest;
@@ -12,11 +14,17 @@ import org.springframework.lang.NonNull;
 import org.springframework.security.authentication.UsernamePasswordAuthenticationToken;
 import org.springframework.security.core.context.SecurityContextHolder;
 import org.springframework.security.core.userdetails.UserDetails;
+import org.springframework.security.core.userdetails.UsernameNotFoundException;
 import org.springframework.security.web.authentication.WebAuthenticationDetailsSource;
 import org.springframework.web.filter.OncePerRequestFilter;
 
 import java.io.IOException;
+import java.util.Optional;
 
+/**
+ * Authentification par jeton Bearer : une vérification de signature par jeton (cache des jetons vérifiés),
+ * la liste de révocation et le principal servis depuis la mémoire, sans requête en base sur le chemin courant.
+ */
 @Slf4j
 public class JwtAuthenticationFilter extends OncePerRequestFilter {
 
@@ -26,6 +34,9 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
     @Autowired
     private CustomUserDetailsService userDetailsService;
 
+    @Autowired
+    private TokenRevocationService tokenRevocationService;
+
     @Override
     protected void doFilterInternal(
             @NonNull HttpServletRequest request,
@@ -39,21 +50,22 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
         }
         
         final String authHeader = request.getHeader("Authorization");
-        final String jwt;
-        final String username;
         
         if (authHeader == null || !authHeader.startsWith("Bearer ")) {
             filterChain.doFilter(request, response);
             return;
         }
         
-        jwt = authHeader.substring(7);
-        username = jwtService.extractUsername(jwt);
+        // Liste de révocation consultée en mémoire, sans aller-retour en base
+        Optional<Claims> claims = jwtService.verify(authHeader.substring(7))
+                .filter(verified -> !tokenRevocationService.isRevoked(verified.getId()));
+        String username = claims.map(Claims::getSubject).orElse(null);
         
         if (username != null && SecurityContextHolder.getContext().getAuthentication() == null) {
-            UserDetails userDetails = this.userDetailsService.loadUserByUsername(username);
+            UserDetails userDetails = loadPrincipal(username);
             
-            if (jwtService.isTokenValid(jwt, userDetails)) {
+            // Un compte désactivé perd l'accès immédiatement, même avec un jeton encore valide
+            if (userDetails != null && userDetails.isEnabled()) {
                 UsernamePasswordAuthenticationToken authToken = new UsernamePasswordAuthenticationToken(
                         userDetails,
                         null,
@@ -68,4 +80,13 @@ public class JwtAuthenticationFilter extends OncePerRequestFilter {
         
         filterChain.doFilter(request, response);
     }
+
+    private UserDetails loadPrincipal(String username) {
+        try {
+            return userDetailsService.loadPrincipal(username);
+        } catch (UsernameNotFoundException e) {
+            log.debug("Jeton valide pour un utilisateur inconnu : {}", username);
+            return null;
+        }
+    }
 }
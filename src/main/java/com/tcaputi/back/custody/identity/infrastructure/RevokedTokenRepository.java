@@ -0,0 +1,30 @@
+package com.tcaputi.back.custody.identity.infrastructure;
+
+import com.tcaputi.back.custody.identity.domain.model.RevokedToken;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+
+import java.time.Instant;
+import java.util.List;
+
+public interface RevokedTokenRepository extends JpaRepository<RevokedToken, String> {
+
+    @Modifying
+    @Query(value = """
+            INSERT INTO revoked_tokens (jti, expires_at, revoked_at)
+            VALUES (:jti, :expiresAt, :revokedAt)
+            ON CONFLICT (jti) DO NOTHING
+            """, nativeQuery = true)
+    int insertIfAbsent(@Param("jti") String jti, @Param("expiresAt") Instant expiresAt, @Param("revokedAt") Instant revokedAt);
+
+    List<RevokedToken> findByExpiresAtAfter(Instant now);
+
+    // Révocations faites par les autres instances depuis la dernière synchronisation
+    List<RevokedToken> findByRevokedAtAfter(Instant since);
+
+    @Modifying
+    @Query("DELETE FROM RevokedToken r WHERE r.expiresAt < :now")
+    int deleteExpired(@Param("now") Instant now);
+}
@@ -3,10 +3,12 @@ package com.tcaputi.back.custody.identity.interfaces;
 import com.tcaputi.back.custody.identity.application.AuthService;
 import com.tcaputi.back.custody.identity.interfaces.dto.AuthResponse;
 import com.tcaputi.back.custody.identity.interfaces.dto.LoginRequest;
+import com.tcaputi.back.custody.identity.interfaces.dto.RefreshRequest;
 import com.tcaputi.back.custody.identity.interfaces.dto.RegisterRequest;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
@@ -40,6 +42,25 @@ public class AuthController {
         }
     }
 
+    @PostMapping("/refresh")
+    public ResponseEntity<AuthResponse> refresh(@Valid @RequestBody RefreshRequest request) {
+        try {
+            return ResponseEntity.ok(authService.refresh(request.refreshToken()));
+        } catch (IllegalArgumentException e) {
+            log.warn("Rafraîchissement refusé : {}", e.getMessage());
+            return ResponseEntity.status(HttpStatus.UNAUTHORIZED).build();
+        }
+    }
+
+    @PostMapping("/logout")
+    public ResponseEntity<Void> logout(
+            @RequestHeader(value = "Authorization", required = false) String authHeader,
+            @RequestBody(required = false) RefreshRequest request) {
+        String accessToken = authHeader != null && authHeader.startsWith("Bearer ") ? authHeader.substring(7) : null;
+        authService.logout(accessToken, request != null ? request.refreshToken() : null);
+        return ResponseEntity.noContent().build();
+    }
+
     @GetMapping("/test")
     public ResponseEntity<String> test() {
         return ResponseEntity.ok("L'authentification fonctionne !");
@@ -0,0 +1,51 @@
+package com.tcaputi.back.custody.identity.interfaces;
+
+import com.tcaputi.back.custody.identity.application.UserService;
+import com.tcaputi.back.custody.identity.domain.model.User;
+import com.tcaputi.back.custody.identity.interfaces.dto.UserDto;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.domain.Page;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+
+import java.util.UUID;
+
+@Slf4j
+@RestController
+@RequestMapping("/admin/users")
+@RequiredArgsConstructor
+class UserAdminController {
+
+    private final UserService userService;
+
+    @GetMapping
+    public ResponseEntity<Page<UserDto>> getUsers(
+            @RequestParam(defaultValue = "0") Integer page,
+            @RequestParam(defaultValue = "20") Integer size) {
+        return ResponseEntity.ok(userService.getUsers(page, size));
+    }
+
+    @PatchMapping("/{id}/role")
+    public ResponseEntity<UserDto> updateRole(@PathVariable UUID id, @RequestBody UserRoleUpdateRequest request) {
+        try {
+            return userService.updateRole(id, request.role())
+                    .map(ResponseEntity::ok)
+                    .orElse(ResponseEntity.notFound().build());
+        } catch (IllegalArgumentException e) {
+            log.warn("Erreur lors de la modification du rôle : {}", e.getMessage());
+            return ResponseEntity.badRequest().build();
+        }
+    }
+
+    @PatchMapping("/{id}/active")
+    public ResponseEntity<UserDto> updateActive(@PathVariable UUID id, @RequestBody UserActiveUpdateRequest request) {
+        return userService.updateActive(id, request.active())
+                .map(ResponseEntity::ok)
+                .orElse(ResponseEntity.notFound().build());
+    }
+
+    public record UserRoleUpdateRequest(User.Role role) {}
+
+    public record UserActiveUpdateRequest(boolean active) {}
+}
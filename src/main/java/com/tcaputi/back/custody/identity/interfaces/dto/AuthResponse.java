@@ -6,6 +6,8 @@ import java.util.UUID;
 
 public record AuthResponse(
     String token,
+    String refreshToken,
+    long expiresIn,
     String type,
     UUID id,
     String username,
@@ -14,8 +16,8 @@ public record AuthResponse(
     String lastName,
     User.Role role
 ) {
-    public AuthResponse(String token, User user) {
-        this(token, "Bearer", user.getId(), user.getUsername(), user.getEmail(), 
+    public AuthResponse(String token, String refreshToken, long expiresIn, User user) {
+        this(token, refreshToken, expiresIn, "Bearer", user.getId(), user.getUsername(), user.getEmail(), 
              user.getFirstName(), user.getLastName(), user.getRole());
     }
 }
@@ -0,0 +1,8 @@
+package com.tcaputi.back.custody.identity.interfaces.dto;
+
+import jakarta.validation.constraints.NotBlank;
+
+public record RefreshRequest(
+    @NotBlank(message = "Le jeton de rafraîchissement est requis")
+    String refreshToken
+) {}
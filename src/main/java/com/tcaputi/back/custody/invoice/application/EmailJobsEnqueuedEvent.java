@@ -0,0 +1,7 @@
+package com.tcaputi.back.custody.invoice.application;
+
+/**
+ * Publié à la mise en file d'emails ; le répartiteur démarre un envoi une fois la transaction validée.
+ */
+public record EmailJobsEnqueuedEvent(int count) {
+}
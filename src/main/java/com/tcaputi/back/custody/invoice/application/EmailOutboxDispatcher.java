@@ -0,0 +1,190 @@
+package com.tcaputi.back.custody.invoice.application;
+
+import com.tcaputi.back.custody.invoice.domain.model.EmailJob;
+import com.tcaputi.back.custody.invoice.exception.MailException;
+import com.tcaputi.back.custody.invoice.infrastructure.EmailService;
+import com.tcaputi.back.custody.invoice.infrastructure.SmtpRateLimiter;
+import jakarta.mail.SendFailedException;
+import jakarta.mail.internet.MimeMessage;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.mail.MailParseException;
+import org.springframework.mail.MailPreparationException;
+import org.springframework.mail.MailSendException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.event.TransactionalEventListener;
+
+import java.nio.file.Path;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.locks.ReentrantLock;
+
+/**
+ * Envoi des emails de l'outbox par lots : un lot réservé (SKIP LOCKED, plusieurs instances possibles)
+ * part sur une seule connexion SMTP, au débit autorisé par {@link SmtpRateLimiter}.
+ * Les échecs temporaires sont réessayés avec un délai exponentiel, les erreurs définitives ne le sont pas.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class EmailOutboxDispatcher {
+
+    private final EmailOutboxService emailOutboxService;
+    private final EmailService emailService;
+    private final InvoicePdfService invoicePdfService;
+    private final SmtpRateLimiter smtpRateLimiter;
+    @Qualifier("mailDispatchExecutor")
+    private final ThreadPoolTaskExecutor mailDispatchExecutor;
+
+    private final ReentrantLock dispatchLock = new ReentrantLock();
+
+    @Value("${custody.mail.outbox.batch-size:20}")
+    private int batchSize;
+
+    @Value("${custody.mail.outbox.max-attempts:6}")
+    private int maxAttempts;
+
+    @Value("${custody.mail.outbox.initial-backoff:PT1M}")
+    private Duration initialBackoff;
+
+    @Value("${custody.mail.outbox.max-backoff:PT1H}")
+    private Duration maxBackoff;
+
+    @Value("${custody.mail.outbox.lease:PT5M}")
+    private Duration lease;
+
+    /**
+     * Démarre un envoi dès la validation de la mise en file, sans attendre le prochain passage planifié.
+     */
+    @TransactionalEventListener
+    public void onEmailJobsEnqueued(EmailJobsEnqueuedEvent event) {
+        mailDispatchExecutor.execute(this::dispatchPending);
+    }
+
+    @Scheduled(fixedDelayString = "${custody.mail.outbox.poll-interval:PT30S}")
+    public void dispatchPending() {
+        // Un seul envoi à la fois par instance : les lots suivants sont pris par la boucle en cours
+        if (!dispatchLock.tryLock()) {
+            return;
+        }
+        try {
+            List<EmailJob> batch;
+            do {
+                batch = emailOutboxService.claimDispatchable(batchSize, lease);
+                if (!batch.isEmpty()) {
+                    sendBatch(batch);
+                }
+            } while (batch.size() == batchSize);
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            log.warn("Envoi des emails interrompu, les emails réservés seront repris à l'expiration du bail");
+        } finally {
+            dispatchLock.unlock();
+        }
+    }
+
+    private void sendBatch(List<EmailJob> jobs) throws InterruptedException {
+        Map<MimeMessage, EmailJob> messages = new LinkedHashMap<>();
+        List<Path> attachments = new ArrayList<>();
+        try {
+            for (EmailJob job : jobs) {
+                try {
+                    messages.put(prepareMessage(job, attachments), job);
+                } catch (RuntimeException e) {
+                    handleFailure(job, e);
+                }
+            }
+            if (messages.isEmpty()) {
+                return;
+            }
+
+            smtpRateLimiter.acquire(messages.size());
+            List<UUID> sent = new ArrayList<>();
+            try {
+                emailService.send(messages.keySet());
+                messages.values().forEach(job -> sent.add(job.getId()));
+            } catch (MailSendException e) {
+                // Échec partiel : seuls les messages listés ont échoué, les autres sont partis
+                Map<Object, Exception> failed = e.getFailedMessages();
+                messages.forEach((message, job) -> {
+                    if (failed.isEmpty()) {
+                        handleFailure(job, e);
+                    } else if (failed.containsKey(message)) {
+                        handleFailure(job, failed.get(message));
+                    } else {
+                        sent.add(job.getId());
+                    }
+                });
+            } catch (RuntimeException e) {
+                // Authentification, configuration : rien n'est parti
+                messages.values().forEach(job -> handleFailure(job, e));
+            }
+
+            emailOutboxService.markSent(sent);
+            if (!sent.isEmpty()) {
+                log.info("{} email(s) envoyé(s)", sent.size());
+            }
+        } finally {
+            attachments.forEach(invoicePdfService::deleteTempFile);
+        }
+    }
+
+    private MimeMessage prepareMessage(EmailJob job, List<Path> attachments) {
+        if (job.getInvoiceId() == null) {
+            return emailService.createInvoiceMessage(job.getRecipient(), job.getSubject(), job.getBody(), null, null);
+        }
+
+        InvoiceRenderModel model = invoicePdfService.loadRenderModel(job.getInvoiceId())
+                .orElseThrow(() -> new MailException("Facture " + job.getInvoiceId() + " introuvable"));
+        Path pdfFile = invoicePdfService.writeInvoicePdfToTempFile(model);
+        attachments.add(pdfFile);
+        return emailService.createInvoiceMessage(job.getRecipient(), job.getSubject(), job.getBody(),
+                pdfFile, model.invoice().number());
+    }
+
+    private void handleFailure(EmailJob job, Exception e) {
+        String error = e.getMessage() != null ? e.getMessage() : e.getClass().getSimpleName();
+        if (isPermanent(e) || job.getAttempts() >= maxAttempts) {
+            log.error("Échec définitif de l'email {} à {} après {} tentative(s) : {}",
+                    job.getId(), job.getRecipient(), job.getAttempts(), error);
+            emailOutboxService.recordFailure(job.getId(), error, null);
+            return;
+        }
+
+        Instant retryAt = nextAttemptAt(job.getAttempts());
+        log.warn("Échec de l'email {} à {} (tentative {}), nouvel essai à {} : {}",
+                job.getId(), job.getRecipient(), job.getAttempts(), retryAt, error);
+        emailOutboxService.recordFailure(job.getId(), error, retryAt);
+    }
+
+    /**
+     * Erreurs qu'un nouvel essai ne corrigera pas : message invalide ou adresse refusée par le serveur.
+     */
+    private boolean isPermanent(Exception e) {
+        if (e instanceof MailException || e instanceof MailParseException || e instanceof MailPreparationException) {
+            return true;
+        }
+        return e instanceof SendFailedException sendFailed
+                && sendFailed.getInvalidAddresses() != null && sendFailed.getInvalidAddresses().length > 0;
+    }
+
+    private Instant nextAttemptAt(int attempts) {
+        Duration delay = initialBackoff.multipliedBy(1L << Math.min(attempts - 1, 20));
+        if (delay.compareTo(maxBackoff) > 0) {
+            delay = maxBackoff;
+        }
+        // Jusqu'à 20 % d'écart pour ne pas relancer tous les emails d'une panne au même instant
+        long jitterMillis = ThreadLocalRandom.current().nextLong(delay.toMillis() / 5 + 1);
+        return Instant.now().plus(delay).plusMillis(jitterMillis);
+    }
+}
@@ -0,0 +1,121 @@
+package com.tcaputi.back.custody.invoice.application;
+
+import com.tcaputi.back.custody.invoice.domain.model.EmailJob;
+import com.tcaputi.back.custody.invoice.domain.model.EmailJobStatus;
+import com.tcaputi.back.custody.invoice.infrastructure.EmailJobRepository;
+import com.tcaputi.back.custody.invoice.infrastructure.InvoiceRepository;
+import com.tcaputi.back.custody.invoice.interfaces.dto.EmailJobDto;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+
+/**
+ * Outbox des emails : la demande d'envoi est enregistrée dans la transaction de l'appelant
+ * et l'envoi SMTP se fait hors des threads HTTP, par {@link EmailOutboxDispatcher}.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+@Transactional(readOnly = true)
+public class EmailOutboxService {
+
+    private static final int MAX_ERROR_LENGTH = 2000;
+
+    private final EmailJobRepository emailJobRepository;
+    private final InvoiceRepository invoiceRepository;
+    private final ApplicationEventPublisher eventPublisher;
+
+    /**
+     * Met en file l'envoi d'une facture par email ; vide si la facture n'existe pas.
+     */
+    @Transactional
+    public Optional<EmailJobDto> enqueueInvoiceEmail(UUID invoiceId, String to, String subject, String body) {
+        validateRecipient(to);
+        if (!invoiceRepository.existsById(invoiceId)) {
+            return Optional.empty();
+        }
+
+        EmailJobDto job = enqueue(invoiceId, to, subject, body);
+        log.info("Email de la facture {} à {} mis en file : {}", invoiceId, job.recipient(), job.id());
+        return Optional.of(job);
+    }
+
+    /**
+     * Met en file un email sans pièce jointe (relances, notifications).
+     */
+    @Transactional
+    public EmailJobDto enqueueEmail(String to, String subject, String body) {
+        validateRecipient(to);
+        return enqueue(null, to, subject, body);
+    }
+
+    public Optional<EmailJobDto> getEmailJob(UUID id) {
+        return emailJobRepository.findById(id).map(EmailJobDto::of);
+    }
+
+    /**
+     * Réserve un lot d'emails à envoyer pour la durée du bail et compte la tentative.
+     */
+    @Transactional
+    public List<EmailJob> claimDispatchable(int limit, Duration lease) {
+        Instant now = Instant.now();
+        List<EmailJob> jobs = emailJobRepository.lockDispatchable(now, limit);
+        jobs.forEach(job -> {
+            job.setStatus(EmailJobStatus.SENDING);
+            job.setLockedUntil(now.plus(lease));
+            job.setAttempts(job.getAttempts() + 1);
+        });
+        return jobs;
+    }
+
+    @Transactional
+    public void markSent(Collection<UUID> ids) {
+        if (!ids.isEmpty()) {
+            emailJobRepository.markSent(ids, Instant.now(), EmailJobStatus.SENT);
+        }
+    }
+
+    /**
+     * Enregistre l'échec d'une tentative : nouvel essai à {@code retryAt}, ou échec définitif si absent.
+     */
+    @Transactional
+    public void recordFailure(UUID id, String error, Instant retryAt) {
+        String truncated = error != null && error.length() > MAX_ERROR_LENGTH ? error.substring(0, MAX_ERROR_LENGTH) : error;
+        if (retryAt == null) {
+            emailJobRepository.markAttemptFailed(id, EmailJobStatus.FAILED, Instant.now(), truncated);
+        } else {
+            emailJobRepository.markAttemptFailed(id, EmailJobStatus.PENDING, retryAt, truncated);
+        }
+    }
+
+    private EmailJobDto enqueue(UUID invoiceId, String to, String subject, String body) {
+        Instant now = Instant.now();
+        EmailJob job = emailJobRepository.save(EmailJob.builder()
+                .invoiceId(invoiceId)
+                .recipient(to.trim())
+                .subject(subject)
+                .body(body)
+                .status(EmailJobStatus.PENDING)
+                .attempts(0)
+                .nextAttemptAt(now)
+                .createdAt(now)
+                .build());
+        eventPublisher.publishEvent(new EmailJobsEnqueuedEvent(1));
+        return EmailJobDto.of(job);
+    }
+
+    private void validateRecipient(String to) {
+        if (to == null || to.isBlank()) {
+            throw new IllegalArgumentException("L'adresse email du destinataire est obligatoire");
+        }
+    }
+}
@@ -1,21 +1,34 @@
 package com.tcaputi.back.custody.invoice.application;
 
+import com.tcaputi.back.custody.invoice.domain.model.InvoiceSequence;
 import com.tcaputi.back.custody.invoice.domain.model.InvoiceType;
-import com.tcaputi.back.custody.invoice.infrastructure.InvoiceRepository;
+import com.tcaputi.back.custody.invoice.infrastructure.InvoiceSequenceRepository;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDate;
-import java.util.Optional;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.EnumMap;
+import java.util.EnumSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.stream.LongStream;
 
 @Slf4j
 @Service
 @RequiredArgsConstructor
 public class InvoiceNumberService {
 
-    private final InvoiceRepository invoiceRepository;
+    // Format attendu: PREFIX-YYYY-NNNN
+    private static final Pattern INVOICE_NUMBER_PATTERN = Pattern.compile("^(FA|AV)-(\\d{4})-(\\d{4})$");
+
+    private final InvoiceSequenceRepository invoiceSequenceRepository;
 
     /**
      * Génère le prochain numéro de facture légal français
@@ -23,34 +36,103 @@ public class InvoiceNumberService {
      * Ex: FA-2025-0001, AV-2025-0001
      */
     @Transactional
-    public synchronized String generateInvoiceNumber(InvoiceType type) {
+    public String generateInvoiceNumber(InvoiceType type) {
+        return allocateInvoiceNumbers(type, 1).getFirst();
+    }
+
+    /**
+     * Réserve un bloc contigu de numéros pour un type et l'année courante.
+     * La ligne de séquence est verrouillée (SELECT ... FOR UPDATE) jusqu'à la fin de la transaction appelante :
+     * les créations concurrentes, y compris sur d'autres instances, sont sérialisées par la base,
+     * et un rollback annule la réservation, ce qui garantit une numérotation sans trou.
+     */
+    @Transactional
+    public List<String> allocateInvoiceNumbers(InvoiceType type, int count) {
+        if (count < 1) {
+            throw new IllegalArgumentException("Le nombre de numéros à réserver doit être positif");
+        }
+
         int currentYear = LocalDate.now().getYear();
-        String prefix = type.getPrefix();
-        
-        // Recherche du dernier numéro pour ce type et cette année
-        String pattern = prefix + "-" + currentYear + "-%";
-        
-        Optional<String> lastNumber = invoiceRepository.findLastInvoiceNumberByPattern(pattern);
+        return allocate(lockSequence(type.getSequenceType(), type.getPrefix(), currentYear), count);
+    }
+
+    /**
+     * Numérotation d'un lot : chaque séquence touchée, par un numéro saisi ou par une allocation, est verrouillée
+     * une seule fois et dans l'ordre de {@link InvoiceType}, puis avancée au-delà des numéros saisis avant l'allocation
+     * des blocs. Deux lots concurrents aux types mêlés dans des ordres différents ne peuvent pas s'interbloquer.
+     *
+     * @param counts nombre de numéros à allouer par type de séquence
+     * @return les numéros alloués par type de séquence
+     */
+    @Transactional
+    public Map<InvoiceType, List<String>> numberBatch(Collection<String> manualNumbers, Map<InvoiceType, Integer> counts) {
+        int currentYear = LocalDate.now().getYear();
+        Map<InvoiceType, Long> highest = highestManualNumbers(manualNumbers, currentYear);
+
+        Set<InvoiceType> sequenceTypes = EnumSet.noneOf(InvoiceType.class);
+        sequenceTypes.addAll(highest.keySet());
+        counts.keySet().forEach(type -> sequenceTypes.add(type.getSequenceType()));
+
+        Map<InvoiceType, List<String>> allocated = new EnumMap<>(InvoiceType.class);
+        for (InvoiceType sequenceType : sequenceTypes) {
+            InvoiceSequence sequence = lockSequence(sequenceType, sequenceType.getPrefix(), currentYear);
+            Long manual = highest.get(sequenceType);
+            if (manual != null) {
+                advancePast(sequence, manual);
+            }
+            int count = counts.getOrDefault(sequenceType, 0);
+            if (count > 0) {
+                allocated.put(sequenceType, allocate(sequence, count));
+            }
+        }
+        return allocated;
+    }
+
+    private List<String> allocate(InvoiceSequence sequence, int count) {
+        String prefix = sequence.getType().getPrefix();
+        int year = sequence.getYear();
+        long first = sequence.getCurrentNumber() + 1;
+        sequence.setCurrentNumber(sequence.getCurrentNumber() + count);
 
-        String newNumber = this.getNewNumber(lastNumber, prefix, currentYear);
+        List<String> numbers = LongStream.range(first, first + count)
+                .mapToObj(sequenceNumber -> String.format("%s-%d-%04d", prefix, year, sequenceNumber))
+                .toList();
 
-        log.info("Nouveau numéro de facture généré : {}", newNumber);
-        return newNumber;
+        log.info("Numéro(s) de facture réservé(s) : {} à {}", numbers.getFirst(), numbers.getLast());
+        return numbers;
     }
 
-    private String getNewNumber(Optional<String> lastNumber, String prefix, int currentYear) {
-        int nextSequence;
-        if (lastNumber.isPresent()) {
-            // Extrait le numéro séquentiel du dernier numéro
-            String lastNumberValue = lastNumber.get();
-            String sequencePart = lastNumberValue.substring(lastNumberValue.lastIndexOf("-") + 1);
-            nextSequence = Integer.parseInt(sequencePart) + 1;
-        } else {
-            // Premier numéro de l'année pour ce type
-            nextSequence = 1;
+    /**
+     * Fait avancer la séquence de l'année courante au-delà des numéros saisis manuellement, sous le même verrou
+     * que l'allocation : sans cela, l'allocateur finirait par attribuer un numéro déjà pris et toute création
+     * automatique de ce préfixe échouerait sur la contrainte d'unicité.
+     * Les numéros d'une autre année sont ignorés, la séquence d'une année étant initialisée sur les numéros existants.
+     */
+    @Transactional
+    public void reserveManualNumbers(Collection<String> numbers) {
+        int currentYear = LocalDate.now().getYear();
+        // EnumMap : séquences verrouillées dans l'ordre de l'énumération, voir lockSequence
+        highestManualNumbers(numbers, currentYear).forEach((sequenceType, sequenceNumber) ->
+                advancePast(lockSequence(sequenceType, sequenceType.getPrefix(), currentYear), sequenceNumber));
+    }
+
+    private Map<InvoiceType, Long> highestManualNumbers(Collection<String> numbers, int currentYear) {
+        Map<InvoiceType, Long> highest = new EnumMap<>(InvoiceType.class);
+        for (String number : numbers) {
+            Matcher matcher = INVOICE_NUMBER_PATTERN.matcher(number);
+            if (matcher.matches() && Integer.parseInt(matcher.group(2)) == currentYear) {
+                highest.merge(sequenceTypeOf(matcher.group(1)), Long.parseLong(matcher.group(3)), Math::max);
+            }
         }
+        return highest;
+    }
 
-        return String.format("%s-%d-%04d", prefix, currentYear, nextSequence);
+    private void advancePast(InvoiceSequence sequence, long sequenceNumber) {
+        if (sequence.getCurrentNumber() < sequenceNumber) {
+            log.info("Séquence {}-{} avancée de {} à {} après saisie manuelle",
+                    sequence.getType().getPrefix(), sequence.getYear(), sequence.getCurrentNumber(), sequenceNumber);
+            sequence.setCurrentNumber(sequenceNumber);
+        }
     }
 
     /**
@@ -60,9 +142,30 @@ public class InvoiceNumberService {
         if (number == null || number.isEmpty()) {
             return false;
         }
-        
-        // Format attendu: PREFIX-YYYY-NNNN
-        String regex = "^(FA|AV)-\\d{4}-\\d{4}$";
-        return number.matches(regex);
+
+        return INVOICE_NUMBER_PATTERN.matcher(number).matches();
+    }
+
+    private static InvoiceType sequenceTypeOf(String prefix) {
+        return Arrays.stream(InvoiceType.values())
+                .filter(type -> type.getPrefix().equals(prefix))
+                .map(InvoiceType::getSequenceType)
+                .findFirst()
+                .orElseThrow(() -> new IllegalArgumentException("Préfixe de facture inconnu : " + prefix));
+    }
+
+    /**
+     * Verrouille la séquence (SELECT ... FOR UPDATE) jusqu'à la fin de la transaction appelante.
+     * Une transaction qui en verrouille plusieurs doit le faire dans l'ordre de {@link InvoiceType} (FA puis AV),
+     * une seule fois chacune : deux ordres différents mèneraient à un interblocage entre transactions concurrentes.
+     */
+    private InvoiceSequence lockSequence(InvoiceType sequenceType, String prefix, int year) {
+        return invoiceSequenceRepository.findByTypeAndYear(sequenceType, year)
+                .orElseGet(() -> {
+                    // Première facture de l'année pour ce préfixe : la séquence reprend après les numéros existants
+                    invoiceSequenceRepository.createIfAbsent(sequenceType.name(), year, prefix + "-" + year + "-%");
+                    return invoiceSequenceRepository.findByTypeAndYear(sequenceType, year)
+                            .orElseThrow(() -> new IllegalStateException("Séquence de numérotation introuvable pour " + prefix + "-" + year));
+                });
     }
 }
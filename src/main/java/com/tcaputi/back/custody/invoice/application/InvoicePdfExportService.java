@@ -0,0 +1,172 @@
+package com.tcaputi.back.custody.invoice.application;
+
+import com.tcaputi.back.custody.invoice.infrastructure.InvoiceRepository;
+import com.tcaputi.back.custody.invoice.interfaces.dto.InvoicePdfBatchRequest;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.Limit;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+import org.springframework.stereotype.Service;
+import org.springframework.util.StreamUtils;
+
+import java.io.IOException;
+import java.io.InterruptedIOException;
+import java.io.OutputStream;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.Iterator;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.UUID;
+import java.util.concurrent.Callable;
+import java.util.concurrent.CancellationException;
+import java.util.concurrent.CompletionService;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.Future;
+import java.util.zip.Deflater;
+import java.util.zip.ZipEntry;
+import java.util.zip.ZipOutputStream;
+
+/**
+ * Export groupé des factures en PDF dans une archive ZIP.
+ * Le rendu est parallélisé sur le pool PDF et chaque fichier est écrit dans l'archive dès qu'il est prêt ;
+ * le nombre de rendus en vol est borné et chaque rendu passe par un fichier temporaire,
+ * ce qui garde une mémoire constante quel que soit le nombre ou la taille des factures.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class InvoicePdfExportService {
+
+    private static final String ERRORS_ENTRY = "erreurs.txt";
+
+    private final InvoiceRepository invoiceRepository;
+    private final InvoicePdfService invoicePdfService;
+    @Qualifier("pdfRenderingExecutor")
+    private final ThreadPoolTaskExecutor pdfRenderingExecutor;
+
+    @Value("${custody.pdf.export.max-invoices:2000}")
+    private int maxInvoices;
+
+    /**
+     * Factures à exporter, explicites ou sélectionnées par filtres ; au-delà de custody.pdf.export.max-invoices,
+     * l'export est refusé plutôt que de produire une archive de toute la table.
+     */
+    public List<UUID> resolveInvoiceIds(InvoicePdfBatchRequest request) {
+        if (request.ids() != null && !request.ids().isEmpty()) {
+            return checkSize(new ArrayList<>(new LinkedHashSet<>(request.ids())));
+        }
+
+        if (request.issueDateFrom() != null && request.issueDateTo() != null
+                && request.issueDateTo().isBefore(request.issueDateFrom())) {
+            throw new IllegalArgumentException("La date de fin ne peut pas être antérieure à la date de début");
+        }
+
+        // Une ligne de plus que le maximum suffit à savoir s'il est dépassé
+        return checkSize(invoiceRepository.findIdsForPdfExport(
+                request.clientId(), request.projectId(), request.status(),
+                request.issueDateFrom(), request.issueDateTo(), Limit.of(maxInvoices + 1)));
+    }
+
+    private List<UUID> checkSize(List<UUID> invoiceIds) {
+        if (invoiceIds.size() > maxInvoices) {
+            throw new IllegalArgumentException("Un export PDF groupé ne peut pas dépasser " + maxInvoices
+                    + " factures : affinez les filtres");
+        }
+        return invoiceIds;
+    }
+
+    public void writeZip(List<UUID> invoiceIds, OutputStream outputStream) throws IOException {
+        log.info("Export PDF groupé de {} facture(s)", invoiceIds.size());
+
+        CompletionService<RenderedPdf> completionService = new ExecutorCompletionService<>(pdfRenderingExecutor);
+        int maxInFlight = Math.max(1, pdfRenderingExecutor.getMaxPoolSize() * 2);
+        Set<Future<RenderedPdf>> inFlight = new HashSet<>();
+        Iterator<UUID> remaining = invoiceIds.iterator();
+        List<String> failures = new ArrayList<>();
+
+        try (ZipOutputStream zip = new ZipOutputStream(StreamUtils.nonClosing(outputStream))) {
+            zip.setLevel(Deflater.BEST_SPEED); // Les PDF sont déjà compressés
+
+            while (inFlight.size() < maxInFlight && remaining.hasNext()) {
+                inFlight.add(completionService.submit(renderTask(remaining.next())));
+            }
+
+            while (!inFlight.isEmpty()) {
+                Future<RenderedPdf> done = completionService.take();
+                inFlight.remove(done);
+                if (remaining.hasNext()) {
+                    inFlight.add(completionService.submit(renderTask(remaining.next())));
+                }
+
+                RenderedPdf rendered = done.get();
+                if (rendered.error() != null) {
+                    failures.add(rendered.invoiceId() + " : " + rendered.error());
+                    continue;
+                }
+
+                try {
+                    zip.putNextEntry(new ZipEntry("facture-" + rendered.number() + ".pdf"));
+                    Files.copy(rendered.pdfFile(), zip);
+                    zip.closeEntry();
+                } finally {
+                    invoicePdfService.deleteTempFile(rendered.pdfFile());
+                }
+            }
+
+            if (!failures.isEmpty()) {
+                zip.putNextEntry(new ZipEntry(ERRORS_ENTRY));
+                zip.write(String.join("\n", failures).getBytes(StandardCharsets.UTF_8));
+                zip.closeEntry();
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new InterruptedIOException("Export PDF interrompu");
+        } catch (ExecutionException e) {
+            throw new IOException("Erreur lors de l'export PDF groupé", e.getCause());
+        } finally {
+            // Client déconnecté ou erreur : inutile de terminer les rendus restants
+            inFlight.forEach(this::discard);
+        }
+
+        log.info("Export PDF groupé terminé : {} facture(s), {} en erreur", invoiceIds.size(), failures.size());
+    }
+
+    private void discard(Future<RenderedPdf> future) {
+        if (future.cancel(true)) {
+            return;
+        }
+        // Rendu déjà terminé : on supprime le fichier temporaire qu'il a produit
+        try {
+            invoicePdfService.deleteTempFile(future.get().pdfFile());
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+        } catch (ExecutionException | CancellationException ignored) {
+            // Aucun fichier produit
+        }
+    }
+
+    private Callable<RenderedPdf> renderTask(UUID invoiceId) {
+        return () -> {
+            try {
+                return invoicePdfService.loadRenderModel(invoiceId)
+                        .map(model -> new RenderedPdf(invoiceId, model.invoice().number(),
+                                invoicePdfService.writeInvoicePdfToTempFile(model), null))
+                        .orElseGet(() -> new RenderedPdf(invoiceId, null, null, "facture introuvable"));
+            } catch (Exception e) {
+                log.error("Erreur lors du rendu PDF de la facture {} : {}", invoiceId, e.getMessage());
+                return new RenderedPdf(invoiceId, null, null, e.getMessage());
+            }
+        };
+    }
+
+    private record RenderedPdf(UUID invoiceId, String number, Path pdfFile, String error) {
+    }
+}
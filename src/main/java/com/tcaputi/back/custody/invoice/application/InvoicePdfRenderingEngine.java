@@ -0,0 +1,368 @@
+package com.tcaputi.back.custody.invoice.application;
+
+import com.itextpdf.io.font.FontProgram;
+import com.itextpdf.io.font.FontProgramFactory;
+import com.itextpdf.io.font.constants.StandardFonts;
+import com.itextpdf.kernel.font.PdfFont;
+import com.itextpdf.kernel.font.PdfFontFactory;
+import com.itextpdf.kernel.pdf.PdfDocument;
+import com.itextpdf.kernel.pdf.PdfWriter;
+import com.itextpdf.layout.Document;
+import com.itextpdf.layout.element.Cell;
+import com.itextpdf.layout.element.Paragraph;
+import com.itextpdf.layout.element.Table;
+import com.itextpdf.layout.properties.TextAlignment;
+import com.itextpdf.layout.properties.UnitValue;
+import com.tcaputi.back.custody.client.interfaces.dto.AddressDto;
+import com.tcaputi.back.custody.client.interfaces.dto.ClientDto;
+import com.tcaputi.back.custody.client.interfaces.dto.CompanyDto;
+import com.tcaputi.back.custody.invoice.interfaces.dto.InvoiceDto;
+import com.tcaputi.back.custody.invoice.interfaces.dto.InvoiceLineDto;
+import com.tcaputi.back.custody.project.interfaces.dto.ProjectDto;
+import com.tcaputi.back.custody.tax.interfaces.dto.TaxProfileDto;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Component;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.math.BigDecimal;
+import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Objects;
+
+/**
+ * Moteur de rendu des factures PDF.
+ * <p>
+ * Les programmes de police et les blocs statiques (émetteur, mentions légales du TaxProfile) sont préparés
+ * une seule fois et partagés entre tous les documents ; ils ne sont reconstruits que lorsque la source change.
+ * iText lie chaque {@link PdfFont} et chaque élément de mise en page à un seul {@link PdfDocument} :
+ * seul leur assemblage final reste fait par document.
+ */
+@Slf4j
+@Component
+public class InvoicePdfRenderingEngine {
+
+    private static final DateTimeFormatter DATE_FORMATTER = DateTimeFormatter.ofPattern("dd/MM/yyyy");
+
+    private static final float[] HEADER_COLUMNS = {50, 50};
+    private static final float[] LINE_COLUMNS = {40, 10, 10, 15, 10, 15};
+    private static final float[] TOTALS_COLUMNS = {70, 30};
+
+    private final FontProgram regularFontProgram;
+    private final FontProgram boldFontProgram;
+
+    private volatile StaticBlocks staticBlocks;
+
+    public InvoicePdfRenderingEngine() {
+        try {
+            this.regularFontProgram = FontProgramFactory.createFont(StandardFonts.HELVETICA);
+            this.boldFontProgram = FontProgramFactory.createFont(StandardFonts.HELVETICA_BOLD);
+        } catch (IOException e) {
+            throw new IllegalStateException("Impossible de charger les polices PDF", e);
+        }
+    }
+
+    public void render(InvoiceDto invoice, ClientDto client, ProjectDto project, CompanyDto issuer,
+                       TaxProfileDto taxProfile, OutputStream outputStream) {
+        StaticBlocks blocks = staticBlocksFor(issuer, taxProfile);
+
+        PdfWriter writer = new PdfWriter(outputStream);
+        PdfDocument pdfDoc = new PdfDocument(writer);
+        Document document = new Document(pdfDoc);
+
+        // Polices liées au document, créées à partir des programmes partagés
+        PdfFont font = PdfFontFactory.createFont(regularFontProgram);
+        PdfFont boldFont = PdfFontFactory.createFont(boldFontProgram);
+
+        // En-tête de la facture
+        addInvoiceHeader(document, invoice, blocks, boldFont);
+
+        // Informations client
+        addClientInfo(document, client, project, font, boldFont);
+
+        // Tableau des lignes de facture
+        addInvoiceLines(document, invoice, font, boldFont);
+
+        // Totaux
+        addInvoiceTotals(document, invoice, font, boldFont);
+
+        // Notes et mentions légales
+        addNotesAndLegalMentions(document, invoice, blocks, font, boldFont);
+
+        document.close();
+    }
+
+    /**
+     * Retourne les blocs statiques, reconstruits uniquement si l'émetteur ou le TaxProfile source a changé.
+     */
+    private StaticBlocks staticBlocksFor(CompanyDto issuer, TaxProfileDto taxProfile) {
+        StaticBlocks current = staticBlocks;
+        if (current != null && Objects.equals(current.issuer(), issuer) && Objects.equals(current.taxProfile(), taxProfile)) {
+            return current;
+        }
+
+        List<String> mentions = taxProfile != null && taxProfile.mandatoryMentions() != null
+                ? List.copyOf(taxProfile.mandatoryMentions())
+                : List.of();
+        String companyName = issuer == null ? ""
+                : issuer.tradeName() != null ? issuer.tradeName() : issuer.legalName();
+        StaticBlocks rebuilt = new StaticBlocks(issuer, taxProfile, companyName, companyLines(issuer), mentions);
+        staticBlocks = rebuilt;
+        log.debug("Blocs statiques PDF reconstruits ({} mention(s) légale(s))", mentions.size());
+        return rebuilt;
+    }
+
+    /**
+     * Identité légale de l'émetteur telle qu'imposée sur une facture : adresse, SIRET, forme juridique, TVA, coordonnées bancaires.
+     */
+    private static List<String> companyLines(CompanyDto issuer) {
+        if (issuer == null) {
+            return List.of();
+        }
+        List<String> lines = new ArrayList<>();
+        if (issuer.tradeName() != null) {
+            lines.add(issuer.legalName());
+        }
+        AddressDto address = issuer.address();
+        if (address != null) {
+            addIfPresent(lines, address.street());
+            addIfPresent(lines, joinNonNull(address.zip(), address.city()));
+            addIfPresent(lines, address.country());
+        }
+        addIfPresent(lines, joinNonNull(issuer.legalForm(), issuer.rcsOrRm()));
+        lines.add("SIRET: " + issuer.siret());
+        if (issuer.vatNumber() != null) {
+            lines.add("TVA intracommunautaire: " + issuer.vatNumber());
+        }
+        if (issuer.apeNaf() != null) {
+            lines.add("APE: " + issuer.apeNaf());
+        }
+        addIfPresent(lines, issuer.email());
+        addIfPresent(lines, issuer.phone());
+        if (issuer.iban() != null) {
+            lines.add("IBAN: " + issuer.iban() + (issuer.bic() != null ? " - BIC: " + issuer.bic() : ""));
+        }
+        return List.copyOf(lines);
+    }
+
+    private static void addIfPresent(List<String> lines, String value) {
+        if (value != null && !value.isBlank()) {
+            lines.add(value);
+        }
+    }
+
+    private static String joinNonNull(String first, String second) {
+        if (first == null) {
+            return second;
+        }
+        return second == null ? first : first + " " + second;
+    }
+
+    private void addInvoiceHeader(Document document, InvoiceDto invoice, StaticBlocks blocks, PdfFont boldFont) {
+        // Titre de la facture
+        Paragraph title = new Paragraph("FACTURE")
+                .setFont(boldFont)
+                .setFontSize(20)
+                .setTextAlignment(TextAlignment.CENTER)
+                .setMarginBottom(20);
+        document.add(title);
+
+        // Informations de la facture
+        Table headerTable = new Table(UnitValue.createPercentArray(HEADER_COLUMNS))
+                .setWidth(UnitValue.createPercentValue(100));
+
+        // Colonne gauche - Informations société
+        Cell companyCell = new Cell()
+                .add(new Paragraph(blocks.companyName()).setFont(boldFont))
+                .setBorder(null);
+        for (String line : blocks.companyLines()) {
+            companyCell.add(new Paragraph(line));
+        }
+
+        // Colonne droite - Détails facture
+        Cell invoiceInfoCell = new Cell()
+                .add(new Paragraph("Numéro: " + invoice.number()).setFont(boldFont))
+                .add(new Paragraph("Date d'émission: " +
+                    (invoice.issueDate() != null ? invoice.issueDate().format(DATE_FORMATTER) : "N/A")))
+                .add(new Paragraph("Date d'échéance: " +
+                    (invoice.dueDate() != null ? invoice.dueDate().format(DATE_FORMATTER) : "N/A")))
+                .add(new Paragraph("Statut: " + invoice.status()))
+                .setBorder(null)
+                .setTextAlignment(TextAlignment.RIGHT);
+
+        headerTable.addCell(companyCell);
+        headerTable.addCell(invoiceInfoCell);
+
+        document.add(headerTable);
+        document.add(new Paragraph("\n"));
+    }
+
+    private void addClientInfo(Document document, ClientDto client, ProjectDto project, PdfFont font, PdfFont boldFont) {
+        Paragraph clientTitle = new Paragraph("FACTURÉ À:")
+                .setFont(boldFont)
+                .setFontSize(12);
+        document.add(clientTitle);
+
+        Paragraph clientInfo = new Paragraph("Client: " + client.contactName())
+                .setFont(font);
+        document.add(clientInfo);
+
+        // Ajout de l'adresse du client
+        if (client.billingAddress() != null) {
+            StringBuilder addressBuilder = new StringBuilder();
+            if (client.billingAddress().street() != null) {
+                addressBuilder.append(client.billingAddress().street());
+            }
+            if (client.billingAddress().zip() != null || client.billingAddress().city() != null) {
+                if (!addressBuilder.isEmpty()) {
+                    addressBuilder.append("\n");
+                }
+                if (client.billingAddress().zip() != null) {
+                    addressBuilder.append(client.billingAddress().zip()).append(" ");
+                }
+                if (client.billingAddress().city() != null) {
+                    addressBuilder.append(client.billingAddress().city());
+                }
+            }
+            if (client.billingAddress().country() != null) {
+                if (!addressBuilder.isEmpty()) {
+                    addressBuilder.append("\n");
+                }
+                addressBuilder.append(client.billingAddress().country());
+            }
+
+            if (!addressBuilder.isEmpty()) {
+                Paragraph clientAddress = new Paragraph(addressBuilder.toString())
+                        .setFont(font)
+                        .setMarginBottom(10);
+                document.add(clientAddress);
+            }
+        }
+
+        if (project != null) {
+            Paragraph projectInfo = new Paragraph("Projet: " + project.name())
+                    .setFont(font)
+                    .setMarginBottom(10);
+            document.add(projectInfo);
+        }
+
+        document.add(new Paragraph("\n"));
+    }
+
+    private void addInvoiceLines(Document document, InvoiceDto invoice, PdfFont font, PdfFont boldFont) {
+        if (invoice.lines() == null || invoice.lines().isEmpty()) {
+            return;
+        }
+
+        // Tableau des lignes
+        Table table = new Table(UnitValue.createPercentArray(LINE_COLUMNS))
+                .setWidth(UnitValue.createPercentValue(100));
+
+        // En-têtes
+        table.addHeaderCell(new Cell().add(new Paragraph("Désignation").setFont(boldFont)));
+        table.addHeaderCell(new Cell().add(new Paragraph("Qté").setFont(boldFont)).setTextAlignment(TextAlignment.RIGHT));
+        table.addHeaderCell(new Cell().add(new Paragraph("Unité").setFont(boldFont)).setTextAlignment(TextAlignment.CENTER));
+        table.addHeaderCell(new Cell().add(new Paragraph("Prix unit.").setFont(boldFont)).setTextAlignment(TextAlignment.RIGHT));
+        table.addHeaderCell(new Cell().add(new Paragraph("TVA %").setFont(boldFont)).setTextAlignment(TextAlignment.RIGHT));
+        table.addHeaderCell(new Cell().add(new Paragraph("Total HT").setFont(boldFont)).setTextAlignment(TextAlignment.RIGHT));
+
+        // Lignes de facture
+        for (InvoiceLineDto line : invoice.lines()) {
+            BigDecimal quantity = line.quantity() != null ? line.quantity() : BigDecimal.ONE;
+            BigDecimal unitPrice = line.unitPrice() != null ? line.unitPrice() : BigDecimal.ZERO;
+            BigDecimal lineTotal = quantity.multiply(unitPrice);
+
+            table.addCell(new Cell().add(new Paragraph(line.designation() != null ? line.designation() : "")).setFont(font));
+            table.addCell(new Cell().add(new Paragraph(quantity.toString())).setFont(font).setTextAlignment(TextAlignment.RIGHT));
+            table.addCell(new Cell().add(new Paragraph(line.unit() != null ? line.unit() : "")).setFont(font).setTextAlignment(TextAlignment.CENTER));
+            table.addCell(new Cell().add(new Paragraph(formatCurrency(unitPrice, invoice.currency()))).setFont(font).setTextAlignment(TextAlignment.RIGHT));
+            table.addCell(new Cell().add(new Paragraph(line.taxRate() != null ? line.taxRate() + "%" : "0%")).setFont(font).setTextAlignment(TextAlignment.RIGHT));
+            table.addCell(new Cell().add(new Paragraph(formatCurrency(lineTotal, invoice.currency()))).setFont(font).setTextAlignment(TextAlignment.RIGHT));
+        }
+
+        document.add(table);
+        document.add(new Paragraph("\n"));
+    }
+
+    private void addInvoiceTotals(Document document, InvoiceDto invoice, PdfFont font, PdfFont boldFont) {
+        // Tableau des totaux
+        Table totalsTable = new Table(UnitValue.createPercentArray(TOTALS_COLUMNS))
+                .setWidth(UnitValue.createPercentValue(100));
+
+        // Cellule vide à gauche
+        totalsTable.addCell(new Cell().setBorder(null));
+
+        // Cellule des totaux à droite
+        Cell totalsCell = new Cell()
+                .add(new Paragraph("Sous-total HT: " + formatCurrency(invoice.subtotal(), invoice.currency())).setFont(font))
+                .add(new Paragraph("TVA: " + formatCurrency(invoice.taxTotal(), invoice.currency())).setFont(font))
+                .add(new Paragraph("TOTAL TTC: " + formatCurrency(invoice.total(), invoice.currency())).setFont(boldFont).setFontSize(12))
+                .setBorder(null)
+                .setTextAlignment(TextAlignment.RIGHT);
+
+        totalsTable.addCell(totalsCell);
+
+        document.add(totalsTable);
+        document.add(new Paragraph("\n"));
+    }
+
+    private void addNotesAndLegalMentions(Document document, InvoiceDto invoice, StaticBlocks blocks,
+                                          PdfFont font, PdfFont boldFont) {
+        // Notes
+        if (invoice.notes() != null && !invoice.notes().trim().isEmpty()) {
+            Paragraph notesTitle = new Paragraph("Notes:")
+                    .setFont(boldFont)
+                    .setFontSize(10);
+            document.add(notesTitle);
+
+            Paragraph notes = new Paragraph(invoice.notes())
+                    .setFont(font)
+                    .setFontSize(9)
+                    .setMarginBottom(10);
+            document.add(notes);
+        }
+
+        // Mentions légales UNIQUEMENT depuis le TaxProfile
+        if (!blocks.legalMentions().isEmpty()) {
+            Paragraph legalTitle = new Paragraph("Mentions légales:")
+                    .setFont(boldFont)
+                    .setFontSize(10);
+            document.add(legalTitle);
+
+            for (String mention : blocks.legalMentions()) {
+                Paragraph legalMention = new Paragraph(mention)
+                        .setFont(font)
+                        .setFontSize(8);
+                document.add(legalMention);
+            }
+        }
+
+        // Conditions de paiement
+        if (invoice.paymentTerms() != null && !invoice.paymentTerms().trim().isEmpty()) {
+            Paragraph paymentTerms = new Paragraph("Conditions de paiement: " + invoice.paymentTerms())
+                    .setFont(font)
+                    .setFontSize(9)
+                    .setMarginTop(10);
+            document.add(paymentTerms);
+        }
+    }
+
+    private String formatCurrency(BigDecimal amount, String currency) {
+        if (amount == null) {
+            amount = BigDecimal.ZERO;
+        }
+        String currencySymbol = currency != null ? currency : "EUR";
+        return String.format("%.2f %s", amount, currencySymbol);
+    }
+
+    /**
+     * Fragments invariants d'un document à l'autre, immuables et partagés entre les threads de rendu.
+     */
+    private record StaticBlocks(CompanyDto issuer,
+                                TaxProfileDto taxProfile,
+                                String companyName,
+                                List<String> companyLines,
+                                List<String> legalMentions) {
+    }
+}
@@ -0,0 +1,22 @@
+package com.tcaputi.back.custody.invoice.application;
+
+import com.tcaputi.back.custody.client.interfaces.dto.ClientDto;
+import com.tcaputi.back.custody.client.interfaces.dto.CompanyDto;
+import com.tcaputi.back.custody.invoice.interfaces.dto.InvoiceDto;
+import com.tcaputi.back.custody.project.interfaces.dto.ProjectDto;
+import com.tcaputi.back.custody.tax.interfaces.dto.TaxProfileDto;
+
+/**
+ * Tout ce dont le rendu PDF d'une facture a besoin, chargé en amont du rendu.
+ * Le projet, l'émetteur et le profil fiscal sont optionnels.
+ */
+public record InvoiceRenderModel(InvoiceDto invoice,
+                                 ClientDto client,
+                                 ProjectDto project,
+                                 CompanyDto issuer,
+                                 TaxProfileDto taxProfile) {
+
+    public InvoiceRenderModel withIssuer(CompanyDto issuer, TaxProfileDto taxProfile) {
+        return new InvoiceRenderModel(invoice, client, project, issuer, taxProfile);
+    }
+}
@@ -0,0 +1,12 @@
+package com.tcaputi.back.custody.invoice.application;
+
+import java.time.Instant;
+import java.util.UUID;
+
+/**
+ * Dates de dernière écriture des entités rendues dans le PDF d'une facture : de quoi calculer l'ETag
+ * du document sans charger ni rendre la facture.
+ */
+public record InvoiceRenderStamp(UUID invoiceId, Instant invoiceUpdatedAt, Instant clientUpdatedAt,
+                                 Instant projectUpdatedAt) {
+}
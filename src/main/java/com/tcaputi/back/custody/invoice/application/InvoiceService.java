@@ -1,7 +1,18 @@
 package com.tcaputi.back.custody.invoice.application;
 
+import com.tcaputi.back.custody.analytics.application.RevenueContribution;
+import com.tcaputi.back.custody.analytics.application.RevenueRollupService;
+import com.tcaputi.back.custody.client.application.ClientService;
 import com.tcaputi.back.custody.client.domain.model.Client;
+import com.tcaputi.back.custody.client.infrastructure.ClientMapper;
 import com.tcaputi.back.custody.client.infrastructure.ClientRepository;
+import com.tcaputi.back.custody.common.dto.CursorPage;
+import com.tcaputi.back.custody.common.infrastructure.CursorCodec;
+import com.tcaputi.back.custody.common.infrastructure.ETags;
+import com.tcaputi.back.custody.common.pricing.PricingEngine;
+import com.tcaputi.back.custody.common.pricing.PricingResult;
+import com.tcaputi.back.custody.fx.application.ExchangeRateService;
+import com.tcaputi.back.custody.fx.application.ExchangeRateStamp;
 import com.tcaputi.back.custody.invoice.domain.model.Invoice;
 import com.tcaputi.back.custody.invoice.domain.model.InvoiceLine;
 import com.tcaputi.back.custody.invoice.domain.model.InvoiceStatus;
@@ -9,23 +20,37 @@ import com.tcaputi.back.custody.invoice.domain.model.InvoiceType;
 import com.tcaputi.back.custody.invoice.infrastructure.InvoiceLineMapper;
 import com.tcaputi.back.custody.invoice.infrastructure.InvoiceMapper;
 import com.tcaputi.back.custody.invoice.infrastructure.InvoiceRepository;
+import com.tcaputi.back.custody.invoice.interfaces.dto.InvoiceBatchItemResult;
+import com.tcaputi.back.custody.invoice.interfaces.dto.InvoiceBatchResponse;
 import com.tcaputi.back.custody.invoice.interfaces.dto.InvoiceDto;
+import com.tcaputi.back.custody.project.application.ProjectService;
 import com.tcaputi.back.custody.project.domain.model.Project;
+import com.tcaputi.back.custody.project.infrastructure.ProjectMapper;
 import com.tcaputi.back.custody.project.infrastructure.ProjectRepository;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Propagation;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.math.BigDecimal;
-import java.math.RoundingMode;
+import java.time.Instant;
 import java.time.LocalDate;
-import java.time.format.DateTimeFormatter;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.EnumMap;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
 import java.util.Optional;
+import java.util.Set;
 import java.util.UUID;
+import java.util.function.Function;
+import java.util.stream.Collectors;
 
 @Slf4j
 @Service
@@ -33,25 +58,77 @@ import java.util.UUID;
 @Transactional(readOnly = true)
 public class InvoiceService {
 
+    private static final int MAX_BATCH_SIZE = 5000;
+
     private final InvoiceRepository invoiceRepository;
     private final ClientRepository clientRepository;
     private final ProjectRepository projectRepository;
+    private final ClientService clientService;
+    private final ProjectService projectService;
     private final InvoiceMapper invoiceMapper;
     private final InvoiceLineMapper invoiceLineMapper;
     private final InvoiceNumberService invoiceNumberService;
+    private final ClientMapper clientMapper;
+    private final ProjectMapper projectMapper;
+    private final OverdueInvoiceCounter overdueInvoiceCounter;
+    private final RevenueRollupService revenueRollupService;
+    private final PricingEngine pricingEngine;
+    private final ExchangeRateService exchangeRateService;
 
     public Page<InvoiceDto> getInvoices(Integer page, Integer size) {
         Page<Invoice> invoices = invoiceRepository.findAll(PageRequest.of(page, size));
         return invoices.map(invoiceMapper::toDto);
     }
 
+    public CursorPage<InvoiceDto> getInvoicesByCursor(String cursor, int size, boolean withTotal) {
+        CursorPage.validateSize(size);
+        int limit = size + 1; // Une ligne de plus pour savoir s'il existe une page suivante
+
+        List<Invoice> invoices;
+        if (cursor == null) {
+            invoices = invoiceRepository.findFirstKeysetPage(limit);
+        } else {
+            CursorCodec.Cursor position = CursorCodec.decode(cursor);
+            invoices = position.key() == null
+                    ? invoiceRepository.findKeysetPageAfterUndated(position.id(), limit)
+                    : invoiceRepository.findKeysetPageAfter(position.dateKey(), position.id(), limit);
+        }
+
+        Long total = withTotal ? invoiceRepository.count() : null;
+        return CursorPage.of(invoices, size, invoiceMapper::toDto,
+                invoice -> CursorCodec.encode(Objects.toString(invoice.getIssueDate(), null), invoice.getId()), total);
+    }
+
     public Optional<InvoiceDto> getInvoiceById(UUID id) {
-        return invoiceRepository.findById(id)
+        return invoiceRepository.findDetailById(id)
                 .map(invoiceMapper::toDto);
     }
 
+    public Optional<String> getInvoiceETag(UUID id) {
+        return invoiceRepository.findStampById(id)
+                .map(stamp -> ETags.of(stamp.id(), stamp.updatedAt()));
+    }
+
+    public Optional<InvoiceRenderStamp> getInvoiceRenderStamp(UUID id) {
+        return invoiceRepository.findRenderStampById(id);
+    }
+
+    /**
+     * Charge la facture avec son client, son projet et ses lignes en une requête.
+     * L'émetteur et le profil fiscal ne sont pas renseignés : le service PDF les prend dans l'instantané émetteur.
+     */
+    public Optional<InvoiceRenderModel> getInvoiceRenderModel(UUID id) {
+        return invoiceRepository.findForRenderingById(id)
+                .map(invoice -> new InvoiceRenderModel(
+                        invoiceMapper.toDto(invoice),
+                        clientMapper.toDto(invoice.getClient()),
+                        invoice.getProject() != null ? projectMapper.toDto(invoice.getProject()) : null,
+                        null,
+                        null));
+    }
+
     public int getOverdueInvoiceCount() {
-        return invoiceRepository.countOverdueInvoices(LocalDate.now());
+        return overdueInvoiceCounter.get();
     }
 
     public List<InvoiceDto> getInvoicesByClient(UUID clientId) {
@@ -95,7 +172,7 @@ public class InvoiceService {
 
     public List<InvoiceDto> getOverdueInvoices() {
         log.debug("Récupération des factures en retard");
-        List<Invoice> invoices = invoiceRepository.findOverdueInvoices(LocalDate.now());
+        List<Invoice> invoices = invoiceRepository.findByStatus(InvoiceStatus.OVERDUE);
         return invoices.stream()
                 .map(invoiceMapper::toDto)
                 .toList();
@@ -106,12 +183,12 @@ public class InvoiceService {
         log.debug("Création d'une nouvelle facture : {}", dto.number());
 
         // Validation du client
-        if (!clientRepository.existsById(dto.clientId())) {
+        if (clientService.getClientById(dto.clientId()).isEmpty()) {
             throw new IllegalArgumentException("Le client avec l'ID " + dto.clientId() + " n'existe pas");
         }
 
         // Validation du projet (optionnel)
-        if (dto.projectId() != null && !projectRepository.existsById(dto.projectId())) {
+        if (dto.projectId() != null && projectService.getProjectById(dto.projectId()).isEmpty()) {
             throw new IllegalArgumentException("Le projet avec l'ID " + dto.projectId() + " n'existe pas");
         }
 
@@ -134,19 +211,16 @@ public class InvoiceService {
             if (invoiceRepository.existsByNumber(entity.getNumber())) {
                 throw new IllegalArgumentException("Une facture avec le numéro " + entity.getNumber() + " existe déjà");
             }
+            invoiceNumberService.reserveManualNumbers(List.of(entity.getNumber()));
         }
 
         // Validation des dates
         validateInvoiceDates(dto);
 
-        // Assignation du client
-        Client client = clientRepository.findById(dto.clientId()).orElseThrow();
-        entity.setClient(client);
-
-        // Assignation du projet si présent
+        // Assignation du client et du projet, dont l'existence est déjà vérifiée
+        entity.setClient(clientRepository.getReferenceById(dto.clientId()));
         if (dto.projectId() != null) {
-            Project project = projectRepository.findById(dto.projectId()).orElseThrow();
-            entity.setProject(project);
+            entity.setProject(projectRepository.getReferenceById(dto.projectId()));
         }
 
         // Gestion des lignes de facture
@@ -161,13 +235,89 @@ public class InvoiceService {
 
         // Calcul automatique des totaux
         calculateTotals(entity);
+        settleIfPaid(entity);
+        stampExchangeRate(entity);
 
         Invoice savedInvoice = invoiceRepository.save(entity);
+        overdueInvoiceCounter.onStatusChange(null, savedInvoice.getStatus());
+        revenueRollupService.applyChange(null, RevenueContribution.of(savedInvoice));
 
         log.info("Facture créée avec l'ID : {} et le numéro : {}", savedInvoice.getId(), savedInvoice.getNumber());
         return invoiceMapper.toDto(savedInvoice);
     }
 
+    /**
+     * Crée un lot de factures en une transaction.
+     * Clients, projets et numéros existants sont vérifiés en une requête chacun ; les factures invalides
+     * sont écartées avec leur erreur, les autres reçoivent un bloc de numéros puis sont insérées par lots JDBC.
+     */
+    @Transactional
+    public InvoiceBatchResponse createInvoices(List<InvoiceDto> dtos) {
+        if (dtos.size() > MAX_BATCH_SIZE) {
+            throw new IllegalArgumentException("Un lot ne peut pas dépasser " + MAX_BATCH_SIZE + " factures");
+        }
+        log.debug("Création d'un lot de {} facture(s)", dtos.size());
+
+        Map<UUID, Client> clients = clientRepository.findAllById(collectIds(dtos, InvoiceDto::clientId)).stream()
+                .collect(Collectors.toMap(Client::getId, Function.identity()));
+        Map<UUID, Project> projects = projectRepository.findAllById(collectIds(dtos, InvoiceDto::projectId)).stream()
+                .collect(Collectors.toMap(Project::getId, Function.identity()));
+
+        Set<String> requestedNumbers = dtos.stream()
+                .map(InvoiceDto::number)
+                .map(this::cleanParameter)
+                .filter(Objects::nonNull)
+                .collect(Collectors.toSet());
+        Set<String> takenNumbers = requestedNumbers.isEmpty()
+                ? new HashSet<>()
+                : new HashSet<>(invoiceRepository.findExistingNumbers(requestedNumbers));
+
+        InvoiceBatchItemResult[] results = new InvoiceBatchItemResult[dtos.size()];
+        Map<Integer, Invoice> accepted = new LinkedHashMap<>();
+
+        for (int index = 0; index < dtos.size(); index++) {
+            InvoiceDto dto = dtos.get(index);
+            try {
+                accepted.put(index, prepareBatchInvoice(dto, clients, projects, takenNumbers));
+            } catch (IllegalArgumentException e) {
+                results[index] = InvoiceBatchItemResult.failed(index, e.getMessage());
+            }
+        }
+
+        // Numéros saisis et blocs à allouer (uniquement pour les factures retenues, sans trou) en un appel :
+        // les séquences sont verrouillées une fois chacune, dans un ordre fixe
+        List<String> manualNumbers = accepted.values().stream()
+                .map(Invoice::getNumber)
+                .filter(Objects::nonNull)
+                .toList();
+        Map<InvoiceType, List<Invoice>> toNumber = accepted.values().stream()
+                .filter(invoice -> invoice.getNumber() == null)
+                .collect(Collectors.groupingBy(invoice -> invoice.getType().getSequenceType(),
+                        () -> new EnumMap<InvoiceType, List<Invoice>>(InvoiceType.class), Collectors.toList()));
+        if (!manualNumbers.isEmpty() || !toNumber.isEmpty()) {
+            Map<InvoiceType, Integer> counts = new EnumMap<>(InvoiceType.class);
+            toNumber.forEach((sequenceType, invoices) -> counts.put(sequenceType, invoices.size()));
+            Map<InvoiceType, List<String>> numbers = invoiceNumberService.numberBatch(manualNumbers, counts);
+            toNumber.forEach((sequenceType, invoices) -> {
+                List<String> allocated = numbers.get(sequenceType);
+                for (int i = 0; i < invoices.size(); i++) {
+                    invoices.get(i).setNumber(allocated.get(i));
+                }
+            });
+        }
+
+        invoiceRepository.saveAll(accepted.values());
+        accepted.values().forEach(invoice -> {
+            overdueInvoiceCounter.onStatusChange(null, invoice.getStatus());
+            revenueRollupService.applyChange(null, RevenueContribution.of(invoice));
+        });
+
+        accepted.forEach((index, invoice) ->
+                results[index] = InvoiceBatchItemResult.created(index, invoice.getId(), invoice.getNumber()));
+
+        log.info("Lot de factures traité : {} créée(s), {} rejetée(s)", accepted.size(), dtos.size() - accepted.size());
+        return new InvoiceBatchResponse(accepted.size(), dtos.size() - accepted.size(), Arrays.asList(results));
+    }
 
     @Transactional
     public boolean deleteInvoice(UUID id) {
@@ -210,12 +360,12 @@ public class InvoiceService {
         }
 
         // Validation du client
-        if (!clientRepository.existsById(dto.clientId())) {
+        if (clientService.getClientById(dto.clientId()).isEmpty()) {
             throw new IllegalArgumentException("Le client avec l'ID " + dto.clientId() + " n'existe pas");
         }
 
         // Validation du projet (optionnel)
-        if (dto.projectId() != null && !projectRepository.existsById(dto.projectId())) {
+        if (dto.projectId() != null && projectService.getProjectById(dto.projectId()).isEmpty()) {
             throw new IllegalArgumentException("Le projet avec l'ID " + dto.projectId() + " n'existe pas");
         }
 
@@ -223,6 +373,9 @@ public class InvoiceService {
         if (dto.number() != null && invoiceRepository.existsByNumberAndIdNot(dto.number(), id)) {
             throw new IllegalArgumentException("Une autre facture avec le numéro " + dto.number() + " existe déjà");
         }
+        if (dto.number() != null && !dto.number().equals(existingInvoice.getNumber())) {
+            invoiceNumberService.reserveManualNumbers(List.of(dto.number()));
+        }
 
         // Validation des dates
         validateInvoiceDates(dto);
@@ -232,14 +385,10 @@ public class InvoiceService {
         Invoice entity = invoiceMapper.toEntity(dto);
         entity.setId(id); // S'assurer que l'ID est préservé
         
-        // Assignation du client
-        Client client = clientRepository.findById(dto.clientId()).orElseThrow();
-        entity.setClient(client);
-
-        // Assignation du projet si présent
+        // Assignation du client et du projet, dont l'existence est déjà vérifiée
+        entity.setClient(clientRepository.getReferenceById(dto.clientId()));
         if (dto.projectId() != null) {
-            Project project = projectRepository.findById(dto.projectId()).orElseThrow();
-            entity.setProject(project);
+            entity.setProject(projectRepository.getReferenceById(dto.projectId()));
         }
 
         // Gestion des lignes de facture
@@ -253,10 +402,20 @@ public class InvoiceService {
             entity.getLines().addAll(lines);
         }
 
-        // Recalcul des totaux
+        // Recalcul des totaux, les paiements déjà reçus restent acquis
+        entity.setPaidAmount(existingInvoice.getPaidAmount());
         calculateTotals(entity);
+        if (entity.getOutstandingAmount().signum() < 0) {
+            throw new IllegalArgumentException("Le total de la facture ne peut pas être inférieur aux paiements reçus");
+        }
+        settleIfPaid(entity);
+        entity.setUpdatedAt(Instant.now()); // Une modification des seules lignes ne touche pas la ligne de la facture
 
+        InvoiceStatus previousStatus = existingInvoice.getStatus();
+        RevenueContribution previousContribution = RevenueContribution.of(existingInvoice);
         Invoice updatedInvoice = invoiceRepository.save(entity);
+        overdueInvoiceCounter.onStatusChange(previousStatus, updatedInvoice.getStatus());
+        revenueRollupService.applyChange(previousContribution, RevenueContribution.of(updatedInvoice));
         
         return Optional.of(invoiceMapper.toDto(updatedInvoice));
     }
@@ -271,15 +430,162 @@ public class InvoiceService {
         Invoice invoice = invoiceOpt.get();
         validateStatusTransition(invoice.getStatus(), newStatus);
         
+        InvoiceStatus previousStatus = invoice.getStatus();
+        RevenueContribution previousContribution = RevenueContribution.of(invoice);
         invoice.setStatus(newStatus);
+        settleIfPaid(invoice); // Règlement constaté hors paiement enregistré : la facture est soldée
         Invoice updatedInvoice = invoiceRepository.save(invoice);
+        overdueInvoiceCounter.onStatusChange(previousStatus, newStatus);
+        revenueRollupService.applyChange(previousContribution, RevenueContribution.of(updatedInvoice));
         
-        log.info("Statut de la facture {} changé de {} à {}", invoice.getNumber(), invoice.getStatus(), newStatus);
+        log.info("Statut de la facture {} changé de {} à {}", invoice.getNumber(), previousStatus, newStatus);
         return Optional.of(invoiceMapper.toDto(updatedInvoice));
     }
 
+    /**
+     * Verrouille la facture jusqu'à la fin de la transaction appelante, pour imputer un paiement.
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public Optional<Invoice> lockInvoiceForPayment(UUID id) {
+        return invoiceRepository.findByIdForUpdate(id);
+    }
+
+    /**
+     * Motif pour lequel le paiement ne peut pas être imputé sur la facture, vide s'il peut l'être.
+     * Permet de vérifier une facture verrouillée sans faire échouer la transaction appelante.
+     */
+    public Optional<String> getPaymentRejection(Invoice invoice, BigDecimal amount) {
+        if (invoice.getStatus() == InvoiceStatus.DRAFT || invoice.getStatus() == InvoiceStatus.CANCELLED) {
+            return Optional.of("Un paiement ne peut être enregistré que sur une facture émise");
+        }
+        if (invoice.getStatus() == InvoiceStatus.PAID) {
+            return Optional.of("La facture " + invoice.getNumber() + " est déjà soldée");
+        }
+        BigDecimal outstanding = outstandingOf(invoice);
+        if (amount.compareTo(outstanding) > 0) {
+            return Optional.of("Le paiement de " + amount + " dépasse le reste à payer de " + outstanding
+                    + " sur la facture " + invoice.getNumber());
+        }
+        return Optional.empty();
+    }
+
+    /**
+     * Factures restant à encaisser, pour le rapprochement des relevés bancaires.
+     */
+    public List<OpenInvoiceRef> getOpenInvoiceRefs() {
+        return invoiceRepository.findOpenInvoiceRefs(
+                List.of(InvoiceStatus.SENT, InvoiceStatus.PARTIALLY_PAID, InvoiceStatus.OVERDUE));
+    }
+
+    /**
+     * Impute un paiement, converti dans la devise de la facture, sur ses soldes et fait évoluer son statut
+     * (PARTIALLY_PAID, puis PAID une fois soldée) selon les transitions autorisées ; une facture OVERDUE
+     * partiellement réglée reste OVERDUE.
+     * La facture doit avoir été verrouillée par {@link #lockInvoiceForPayment(UUID)}.
+     */
+    @Transactional(propagation = Propagation.MANDATORY)
+    public Invoice applyPayment(Invoice invoice, BigDecimal amount) {
+        getPaymentRejection(invoice, amount).ifPresent(reason -> {
+            throw new IllegalStateException(reason);
+        });
+
+        BigDecimal outstanding = outstandingOf(invoice);
+        BigDecimal paid = invoice.getPaidAmount() != null ? invoice.getPaidAmount() : BigDecimal.ZERO;
+        InvoiceStatus previousStatus = invoice.getStatus();
+        InvoiceStatus newStatus;
+        if (outstanding.subtract(amount).signum() == 0) {
+            newStatus = InvoiceStatus.PAID;
+        } else if (previousStatus == InvoiceStatus.OVERDUE) {
+            // Toujours échue : la repasser en PARTIALLY_PAID la ferait rebasculer en OVERDUE au prochain passage du job
+            newStatus = InvoiceStatus.OVERDUE;
+        } else {
+            newStatus = InvoiceStatus.PARTIALLY_PAID;
+        }
+        if (newStatus != previousStatus) {
+            validateStatusTransition(previousStatus, newStatus);
+        }
+
+        RevenueContribution previousContribution = RevenueContribution.of(invoice);
+        invoice.setPaidAmount(paid.add(amount));
+        invoice.setOutstandingAmount(outstanding.subtract(amount));
+        invoice.setStatus(newStatus);
+        overdueInvoiceCounter.onStatusChange(previousStatus, newStatus);
+        revenueRollupService.applyChange(previousContribution, RevenueContribution.of(invoice));
+
+        log.info("Paiement de {} imputé sur la facture {} : reste à payer {}, statut {}",
+                amount, invoice.getNumber(), invoice.getOutstandingAmount(), newStatus);
+        return invoice;
+    }
+
     // Méthodes privées utilitaires
 
+    private Invoice prepareBatchInvoice(InvoiceDto dto, Map<UUID, Client> clients, Map<UUID, Project> projects,
+                                        Set<String> takenNumbers) {
+        Client client = dto.clientId() != null ? clients.get(dto.clientId()) : null;
+        if (client == null) {
+            throw new IllegalArgumentException("Le client avec l'ID " + dto.clientId() + " n'existe pas");
+        }
+
+        Project project = null;
+        if (dto.projectId() != null) {
+            project = projects.get(dto.projectId());
+            if (project == null) {
+                throw new IllegalArgumentException("Le projet avec l'ID " + dto.projectId() + " n'existe pas");
+            }
+        }
+
+        String number = cleanParameter(dto.number());
+        if (number != null) {
+            if (!invoiceNumberService.isValidInvoiceNumber(number)) {
+                throw new IllegalArgumentException("Le format du numéro de facture ne respecte pas la réglementation française");
+            }
+            // Couvre aussi les doublons au sein du lot
+            if (takenNumbers.contains(number)) {
+                throw new IllegalArgumentException("Une facture avec le numéro " + number + " existe déjà");
+            }
+        }
+
+        validateInvoiceDates(dto);
+
+        Invoice entity = invoiceMapper.toEntity(dto);
+        entity.setId(null); // Toujours une création : évite un merge par facture
+        entity.setNumber(number);
+        if (entity.getType() == null) {
+            entity.setType(InvoiceType.FACTURE);
+        }
+        entity.setClient(client);
+        entity.setProject(project);
+
+        if (dto.lines() != null && !dto.lines().isEmpty()) {
+            List<InvoiceLine> lines = dto.lines().stream()
+                    .map(invoiceLineMapper::toEntity)
+                    .toList();
+
+            lines.forEach(line -> {
+                line.setId(null);
+                line.setInvoice(entity);
+            });
+            entity.setLines(new ArrayList<>(lines));
+        }
+
+        calculateTotals(entity);
+        settleIfPaid(entity);
+        stampExchangeRate(entity);
+
+        // Numéro réservé seulement une fois la facture retenue : un rejet ne doit pas le bloquer pour la suite du lot
+        if (number != null) {
+            takenNumbers.add(number);
+        }
+        return entity;
+    }
+
+    private Set<UUID> collectIds(List<InvoiceDto> dtos, Function<InvoiceDto, UUID> idExtractor) {
+        return dtos.stream()
+                .map(idExtractor)
+                .filter(Objects::nonNull)
+                .collect(Collectors.toSet());
+    }
+
     private void validateInvoiceDates(InvoiceDto dto) {
         LocalDate now = LocalDate.now();
         
@@ -321,58 +627,46 @@ public class InvoiceService {
         }
     }
 
-    private void calculateTotals(Invoice invoice) {
-        if (invoice.getLines() == null || invoice.getLines().isEmpty()) {
-            invoice.setSubtotal(BigDecimal.ZERO);
-            invoice.setTaxTotal(BigDecimal.ZERO);
-            invoice.setTotal(BigDecimal.ZERO);
+    /**
+     * Fige le taux de change du jour d'émission, sauf taux convenu fourni avec la facture.
+     */
+    private void stampExchangeRate(Invoice invoice) {
+        if (invoice.getExchangeRateValue() != null) {
             return;
         }
-
-        BigDecimal subtotal = BigDecimal.ZERO;
-        BigDecimal taxTotal = BigDecimal.ZERO;
-
-        for (InvoiceLine line : invoice.getLines()) {
-            BigDecimal lineAmount = calculateLineAmount(line);
-            BigDecimal lineDiscount = calculateLineDiscount(line, lineAmount);
-            BigDecimal lineNetAmount = lineAmount.subtract(lineDiscount);
-            BigDecimal lineTax = calculateLineTax(line, lineNetAmount);
-
-            subtotal = subtotal.add(lineNetAmount);
-            taxTotal = taxTotal.add(lineTax);
-        }
-
-        invoice.setSubtotal(subtotal.setScale(2, RoundingMode.HALF_UP));
-        invoice.setTaxTotal(taxTotal.setScale(2, RoundingMode.HALF_UP));
-        invoice.setTotal(subtotal.add(taxTotal).setScale(2, RoundingMode.HALF_UP));
-    }
-
-    private BigDecimal calculateLineAmount(InvoiceLine line) {
-        BigDecimal quantity = line.getQuantity() != null ? line.getQuantity() : BigDecimal.ONE;
-        BigDecimal unitPrice = line.getUnitPrice() != null ? line.getUnitPrice() : BigDecimal.ZERO;
-        return quantity.multiply(unitPrice);
+        ExchangeRateStamp stamp = exchangeRateService.stamp(invoice.getCurrency(),
+                invoice.getIssueDate() != null ? invoice.getIssueDate() : LocalDate.now());
+        invoice.setExchangeRateProvider(stamp.provider());
+        invoice.setExchangeRateValue(stamp.value());
     }
 
-    private BigDecimal calculateLineDiscount(InvoiceLine line, BigDecimal lineAmount) {
-        BigDecimal discount = line.getDiscount() != null ? line.getDiscount() : BigDecimal.ZERO;
-        return lineAmount.multiply(discount).divide(BigDecimal.valueOf(100), 2, RoundingMode.HALF_UP);
+    private void calculateTotals(Invoice invoice) {
+        PricingResult pricing = pricingEngine.price(invoice.getLines());
+        invoice.setSubtotal(pricing.subtotal());
+        invoice.setTaxTotal(pricing.taxTotal());
+        invoice.setTotal(pricing.total());
+
+        BigDecimal paid = invoice.getPaidAmount() != null ? invoice.getPaidAmount() : BigDecimal.ZERO;
+        invoice.setPaidAmount(paid);
+        invoice.setOutstandingAmount(pricing.total().subtract(paid));
     }
 
-    private BigDecimal calculateLineTax(InvoiceLine line, BigDecimal lineNetAmount) {
-        BigDecimal taxRate = line.getTaxRate() != null ? line.getTaxRate() : BigDecimal.ZERO;
-        return lineNetAmount.multiply(taxRate).divide(BigDecimal.valueOf(100), 2, RoundingMode.HALF_UP);
+    /**
+     * Une facture PAID est soldée quelle que soit la façon dont elle l'est devenue (création, statut manuel).
+     */
+    private void settleIfPaid(Invoice invoice) {
+        if (invoice.getStatus() == InvoiceStatus.PAID && invoice.getTotal() != null) {
+            invoice.setPaidAmount(invoice.getTotal());
+            invoice.setOutstandingAmount(BigDecimal.ZERO);
+        }
     }
 
-    private String generateInvoiceNumber() {
-        LocalDate now = LocalDate.now();
-        String datePrefix = now.format(DateTimeFormatter.ofPattern("yyyy-MM"));
-        
-        // Recherche du dernier numéro pour ce mois
-        String pattern = "INV-" + datePrefix + "-%";
-        
-        // Cette requête nécessiterait une méthode dans le repository
-        // Pour simplifier, on génère un numéro basique
-        return "INV-" + datePrefix + "-" + String.format("%03d", System.currentTimeMillis() % 1000);
+    private BigDecimal outstandingOf(Invoice invoice) {
+        if (invoice.getOutstandingAmount() != null) {
+            return invoice.getOutstandingAmount();
+        }
+        BigDecimal total = invoice.getTotal() != null ? invoice.getTotal() : BigDecimal.ZERO;
+        return invoice.getPaidAmount() != null ? total.subtract(invoice.getPaidAmount()) : total;
     }
 
     private String cleanParameter(String parameter) {
@@ -0,0 +1,11 @@
+package com.tcaputi.back.custody.invoice.application;
+
+import java.math.BigDecimal;
+import java.util.UUID;
+
+/**
+ * Facture restant à encaisser, réduite à ce qu'il faut pour la rapprocher d'une ligne de relevé bancaire.
+ */
+public record OpenInvoiceRef(UUID id, String number, UUID clientId, String clientName, String currency,
+                             BigDecimal outstandingAmount) {
+}
@@ -0,0 +1,63 @@
+package com.tcaputi.back.custody.invoice.application;
+
+import com.tcaputi.back.custody.invoice.domain.model.InvoiceStatus;
+import com.tcaputi.back.custody.invoice.infrastructure.InvoiceRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Nombre de factures au statut OVERDUE, tenu en mémoire pour le tableau de bord.
+ * Ajusté après commit à chaque changement de statut sur cette instance,
+ * et recalé périodiquement sur la base pour intégrer les modifications des autres instances.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class OverdueInvoiceCounter {
+
+    private final InvoiceRepository invoiceRepository;
+    private final AtomicInteger count = new AtomicInteger();
+
+    public int get() {
+        return count.get();
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    @Scheduled(fixedDelayString = "${custody.invoice.overdue.counter-resync:PT5M}",
+            initialDelayString = "${custody.invoice.overdue.counter-resync:PT5M}")
+    public void resync() {
+        int overdue = invoiceRepository.countByStatus(InvoiceStatus.OVERDUE).intValue();
+        count.set(overdue);
+        log.debug("Compteur de factures en retard recalé : {}", overdue);
+    }
+
+    /**
+     * Enregistre un changement de statut ; appliqué uniquement si la transaction en cours est validée.
+     */
+    public void onStatusChange(InvoiceStatus previous, InvoiceStatus current) {
+        int delta = (current == InvoiceStatus.OVERDUE ? 1 : 0) - (previous == InvoiceStatus.OVERDUE ? 1 : 0);
+        if (delta == 0) {
+            return;
+        }
+
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            count.addAndGet(delta);
+            return;
+        }
+
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                count.addAndGet(delta);
+            }
+        });
+    }
+}
@@ -0,0 +1,47 @@
+package com.tcaputi.back.custody.invoice.application;
+
+import com.tcaputi.back.custody.invoice.infrastructure.InvoiceRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDate;
+
+/**
+ * Passe au statut OVERDUE les factures envoyées ou partiellement payées dont l'échéance est dépassée.
+ * Une requête UPDATE par lot, chacune dans sa propre transaction ; les lignes verrouillées
+ * par une autre instance sont ignorées, le job peut donc tourner sur plusieurs nœuds.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class OverdueInvoiceJob {
+
+    private final InvoiceRepository invoiceRepository;
+    private final OverdueInvoiceCounter overdueInvoiceCounter;
+
+    @Value("${custody.invoice.overdue.chunk-size:500}")
+    private int chunkSize;
+
+    @EventListener(ApplicationReadyEvent.class)
+    @Scheduled(cron = "${custody.invoice.overdue.cron:0 5 0 * * *}")
+    public void markOverdueInvoices() {
+        LocalDate today = LocalDate.now();
+        int total = 0;
+        int updated;
+        do {
+            updated = invoiceRepository.markOverdueChunk(today, chunkSize);
+            total += updated;
+        } while (updated == chunkSize);
+
+        overdueInvoiceCounter.resync();
+
+        if (total > 0) {
+            log.info("{} facture(s) passée(s) au statut OVERDUE", total);
+        }
+    }
+}
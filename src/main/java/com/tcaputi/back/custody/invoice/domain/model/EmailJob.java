@@ -0,0 +1,54 @@
+package com.tcaputi.back.custody.invoice.domain.model;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.time.Instant;
+import java.util.UUID;
+
+/**
+ * Email enregistré dans la transaction de la demande puis envoyé par le répartiteur (outbox).
+ * La pièce jointe PDF n'est pas stockée : elle est générée au moment de l'envoi à partir de la facture.
+ */
+@Entity
+@Builder
+@Setter
+@Getter
+@NoArgsConstructor
+@AllArgsConstructor
+@Table(name = "email_jobs", indexes = @Index(name = "idx_email_jobs_status_next_attempt", columnList = "status, nextAttemptAt"))
+public class EmailJob {
+    @Id
+    @GeneratedValue(strategy = GenerationType.UUID)
+    private UUID id;
+
+    private UUID invoiceId; // Facture jointe en PDF, facultative
+
+    @Column(nullable = false)
+    private String recipient;
+
+    private String subject;
+
+    @Column(columnDefinition = "TEXT")
+    private String body;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false)
+    private EmailJobStatus status;
+
+    @Column(nullable = false)
+    private int attempts;
+
+    @Column(nullable = false)
+    private Instant nextAttemptAt;
+
+    private Instant lockedUntil; // Bail de l'instance en cours d'envoi, repris par une autre s'il expire
+
+    @Column(columnDefinition = "TEXT")
+    private String lastError;
+
+    @Column(nullable = false)
+    private Instant createdAt;
+
+    private Instant sentAt;
+}
@@ -0,0 +1,13 @@
+package com.tcaputi.back.custody.invoice.domain.model;
+
+/**
+ * Statut d’un email en attente d’envoi.
+ * PENDING -> SENDING -> SENT ; en cas d’échec temporaire retour à PENDING avec une nouvelle échéance,
+ * FAILED après le dernier essai ou sur une erreur définitive (adresse refusée, facture introuvable).
+ */
+public enum EmailJobStatus {
+    PENDING,
+    SENDING,
+    SENT,
+    FAILED
+}
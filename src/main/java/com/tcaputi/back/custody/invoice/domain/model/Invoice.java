@@ -6,6 +6,7 @@ import jakarta.persistence.*;
 import lombok.*;
 
 import java.math.BigDecimal;
+import java.time.Instant;
 import java.time.LocalDate;
 import java.util.ArrayList;
 import java.util.List;
@@ -17,7 +18,11 @@ import java.util.UUID;
 @Getter
 @NoArgsConstructor
 @AllArgsConstructor
-@Table(name = "invoices")
+@Table(name = "invoices", indexes = {
+        @Index(name = "idx_invoices_issue_date_id", columnList = "issueDate, id"),
+        @Index(name = "idx_invoices_status_due_date", columnList = "status, dueDate"),
+        @Index(name = "idx_invoices_status_client_id", columnList = "status, client_id, id")
+})
 public class Invoice {
     @Id
     @GeneratedValue(strategy = GenerationType.UUID)
@@ -30,10 +35,10 @@ public class Invoice {
     @Column(nullable = false)
     private InvoiceType type; // Nouveau champ
 
-    @ManyToOne(optional = false)
+    @ManyToOne(fetch = FetchType.LAZY, optional = false)
     private Client client;
 
-    @ManyToOne
+    @ManyToOne(fetch = FetchType.LAZY)
     private Project project;
 
     private LocalDate issueDate;
@@ -51,6 +56,10 @@ public class Invoice {
     private BigDecimal taxTotal;
     private BigDecimal total;
 
+    // Cumul des paiements et reste à payer, en devise de la facture : tenus à jour à chaque paiement
+    private BigDecimal paidAmount;
+    private BigDecimal outstandingAmount;
+
     private String paymentTerms;
     private BigDecimal lateFeeRate;
     private BigDecimal collectionFeeEUR;
@@ -63,5 +72,13 @@ public class Invoice {
 
     @ElementCollection
     private List<String> legalMentions = new ArrayList<>();
+
+    private Instant updatedAt; // Base des ETags, mise à jour à chaque écriture de l'entité
+
+    @PrePersist
+    @PreUpdate
+    void touch() {
+        updatedAt = Instant.now();
+    }
 }
 
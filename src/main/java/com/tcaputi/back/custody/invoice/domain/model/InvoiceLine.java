@@ -1,5 +1,6 @@
 package com.tcaputi.back.custody.invoice.domain.model;
 
+import com.tcaputi.back.custody.common.pricing.PricedLine;
 import jakarta.persistence.*;
 import lombok.*;
 
@@ -13,12 +14,12 @@ import java.util.UUID;
 @NoArgsConstructor
 @AllArgsConstructor
 @Table(name = "invoice_lines")
-public class InvoiceLine {
+public class InvoiceLine implements PricedLine {
     @Id
     @GeneratedValue(strategy = GenerationType.UUID)
     private UUID id;
 
-    @ManyToOne(optional = false)
+    @ManyToOne(fetch = FetchType.LAZY, optional = false)
     private Invoice invoice;
 
     private String designation;
@@ -26,5 +27,5 @@ public class InvoiceLine {
     private String unit;
     private BigDecimal unitPrice;
     private BigDecimal taxRate;
-    private BigDecimal discount;
+    private BigDecimal discount; // Pourcentage du montant de la ligne
 }
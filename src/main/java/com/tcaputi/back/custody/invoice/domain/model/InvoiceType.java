@@ -14,4 +14,14 @@ public enum InvoiceType {
     InvoiceType(String prefix) {
         this.prefix = prefix;
     }
+
+    /**
+     * Les types qui partagent un préfixe partagent la même séquence de numérotation.
+     */
+    public InvoiceType getSequenceType() {
+        return switch (this) {
+            case FACTURE, FACTURE_FINALE -> FACTURE;
+            case ACOMPTE, AVOIR -> AVOIR;
+        };
+    }
 }
@@ -0,0 +1,42 @@
+package com.tcaputi.back.custody.invoice.infrastructure;
+
+import com.tcaputi.back.custody.invoice.domain.model.EmailJob;
+import com.tcaputi.back.custody.invoice.domain.model.EmailJobStatus;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.Instant;
+import java.util.Collection;
+import java.util.List;
+import java.util.UUID;
+
+@Repository
+public interface EmailJobRepository extends JpaRepository<EmailJob, UUID> {
+
+    // Emails à envoyer : échéance atteinte, ou bail expiré (instance arrêtée pendant l'envoi).
+    // Les lignes verrouillées par une autre instance sont ignorées.
+    @Query(value = """
+            SELECT * FROM email_jobs e
+            WHERE (e.status = 'PENDING' AND e.next_attempt_at <= :now)
+               OR (e.status = 'SENDING' AND e.locked_until < :now)
+            ORDER BY e.next_attempt_at
+            LIMIT :limit
+            FOR UPDATE SKIP LOCKED
+            """, nativeQuery = true)
+    List<EmailJob> lockDispatchable(@Param("now") Instant now, @Param("limit") int limit);
+
+    @Modifying
+    @Query("UPDATE EmailJob e SET e.status = :status, e.sentAt = :sentAt, e.lockedUntil = null, e.lastError = null " +
+           "WHERE e.id IN :ids")
+    int markSent(@Param("ids") Collection<UUID> ids, @Param("sentAt") Instant sentAt,
+                 @Param("status") EmailJobStatus status);
+
+    @Modifying
+    @Query("UPDATE EmailJob e SET e.status = :status, e.nextAttemptAt = :nextAttemptAt, e.lockedUntil = null, " +
+           "e.lastError = :error WHERE e.id = :id")
+    int markAttemptFailed(@Param("id") UUID id, @Param("status") EmailJobStatus status,
+                          @Param("nextAttemptAt") Instant nextAttemptAt, @Param("error") String error);
+}
@@ -6,12 +6,14 @@ import jakarta.mail.internet.MimeMessage;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.beans.factory.annotation.Value;
-import org.springframework.core.io.ByteArrayResource;
+import org.springframework.core.io.FileSystemResource;
 import org.springframework.mail.javamail.JavaMailSender;
 import org.springframework.mail.javamail.MimeMessageHelper;
 import org.springframework.stereotype.Service;
 
 import java.io.UnsupportedEncodingException;
+import java.nio.file.Path;
+import java.util.Collection;
 
 @Slf4j
 @Service
@@ -26,30 +28,40 @@ public class EmailService {
     @Value("${spring.mail.from-name}")
     private String fromName;
 
-    public void sendInvoiceByEmail(String to, String subject, String body, byte[] invoicePdf, String invoiceNumber) {
+    /**
+     * Prépare un email, avec la facture en pièce jointe si un PDF est fourni ;
+     * le PDF est lu depuis le fichier au moment de l'envoi.
+     */
+    public MimeMessage createInvoiceMessage(String to, String subject, String body, Path invoicePdf, String invoiceNumber) {
         try {
             MimeMessage message = javaMailSender.createMimeMessage();
-            MimeMessageHelper helper = new MimeMessageHelper(message, true, "UTF-8");
+            MimeMessageHelper helper = new MimeMessageHelper(message, invoicePdf != null, "UTF-8");
 
             helper.setFrom(from, fromName);
             helper.setTo(to);
             helper.setSubject(subject);
             helper.setText(body, false); // true = HTML
 
-            // Ajout du PDF en pièce jointe
-            String filename = "facture-" + invoiceNumber + ".pdf";
-            helper.addAttachment(filename, new ByteArrayResource(invoicePdf), "application/pdf");
-
-            javaMailSender.send(message);
-            log.info("Facture {} envoyée avec succès à {}", invoiceNumber, to);
+            if (invoicePdf != null) {
+                String filename = "facture-" + invoiceNumber + ".pdf";
+                helper.addAttachment(filename, new FileSystemResource(invoicePdf), "application/pdf");
+            }
+            return message;
 
         } catch (MessagingException e) {
-            log.error("Erreur lors de l'envoi de la facture {} à {}: {}",
-                    invoiceNumber, to, e.getMessage(), e);
-            throw new MailException("Erreur lors de l'envoi de l'email", e);
+            throw new MailException("Email invalide pour " + to + " : " + e.getMessage(), e);
         } catch (UnsupportedEncodingException e) {
             throw new MailException("Erreur lors de l'encodage du mail", e);
         }
     }
 
+    /**
+     * Envoie les messages sur une seule connexion SMTP.
+     * En cas d'échec partiel, la MailSendException indique les messages refusés.
+     */
+    public void send(Collection<MimeMessage> messages) {
+        javaMailSender.send(messages.toArray(MimeMessage[]::new));
+        log.debug("{} email(s) transmis au serveur SMTP", messages.size());
+    }
+
 }
@@ -14,12 +14,18 @@ public interface InvoiceMapper {
     @Mapping(target = "client", ignore = true) // Assigné manuellement dans le service
     @Mapping(target = "project", ignore = true) // Assigné manuellement dans le service
     @Mapping(target = "lines", ignore = true) // Géré séparément pour la relation bidirectionnelle
+    @Mapping(target = "updatedAt", ignore = true) // Renseigné à l'écriture
+    @Mapping(target = "paidAmount", ignore = true) // Tenus à jour par les paiements uniquement
+    @Mapping(target = "outstandingAmount", ignore = true)
     Invoice toEntity(InvoiceDto dto);
 
     @BeanMapping(nullValuePropertyMappingStrategy = NullValuePropertyMappingStrategy.IGNORE)
     @Mapping(target = "client", ignore = true)
     @Mapping(target = "project", ignore = true)
     @Mapping(target = "lines", ignore = true)
+    @Mapping(target = "updatedAt", ignore = true)
+    @Mapping(target = "paidAmount", ignore = true)
+    @Mapping(target = "outstandingAmount", ignore = true)
     Invoice partialUpdate(InvoiceDto dto, @MappingTarget Invoice invoice);
 }
 
@@ -1,16 +1,26 @@
 package com.tcaputi.back.custody.invoice.infrastructure;
 
+import com.tcaputi.back.custody.common.dto.EntityStamp;
+import com.tcaputi.back.custody.invoice.application.InvoiceRenderStamp;
+import com.tcaputi.back.custody.invoice.application.OpenInvoiceRef;
 import com.tcaputi.back.custody.invoice.domain.model.Invoice;
 import com.tcaputi.back.custody.invoice.domain.model.InvoiceStatus;
+import jakarta.persistence.LockModeType;
+import org.springframework.data.domain.Limit;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.math.BigDecimal;
 import java.time.LocalDate;
+import java.util.Collection;
 import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
@@ -18,36 +28,58 @@ import java.util.UUID;
 @Repository
 public interface InvoiceRepository extends JpaRepository<Invoice, UUID> {
 
+    // Listes non paginées : lignes chargées par jointure, mentions légales par lots (default_batch_fetch_size).
+    // Les listes paginées s'appuient uniquement sur le chargement par lots, une jointure sur collection
+    // forcerait une pagination en mémoire.
+
     // Recherche par client
     Page<Invoice> findByClientId(UUID clientId, Pageable pageable);
+    @EntityGraph(attributePaths = "lines")
     List<Invoice> findByClientId(UUID clientId);
 
     // Recherche par projet
     Page<Invoice> findByProjectId(UUID projectId, Pageable pageable);
+    @EntityGraph(attributePaths = "lines")
     List<Invoice> findByProjectId(UUID projectId);
 
     // Recherche par statut
     Page<Invoice> findByStatus(InvoiceStatus status, Pageable pageable);
+    @EntityGraph(attributePaths = "lines")
     List<Invoice> findByStatus(InvoiceStatus status);
 
+    // Détail : facture et lignes en une requête (client et projet restent des références)
+    @EntityGraph(attributePaths = "lines")
+    @Query("SELECT i FROM Invoice i WHERE i.id = :id")
+    Optional<Invoice> findDetailById(@Param("id") UUID id);
+
     // Recherche par numéro (unique)
     Optional<Invoice> findByNumber(String number);
     boolean existsByNumber(String number);
     boolean existsByNumberAndIdNot(String number, UUID id);
 
+    @Query("SELECT i.number FROM Invoice i WHERE i.number IN :numbers")
+    List<String> findExistingNumbers(@Param("numbers") Collection<String> numbers);
+
     // Recherche par période
     List<Invoice> findByIssueDateBetween(LocalDate startDate, LocalDate endDate);
     List<Invoice> findByDueDateBetween(LocalDate startDate, LocalDate endDate);
 
-    // Factures en retard
-    @Query("SELECT i FROM Invoice i WHERE i.dueDate < :currentDate AND i.status NOT IN ('PAID', 'CANCELLED')")
-    List<Invoice> findOverdueInvoices(@Param("currentDate") LocalDate currentDate);
-
-    // Factures en retard
-    @Query("SELECT COUNT(i) FROM Invoice i WHERE i.dueDate < :currentDate AND i.status NOT IN ('PAID', 'CANCELLED')")
-    int countOverdueInvoices(@Param("currentDate") LocalDate currentDate);
+    // Factures en retard : passage au statut OVERDUE par lot
+    @Transactional
+    @Modifying
+    @Query(value = """
+            UPDATE invoices SET status = 'OVERDUE', updated_at = now()
+            WHERE id IN (
+                SELECT id FROM invoices
+                WHERE status IN ('SENT', 'PARTIALLY_PAID') AND due_date < :today
+                LIMIT :chunkSize
+                FOR UPDATE SKIP LOCKED
+            )
+            """, nativeQuery = true)
+    int markOverdueChunk(@Param("today") LocalDate today, @Param("chunkSize") int chunkSize);
 
     // Recherche multicritères
+    @EntityGraph(attributePaths = "lines")
     @Query("SELECT i FROM Invoice i WHERE " +
            "(:clientId IS NULL OR i.client.id = :clientId) AND " +
            "(:projectId IS NULL OR i.project.id = :projectId) AND " +
@@ -59,6 +91,84 @@ public interface InvoiceRepository extends JpaRepository<Invoice, UUID> {
             @Param("status") InvoiceStatus status,
             @Param("number") String number);
 
+    // ETag : date de dernière écriture, sans charger l'entité
+    @Query("SELECT new com.tcaputi.back.custody.common.dto.EntityStamp(i.id, i.updatedAt) FROM Invoice i WHERE i.id = :id")
+    Optional<EntityStamp> findStampById(@Param("id") UUID id);
+
+    @Query("SELECT new com.tcaputi.back.custody.invoice.application.InvoiceRenderStamp(" +
+           "i.id, i.updatedAt, c.updatedAt, p.updatedAt) " +
+           "FROM Invoice i JOIN i.client c LEFT JOIN i.project p WHERE i.id = :id")
+    Optional<InvoiceRenderStamp> findRenderStampById(@Param("id") UUID id);
+
+    // Paiements : facture verrouillée le temps d'imputer le montant sur ses soldes
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("SELECT i FROM Invoice i WHERE i.id = :id")
+    Optional<Invoice> findByIdForUpdate(@Param("id") UUID id);
+
+    // Rapprochement bancaire : factures restant à encaisser, sans leurs lignes
+    @Query("SELECT new com.tcaputi.back.custody.invoice.application.OpenInvoiceRef(" +
+           "i.id, i.number, c.id, c.legalName, i.currency, i.outstandingAmount) " +
+           "FROM Invoice i JOIN i.client c WHERE i.status IN :statuses AND i.outstandingAmount > 0")
+    List<OpenInvoiceRef> findOpenInvoiceRefs(@Param("statuses") Collection<InvoiceStatus> statuses);
+
+    // Rendu PDF : facture, client, projet et lignes en une seule requête
+    @EntityGraph(attributePaths = {"client", "project", "lines"})
+    @Query("SELECT i FROM Invoice i WHERE i.id = :id")
+    Optional<Invoice> findForRenderingById(@Param("id") UUID id);
+
+    // Export PDF groupé : uniquement les identifiants, les factures sont chargées une à une au rendu
+    @Query("SELECT i.id FROM Invoice i WHERE " +
+           "(:clientId IS NULL OR i.client.id = :clientId) AND " +
+           "(:projectId IS NULL OR i.project.id = :projectId) AND " +
+           "(:status IS NULL OR i.status = :status) AND " +
+           "(:issueDateFrom IS NULL OR i.issueDate >= :issueDateFrom) AND " +
+           "(:issueDateTo IS NULL OR i.issueDate <= :issueDateTo) " +
+           "ORDER BY i.issueDate, i.number")
+    List<UUID> findIdsForPdfExport(
+            @Param("clientId") UUID clientId,
+            @Param("projectId") UUID projectId,
+            @Param("status") InvoiceStatus status,
+            @Param("issueDateFrom") LocalDate issueDateFrom,
+            @Param("issueDateTo") LocalDate issueDateTo,
+            Limit limit);
+
+    // Pagination par curseur : tri (issue_date DESC, id DESC), les lignes sans date d'émission en tête
+    @Query(value = "SELECT * FROM invoices i ORDER BY i.issue_date DESC, i.id DESC LIMIT :limit", nativeQuery = true)
+    List<Invoice> findFirstKeysetPage(@Param("limit") int limit);
+
+    @Query(value = "SELECT * FROM invoices i WHERE (i.issue_date, i.id) < (:issueDate, :id) " +
+            "ORDER BY i.issue_date DESC, i.id DESC LIMIT :limit", nativeQuery = true)
+    List<Invoice> findKeysetPageAfter(@Param("issueDate") LocalDate issueDate, @Param("id") UUID id, @Param("limit") int limit);
+
+    @Query(value = "SELECT * FROM invoices i WHERE (i.issue_date IS NULL AND i.id < :id) OR i.issue_date IS NOT NULL " +
+            "ORDER BY i.issue_date DESC, i.id DESC LIMIT :limit", nativeQuery = true)
+    List<Invoice> findKeysetPageAfterUndated(@Param("id") UUID id, @Param("limit") int limit);
+
+    // Relances : factures en retard non relancées au dernier palier, par client (pagination par curseur)
+    @Query(value = """
+            SELECT i.* FROM invoices i
+            LEFT JOIN dunning_records d ON d.invoice_id = i.id
+            WHERE i.status = 'OVERDUE' AND i.due_date <= :dueBefore
+              AND (d.stage IS NULL OR d.stage < :lastStage)
+            ORDER BY i.client_id, i.id
+            LIMIT :limit
+            """, nativeQuery = true)
+    List<Invoice> findFirstDunningChunk(@Param("dueBefore") LocalDate dueBefore, @Param("lastStage") int lastStage,
+                                        @Param("limit") int limit);
+
+    @Query(value = """
+            SELECT i.* FROM invoices i
+            LEFT JOIN dunning_records d ON d.invoice_id = i.id
+            WHERE i.status = 'OVERDUE' AND i.due_date <= :dueBefore
+              AND (d.stage IS NULL OR d.stage < :lastStage)
+              AND (i.client_id, i.id) > (:clientId, :id)
+            ORDER BY i.client_id, i.id
+            LIMIT :limit
+            """, nativeQuery = true)
+    List<Invoice> findDunningChunkAfter(@Param("dueBefore") LocalDate dueBefore, @Param("lastStage") int lastStage,
+                                        @Param("clientId") UUID clientId, @Param("id") UUID id,
+                                        @Param("limit") int limit);
+
     // Statistiques
     @Query("SELECT SUM(i.total) FROM Invoice i WHERE i.status = 'PAID' AND i.issueDate BETWEEN :startDate AND :endDate")
     BigDecimal getTotalRevenueByPeriod(@Param("startDate") LocalDate startDate, @Param("endDate") LocalDate endDate);
@@ -66,11 +176,4 @@ public interface InvoiceRepository extends JpaRepository<Invoice, UUID> {
     @Query("SELECT COUNT(i) FROM Invoice i WHERE i.status = :status")
     Long countByStatus(@Param("status") InvoiceStatus status);
 
-    /**
-     * Trouve le dernier numéro de facture selon un pattern
-     * pour garantir la continuité de numérotation
-     */
-    @Query("SELECT i.number FROM Invoice i WHERE i.number LIKE :pattern ORDER BY i.number DESC")
-    Optional<String> findLastInvoiceNumberByPattern(@Param("pattern") String pattern);
-
 }
@@ -18,6 +18,20 @@ public interface InvoiceSequenceRepository extends JpaRepository<InvoiceSequence
     @Lock(LockModeType.PESSIMISTIC_WRITE)
     Optional<InvoiceSequence> findByTypeAndYear(InvoiceType type, Integer year);
     
+    /**
+     * Crée la séquence si elle n'existe pas encore, initialisée au plus grand numéro déjà émis.
+     * Sans effet si une autre transaction l'a créée entre-temps.
+     */
+    @Modifying
+    @Query(value = """
+            INSERT INTO invoice_sequences (type, year, current_number, version)
+            SELECT :type, :year, COALESCE(MAX(CAST(split_part(i.number, '-', 3) AS bigint)), 0), 0
+            FROM invoices i
+            WHERE i.number LIKE :pattern AND split_part(i.number, '-', 3) ~ '^[0-9]+$'
+            ON CONFLICT (type, year) DO NOTHING
+            """, nativeQuery = true)
+    int createIfAbsent(@Param("type") String type, @Param("year") int year, @Param("pattern") String pattern);
+
     @Modifying
     @Query("UPDATE InvoiceSequence s SET s.currentNumber = s.currentNumber + 1 WHERE s.id = :id")
     int incrementSequence(@Param("id") Long id);
@@ -0,0 +1,52 @@
+package com.tcaputi.back.custody.invoice.infrastructure;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Limite de débit vers le serveur SMTP configuré (seau à jetons).
+ * Une demande supérieure aux jetons disponibles est réservée en une fois : l'appelant attend le temps de
+ * combler le déficit, puis envoie le lot entier sur une connexion, ce qui respecte le débit moyen.
+ */
+@Component
+public class SmtpRateLimiter {
+
+    private final double permitsPerSecond;
+    private final double burst;
+
+    private double availablePermits;
+    private long lastRefillNanos;
+
+    public SmtpRateLimiter(@Value("${custody.mail.rate-limit.per-second:5}") double permitsPerSecond,
+                           @Value("${custody.mail.rate-limit.burst:20}") int burst) {
+        if (permitsPerSecond <= 0 || burst <= 0) {
+            throw new IllegalArgumentException("Le débit et la rafale SMTP doivent être strictement positifs");
+        }
+        this.permitsPerSecond = permitsPerSecond;
+        this.burst = burst;
+        this.availablePermits = burst;
+        this.lastRefillNanos = System.nanoTime();
+    }
+
+    /**
+     * Attend que le débit permette d'envoyer {@code permits} messages.
+     */
+    public void acquire(int permits) throws InterruptedException {
+        long waitNanos = reserve(permits);
+        if (waitNanos > 0) {
+            TimeUnit.NANOSECONDS.sleep(waitNanos);
+        }
+    }
+
+    private synchronized long reserve(int permits) {
+        long now = System.nanoTime();
+        availablePermits = Math.min(burst, availablePermits + (now - lastRefillNanos) * permitsPerSecond / 1e9);
+        lastRefillNanos = now;
+
+        double deficit = permits - availablePermits;
+        availablePermits -= permits;
+        return deficit > 0 ? (long) (deficit / permitsPerSecond * 1e9) : 0;
+    }
+}
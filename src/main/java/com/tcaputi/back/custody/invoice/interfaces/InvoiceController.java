@@ -1,22 +1,32 @@
 package com.tcaputi.back.custody.invoice.interfaces;
 
+import com.tcaputi.back.custody.common.dto.CursorPage;
 import com.tcaputi.back.custody.common.dto.EmailRequestDto;
+import com.tcaputi.back.custody.invoice.application.EmailOutboxService;
+import com.tcaputi.back.custody.invoice.application.InvoicePdfExportService;
 import com.tcaputi.back.custody.invoice.application.InvoicePdfService;
 import com.tcaputi.back.custody.invoice.application.InvoiceService;
 import com.tcaputi.back.custody.invoice.domain.model.InvoiceStatus;
-import com.tcaputi.back.custody.invoice.infrastructure.EmailService;
+import com.tcaputi.back.custody.invoice.interfaces.dto.EmailJobDto;
+import com.tcaputi.back.custody.invoice.interfaces.dto.InvoiceBatchResponse;
 import com.tcaputi.back.custody.invoice.interfaces.dto.InvoiceDto;
+import com.tcaputi.back.custody.invoice.interfaces.dto.InvoicePdfBatchRequest;
 import jakarta.validation.Valid;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.data.domain.Page;
+import org.springframework.http.CacheControl;
 import org.springframework.http.HttpHeaders;
 import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
 
 import java.net.URI;
+import java.time.LocalDate;
 import java.util.List;
+import java.util.Optional;
 import java.util.UUID;
 
 @Slf4j
@@ -25,9 +35,10 @@ import java.util.UUID;
 @RequiredArgsConstructor
 class InvoiceController {
 
-    private final EmailService emailService;
+    private final EmailOutboxService emailOutboxService;
     private final InvoiceService invoiceService;
     private final InvoicePdfService invoicePdfService;
+    private final InvoicePdfExportService invoicePdfExportService;
 
     @GetMapping
     public ResponseEntity<Page<InvoiceDto>> getInvoices(
@@ -37,6 +48,19 @@ class InvoiceController {
         return ResponseEntity.ok(invoices);
     }
 
+    @GetMapping("/cursor")
+    public ResponseEntity<CursorPage<InvoiceDto>> getInvoicesByCursor(
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "20") Integer size,
+            @RequestParam(defaultValue = "false") boolean withTotal) {
+        try {
+            return ResponseEntity.ok(invoiceService.getInvoicesByCursor(cursor, size, withTotal));
+        } catch (IllegalArgumentException e) {
+            log.warn("Erreur lors de la pagination des factures : {}", e.getMessage());
+            return ResponseEntity.badRequest().build();
+        }
+    }
+
     @GetMapping("/count/overdue")
     public ResponseEntity<Integer> getOverdueInvoiceCount() {
         int count = invoiceService.getOverdueInvoiceCount();
@@ -44,9 +68,17 @@ class InvoiceController {
     }
 
     @GetMapping("/{id}")
-    public ResponseEntity<InvoiceDto> getInvoice(@PathVariable UUID id) {
+    public ResponseEntity<InvoiceDto> getInvoice(@PathVariable UUID id, WebRequest request) {
+        Optional<String> eTag = invoiceService.getInvoiceETag(id);
+        if (eTag.isEmpty()) {
+            return ResponseEntity.notFound().build();
+        }
+        if (request.checkNotModified(eTag.get())) {
+            return null; // 304 déjà posé sur la réponse, sans relire l'entité
+        }
+
         return invoiceService.getInvoiceById(id)
-                .map(ResponseEntity::ok)
+                .map(dto -> ResponseEntity.ok().eTag(eTag.get()).cacheControl(CacheControl.noCache().cachePrivate()).body(dto))
                 .orElse(ResponseEntity.notFound().build());
     }
 
@@ -97,6 +129,16 @@ class InvoiceController {
         }
     }
 
+    @PostMapping("/batch")
+    public ResponseEntity<InvoiceBatchResponse> createInvoices(@RequestBody List<InvoiceDto> dtos) {
+        try {
+            return ResponseEntity.ok(invoiceService.createInvoices(dtos));
+        } catch (IllegalArgumentException e) {
+            log.warn("Erreur lors de la création du lot de factures : {}", e.getMessage());
+            return ResponseEntity.badRequest().build();
+        }
+    }
+
     @DeleteMapping("/{id}")
     public ResponseEntity<Void> deleteInvoice(@PathVariable UUID id) {
         try {
@@ -135,16 +177,26 @@ class InvoiceController {
     }
 
     @GetMapping("/{id}/pdf")
-    public ResponseEntity<byte[]> generateInvoicePdf(@PathVariable UUID id) {
+    public ResponseEntity<StreamingResponseBody> generateInvoicePdf(@PathVariable UUID id, WebRequest request) {
         try {
-            return invoiceService.getInvoiceById(id)
-                    .map(invoice -> {
-                        byte[] pdfContent = invoicePdfService.generateInvoicePdf(invoice);
-                        String filename = "facture-" + invoice.number() + ".pdf";
-                        
+            Optional<String> eTag = invoicePdfService.getInvoicePdfETag(id);
+            if (eTag.isEmpty()) {
+                return ResponseEntity.notFound().build();
+            }
+            if (request.checkNotModified(eTag.get())) {
+                return null; // 304 déjà posé sur la réponse, sans nouveau rendu
+            }
+
+            return invoicePdfService.loadRenderModel(id)
+                    .map(model -> {
+                        StreamingResponseBody pdfContent = outputStream -> invoicePdfService.writeInvoicePdf(model, outputStream);
+                        String filename = "facture-" + model.invoice().number() + ".pdf";
+
                         return ResponseEntity.ok()
                                 .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"" + filename + "\"")
                                 .contentType(MediaType.APPLICATION_PDF)
+                                .eTag(eTag.get())
+                                .cacheControl(CacheControl.noCache().cachePrivate())
                                 .body(pdfContent);
                     })
                     .orElse(ResponseEntity.notFound().build());
@@ -154,14 +206,51 @@ class InvoiceController {
         }
     }
 
-    @GetMapping("/{id}/email")
-    public ResponseEntity<String> sendInvoiceEmail(@PathVariable UUID id, @Valid @RequestBody EmailRequestDto emailRequest) {
-        return invoiceService.getInvoiceById(id)
-                .map(invoice -> {
-                    byte[] pdfContent = invoicePdfService.generateInvoicePdf(invoice);
-                    emailService.sendInvoiceByEmail(emailRequest.email(), emailRequest.subject(), emailRequest.content(), pdfContent, invoice.number());
-                    return ResponseEntity.ok("Email envoyé avec succès");
-                }).orElse(ResponseEntity.notFound().build());
+    @PostMapping("/pdf/batch")
+    public ResponseEntity<StreamingResponseBody> exportInvoicePdfs(@RequestBody InvoicePdfBatchRequest request) {
+        List<UUID> invoiceIds;
+        try {
+            invoiceIds = invoicePdfExportService.resolveInvoiceIds(request);
+        } catch (IllegalArgumentException e) {
+            log.warn("Erreur lors de l'export PDF groupé : {}", e.getMessage());
+            return ResponseEntity.badRequest().build();
+        }
+
+        if (invoiceIds.isEmpty()) {
+            return ResponseEntity.noContent().build();
+        }
+
+        String filename = "factures-" + LocalDate.now() + ".zip";
+        StreamingResponseBody body = outputStream -> invoicePdfExportService.writeZip(invoiceIds, outputStream);
+
+        return ResponseEntity.ok()
+                .header(HttpHeaders.CONTENT_DISPOSITION, "attachment; filename=\"" + filename + "\"")
+                .contentType(MediaType.parseMediaType("application/zip"))
+                .body(body);
+    }
+
+    /**
+     * Met l'email en file et répond immédiatement ; l'avancement se suit sur /invoices/email-jobs/{jobId}.
+     */
+    @PostMapping("/{id}/email")
+    public ResponseEntity<EmailJobDto> sendInvoiceEmail(@PathVariable UUID id, @Valid @RequestBody EmailRequestDto emailRequest) {
+        try {
+            return emailOutboxService.enqueueInvoiceEmail(id, emailRequest.email(), emailRequest.subject(), emailRequest.content())
+                    .map(job -> ResponseEntity.accepted()
+                            .location(URI.create("/invoices/email-jobs/" + job.id()))
+                            .body(job))
+                    .orElse(ResponseEntity.notFound().build());
+        } catch (IllegalArgumentException e) {
+            log.warn("Erreur lors de la mise en file de l'email de la facture {} : {}", id, e.getMessage());
+            return ResponseEntity.badRequest().build();
+        }
+    }
+
+    @GetMapping("/email-jobs/{jobId}")
+    public ResponseEntity<EmailJobDto> getEmailJob(@PathVariable UUID jobId) {
+        return emailOutboxService.getEmailJob(jobId)
+                .map(ResponseEntity::ok)
+                .orElse(ResponseEntity.notFound().build());
     }
 
 }
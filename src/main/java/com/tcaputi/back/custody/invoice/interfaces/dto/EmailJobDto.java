@@ -0,0 +1,26 @@
+package com.tcaputi.back.custody.invoice.interfaces.dto;
+
+import com.tcaputi.back.custody.invoice.domain.model.EmailJob;
+import com.tcaputi.back.custody.invoice.domain.model.EmailJobStatus;
+
+import java.time.Instant;
+import java.util.UUID;
+
+/**
+ * État d'un email de l'outbox, consulté par le client après la mise en file.
+ */
+public record EmailJobDto(UUID id,
+                          UUID invoiceId,
+                          String recipient,
+                          EmailJobStatus status,
+                          int attempts,
+                          Instant nextAttemptAt,
+                          String lastError,
+                          Instant createdAt,
+                          Instant sentAt) {
+
+    public static EmailJobDto of(EmailJob job) {
+        return new EmailJobDto(job.getId(), job.getInvoiceId(), job.getRecipient(), job.getStatus(),
+                job.getAttempts(), job.getNextAttemptAt(), job.getLastError(), job.getCreatedAt(), job.getSentAt());
+    }
+}
@@ -0,0 +1,21 @@
+package com.tcaputi.back.custody.invoice.interfaces.dto;
+
+import java.util.UUID;
+
+/**
+ * Résultat de la création d'une facture au sein d'un lot, repérée par sa position dans la requête.
+ */
+public record InvoiceBatchItemResult(int index,
+                                     UUID id,
+                                     String number,
+                                     boolean success,
+                                     String error) {
+
+    public static InvoiceBatchItemResult created(int index, UUID id, String number) {
+        return new InvoiceBatchItemResult(index, id, number, true, null);
+    }
+
+    public static InvoiceBatchItemResult failed(int index, String error) {
+        return new InvoiceBatchItemResult(index, null, null, false, error);
+    }
+}
@@ -0,0 +1,11 @@
+package com.tcaputi.back.custody.invoice.interfaces.dto;
+
+import java.util.List;
+
+/**
+ * Réponse de la création de factures en lot : un résultat par facture, dans l'ordre de la requête.
+ */
+public record InvoiceBatchResponse(int created,
+                                   int failed,
+                                   List<InvoiceBatchItemResult> results) {
+}
@@ -28,6 +28,8 @@ public record InvoiceDto(UUID id,
                          BigDecimal subtotal,
                          BigDecimal taxTotal,
                          BigDecimal total,
+                         BigDecimal paidAmount,
+                         BigDecimal outstandingAmount,
                          String paymentTerms,
                          BigDecimal lateFeeRate,
                          BigDecimal collectionFeeEUR,
@@ -0,0 +1,19 @@
+package com.tcaputi.back.custody.invoice.interfaces.dto;
+
+import com.tcaputi.back.custody.invoice.domain.model.InvoiceStatus;
+
+import java.time.LocalDate;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Filtre de l'export PDF groupé.
+ * Si {@code ids} est renseigné, seuls ces identifiants sont exportés et les autres critères sont ignorés.
+ */
+public record InvoicePdfBatchRequest(UUID clientId,
+                                     UUID projectId,
+                                     InvoiceStatus status,
+                                     LocalDate issueDateFrom,
+                                     LocalDate issueDateTo,
+                                     List<UUID> ids) {
+}
@@ -0,0 +1,47 @@
+package com.tcaputi.back.custody.issuer.application;
+
+import com.tcaputi.back.custody.client.interfaces.dto.CompanyDto;
+import com.tcaputi.back.custody.tax.domain.model.TaxType;
+import com.tcaputi.back.custody.tax.interfaces.dto.TaxProfileDto;
+
+import java.util.List;
+import java.util.Optional;
+import java.util.UUID;
+
+/**
+ * Émetteur et profils fiscaux à un instant donné, immuables : partagés sans verrou entre tous les lecteurs.
+ * L'empreinte change dès que l'un d'eux change ; elle entre dans les ETags des documents rendus.
+ */
+public record IssuerSnapshot(CompanyDto issuer,
+                             List<TaxProfileDto> taxProfiles,
+                             String fingerprint) {
+
+    public IssuerSnapshot {
+        taxProfiles = List.copyOf(taxProfiles);
+    }
+
+    public Optional<CompanyDto> findIssuer() {
+        return Optional.ofNullable(issuer);
+    }
+
+    public Optional<TaxProfileDto> findTaxProfile(UUID id) {
+        return taxProfiles.stream()
+                .filter(taxProfile -> taxProfile.id().equals(id))
+                .findFirst();
+    }
+
+    /**
+     * Profil par défaut d'un type : le premier dans l'ordre de chargement.
+     */
+    public Optional<TaxProfileDto> findDefaultTaxProfile(TaxType type) {
+        return taxProfiles.stream()
+                .filter(taxProfile -> taxProfile.type() == type)
+                .findFirst();
+    }
+
+    public List<TaxProfileDto> getTaxProfilesByType(TaxType type) {
+        return taxProfiles.stream()
+                .filter(taxProfile -> taxProfile.type() == type)
+                .toList();
+    }
+}
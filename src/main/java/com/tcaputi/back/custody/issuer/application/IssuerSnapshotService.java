@@ -0,0 +1,80 @@
+package com.tcaputi.back.custody.issuer.application;
+
+import com.tcaputi.back.custody.client.infrastructure.CompanyMapper;
+import com.tcaputi.back.custody.client.infrastructure.CompanyRepository;
+import com.tcaputi.back.custody.client.interfaces.dto.CompanyDto;
+import com.tcaputi.back.custody.common.infrastructure.ETags;
+import com.tcaputi.back.custody.tax.infrastructure.TaxProfileMapper;
+import com.tcaputi.back.custody.tax.infrastructure.TaxProfileRepository;
+import com.tcaputi.back.custody.tax.interfaces.dto.TaxProfileDto;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.util.List;
+import java.util.concurrent.atomic.AtomicReference;
+
+/**
+ * Fiche émetteur et profils fiscaux tenus en mémoire : modifiés quelques fois par an, lus à chaque rendu.
+ * Les lectures ne touchent jamais la base ; un rechargement construit un nouvel instantané complet
+ * et le substitue d'un bloc, un lecteur voit donc toujours un émetteur et des profils cohérents entre eux.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class IssuerSnapshotService {
+
+    private final CompanyRepository companyRepository;
+    private final CompanyMapper companyMapper;
+    private final TaxProfileRepository taxProfileRepository;
+    private final TaxProfileMapper taxProfileMapper;
+
+    private final AtomicReference<IssuerSnapshot> snapshot = new AtomicReference<>();
+
+    public IssuerSnapshot get() {
+        IssuerSnapshot current = snapshot.get();
+        return current != null ? current : reload();
+    }
+
+    @EventListener(ApplicationReadyEvent.class)
+    public void loadOnStartup() {
+        IssuerSnapshot loaded = reload();
+        if (loaded.issuer() == null) {
+            log.warn("Aucune fiche émetteur (company_profiles) : les documents seront émis sans identité légale");
+        }
+    }
+
+    /**
+     * Relit les données de la base (modification directe, reprise) ; l'instantané n'est remplacé que s'il a changé.
+     */
+    @Scheduled(fixedDelayString = "${custody.issuer.refresh-interval:PT5M}",
+               initialDelayString = "${custody.issuer.refresh-interval:PT5M}")
+    @Transactional(readOnly = true)
+    public IssuerSnapshot reload() {
+        IssuerSnapshot loaded = load();
+        IssuerSnapshot previous = snapshot.get();
+        if (previous != null && previous.fingerprint().equals(loaded.fingerprint())) {
+            return previous;
+        }
+        snapshot.set(loaded);
+        log.info("Instantané émetteur chargé : {} profil(s) fiscal(aux)", loaded.taxProfiles().size());
+        return loaded;
+    }
+
+    private IssuerSnapshot load() {
+        CompanyDto issuer = companyRepository.findFirstByOrderByIdAsc()
+                .map(companyMapper::toDto)
+                .orElse(null);
+        List<TaxProfileDto> taxProfiles = taxProfileRepository.findAllByOrderByIdAsc().stream()
+                .map(taxProfileMapper::toDto)
+                .map(taxProfile -> new TaxProfileDto(taxProfile.id(), taxProfile.type(), taxProfile.label(),
+                        taxProfile.mandatoryMentions() != null ? List.copyOf(taxProfile.mandatoryMentions()) : List.of()))
+                .toList();
+        // Représentations textuelles des records : stables d'une instance à l'autre, contrairement aux hashCode
+        return new IssuerSnapshot(issuer, taxProfiles, ETags.of(issuer, taxProfiles));
+    }
+}
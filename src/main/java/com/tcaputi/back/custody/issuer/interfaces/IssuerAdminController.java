@@ -0,0 +1,31 @@
+package com.tcaputi.back.custody.issuer.interfaces;
+
+import com.tcaputi.back.custody.issuer.application.IssuerSnapshot;
+import com.tcaputi.back.custody.issuer.application.IssuerSnapshotService;
+import lombok.RequiredArgsConstructor;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+@RestController
+@RequestMapping("/admin/issuer")
+@RequiredArgsConstructor
+class IssuerAdminController {
+
+    private final IssuerSnapshotService issuerSnapshotService;
+
+    @GetMapping
+    public ResponseEntity<IssuerSnapshot> getSnapshot() {
+        return ResponseEntity.ok(issuerSnapshotService.get());
+    }
+
+    /**
+     * Prend en compte sans attendre une modification de l'émetteur ou des profils fiscaux faite en base.
+     */
+    @PostMapping("/reload")
+    public ResponseEntity<IssuerSnapshot> reload() {
+        return ResponseEntity.ok(issuerSnapshotService.reload());
+    }
+}
@@ -0,0 +1,181 @@
+package com.tcaputi.back.custody.payment.application;
+
+import com.tcaputi.back.custody.invoice.application.InvoiceService;
+import com.tcaputi.back.custody.payment.domain.model.StatementFormat;
+import com.tcaputi.back.custody.payment.infrastructure.StatementReaders;
+import com.tcaputi.back.custody.payment.interfaces.dto.BankStatementImportResult;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.math.RoundingMode;
+import java.nio.charset.StandardCharsets;
+import java.security.MessageDigest;
+import java.security.NoSuchAlgorithmException;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.HexFormat;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.concurrent.atomic.AtomicBoolean;
+import java.util.stream.Collectors;
+
+/**
+ * Import d'un relevé bancaire : le fichier est lu en flux, chaque crédit est rapproché des factures ouvertes
+ * sur un index en mémoire, puis les résultats sont enregistrés par lots, une transaction par lot.
+ * Les références bancaires déjà connues sont ignorées, ce qui rend l'import rejouable après une interruption ;
+ * une ligne sans référence en reçoit une dérivée de son contenu (date, montant, devise, tiers, libellé)
+ * et de son rang parmi les lignes identiques du relevé, stable d'un import à l'autre.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class BankStatementImportService {
+
+    private static final String DERIVED_REFERENCE_PREFIX = "RELEVE-";
+    private static final int DERIVED_REFERENCE_BYTES = 16;
+
+    private final InvoiceService invoiceService;
+    private final PaymentService paymentService;
+
+    // Un seul import à la fois : deux imports concurrents rapprocheraient sur des index différents
+    private final AtomicBoolean running = new AtomicBoolean();
+
+    @Value("${custody.payment.import.batch-size:500}")
+    private int batchSize;
+
+    @Value("${custody.payment.import.default-currency:EUR}")
+    private String defaultCurrency;
+
+    public BankStatementImportResult importStatement(InputStream inputStream, StatementFormat format) throws IOException {
+        if (!running.compareAndSet(false, true)) {
+            throw new IllegalStateException("Un import de relevé est déjà en cours");
+        }
+        try (StatementReader reader = StatementReaders.open(format, inputStream, defaultCurrency)) {
+            return importLines(reader, format);
+        } finally {
+            running.set(false);
+        }
+    }
+
+    private BankStatementImportResult importLines(StatementReader reader, StatementFormat format) throws IOException {
+        PaymentMatcher matcher = new PaymentMatcher(invoiceService.getOpenInvoiceRefs(), defaultCurrency);
+        log.info("Import d'un relevé {} : {} facture(s) ouverte(s) indexée(s)", format, matcher.size());
+
+        Tally tally = new Tally();
+        Map<String, Integer> occurrences = new HashMap<>();
+        List<StatementLine> batch = new ArrayList<>(batchSize);
+        while (true) {
+            StatementLine line;
+            try {
+                line = reader.next();
+            } catch (IllegalArgumentException e) {
+                log.warn("Ligne de relevé ignorée : {}", e.getMessage());
+                tally.lines++;
+                tally.failed++;
+                continue;
+            }
+            if (line == null) {
+                break;
+            }
+
+            tally.lines++;
+            if (line.amount().signum() <= 0) {
+                continue; // Débits : sans rapport avec les factures clients
+            }
+            tally.credits++;
+            batch.add(withDerivedReference(line, occurrences));
+            if (batch.size() == batchSize) {
+                recordBatch(batch, matcher, tally);
+                batch.clear();
+            }
+        }
+        if (!batch.isEmpty()) {
+            recordBatch(batch, matcher, tally);
+        }
+
+        BankStatementImportResult result = new BankStatementImportResult(tally.lines, tally.credits, tally.matched,
+                tally.queuedForReview, tally.duplicates, tally.failed);
+        log.info("Import de relevé terminé : {} ligne(s), {} crédit(s), {} imputé(s), {} en revue, {} doublon(s), {} en erreur",
+                result.lines(), result.credits(), result.matched(), result.queuedForReview(), result.duplicates(), result.failed());
+        return result;
+    }
+
+    private void recordBatch(List<StatementLine> batch, PaymentMatcher matcher, Tally tally) {
+        Set<String> references = batch.stream()
+                .map(StatementLine::reference)
+                .filter(Objects::nonNull)
+                .collect(Collectors.toSet());
+        Set<String> known = references.isEmpty() ? Set.of() : paymentService.findKnownBankReferences(references);
+
+        // Les doublons sont écartés avant le rapprochement pour ne pas entamer le reste à payer indexé
+        Set<String> seen = new HashSet<>();
+        List<PaymentMatch> matches = new ArrayList<>(batch.size());
+        for (StatementLine line : batch) {
+            if (line.reference() != null && (known.contains(line.reference()) || !seen.add(line.reference()))) {
+                tally.duplicates++;
+                continue;
+            }
+            matches.add(matcher.match(line));
+        }
+        if (matches.isEmpty()) {
+            return;
+        }
+
+        try {
+            // Imputations refusées après verrouillage : parties en revue, leur montant redevient disponible
+            List<PaymentMatch> rejected = paymentService.recordImportBatch(matches);
+            rejected.forEach(matcher::release);
+            int matched = (int) matches.stream().filter(PaymentMatch::isMatched).count() - rejected.size();
+            tally.matched += matched;
+            tally.queuedForReview += matches.size() - matched;
+        } catch (RuntimeException e) {
+            log.error("Erreur lors de l'enregistrement d'un lot de {} ligne(s) de relevé : {}", matches.size(), e.getMessage(), e);
+            matches.forEach(matcher::release);
+            tally.failed += matches.size();
+        }
+    }
+
+    /**
+     * Référence déterministe d'une ligne sans référence bancaire. Le rang d'occurrence distingue deux opérations
+     * identiques d'un même relevé, qui restent toutes deux importées.
+     */
+    private static StatementLine withDerivedReference(StatementLine line, Map<String, Integer> occurrences) {
+        if (line.reference() != null) {
+            return line;
+        }
+        String content = String.join("|",
+                String.valueOf(line.bookingDate()),
+                line.amount().setScale(2, RoundingMode.HALF_UP).toPlainString(),
+                String.valueOf(line.currency()),
+                String.valueOf(line.counterpartyName()),
+                String.valueOf(line.remittanceInfo()));
+        int occurrence = occurrences.merge(content, 1, Integer::sum);
+        return new StatementLine(DERIVED_REFERENCE_PREFIX + sha256(content + "|" + occurrence), line.bookingDate(),
+                line.amount(), line.currency(), line.counterpartyName(), line.remittanceInfo());
+    }
+
+    private static String sha256(String value) {
+        try {
+            byte[] digest = MessageDigest.getInstance("SHA-256").digest(value.getBytes(StandardCharsets.UTF_8));
+            return HexFormat.of().formatHex(digest, 0, DERIVED_REFERENCE_BYTES);
+        } catch (NoSuchAlgorithmException e) {
+            throw new IllegalStateException("SHA-256 indisponible", e);
+        }
+    }
+
+    private static final class Tally {
+        private int lines;
+        private int credits;
+        private int matched;
+        private int queuedForReview;
+        private int duplicates;
+        private int failed;
+    }
+}
@@ -0,0 +1,28 @@
+package com.tcaputi.back.custody.payment.application;
+
+import java.math.BigDecimal;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Résultat du rapprochement d'un crédit : soit des imputations sur une ou plusieurs factures,
+ * soit un motif de revue manuelle accompagné des factures candidates.
+ */
+record PaymentMatch(StatementLine line, List<Allocation> allocations, List<UUID> candidateInvoiceIds,
+                    String reviewReason) {
+
+    record Allocation(UUID invoiceId, BigDecimal amount) {
+    }
+
+    static PaymentMatch matched(StatementLine line, List<Allocation> allocations) {
+        return new PaymentMatch(line, allocations, List.of(), null);
+    }
+
+    static PaymentMatch review(StatementLine line, String reason, List<UUID> candidateInvoiceIds) {
+        return new PaymentMatch(line, List.of(), candidateInvoiceIds, reason);
+    }
+
+    boolean isMatched() {
+        return reviewReason == null;
+    }
+}
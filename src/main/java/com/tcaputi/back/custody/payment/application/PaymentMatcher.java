@@ -0,0 +1,220 @@
+package com.tcaputi.back.custody.payment.application;
+
+import com.tcaputi.back.custody.invoice.application.OpenInvoiceRef;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.text.Normalizer;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Set;
+import java.util.UUID;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+
+/**
+ * Rapprochement des crédits d'un relevé avec les factures ouvertes, sur un index en mémoire construit une fois par import
+ * (numéro de facture, reste à payer, nom du client).
+ * Le reste à payer indexé suit les imputations déjà décidées : un même relevé ne peut pas solder deux fois une facture.
+ * Tout ce qui n'est pas univoque part en revue manuelle.
+ */
+final class PaymentMatcher {
+
+    // Numéros au format PREFIXE-ANNEE-SEQUENCE, les séparateurs étant souvent altérés ou supprimés par les banques
+    private static final Pattern INVOICE_NUMBER = Pattern.compile("\\b([A-Z]{2,4})[ ._/-]?(\\d{4})[ ._/-]?(\\d{4,})\\b");
+    private static final Pattern LEGAL_FORMS = Pattern.compile("\\b(SAS|SASU|SARL|EURL|SA|SCI|SNC|SELARL|STE|SOCIETE|LTD|GMBH|INC|LLC)\\b");
+    private static final int MIN_NAME_LENGTH = 3;
+    private static final int MAX_CANDIDATES = 10;
+
+    private final String defaultCurrency;
+    private final Map<UUID, OpenInvoice> byId = new HashMap<>();
+    private final Map<String, OpenInvoice> byNumber = new HashMap<>();
+    private final Map<AmountKey, List<OpenInvoice>> byOutstanding = new HashMap<>();
+
+    PaymentMatcher(List<OpenInvoiceRef> openInvoices, String defaultCurrency) {
+        this.defaultCurrency = defaultCurrency;
+        for (OpenInvoiceRef ref : openInvoices) {
+            OpenInvoice invoice = new OpenInvoice(ref.id(), ref.number(),
+                    ref.currency() != null ? ref.currency() : defaultCurrency,
+                    normalizeName(ref.clientName()), ref.outstandingAmount().setScale(2, RoundingMode.HALF_UP));
+            byId.put(invoice.id, invoice);
+            if (ref.number() != null) {
+                byNumber.put(numberKey(ref.number()), invoice);
+            }
+            indexOutstanding(invoice);
+        }
+    }
+
+    int size() {
+        return byId.size();
+    }
+
+    PaymentMatch match(StatementLine line) {
+        BigDecimal amount = line.amount().setScale(2, RoundingMode.HALF_UP);
+        String currency = line.currency() != null ? line.currency() : defaultCurrency;
+        Set<String> numbers = referencedNumbers(line);
+        return numbers.isEmpty()
+                ? matchByAmount(line, amount, currency)
+                : matchByNumbers(line, amount, currency, numbers);
+    }
+
+    private PaymentMatch matchByNumbers(StatementLine line, BigDecimal amount, String currency, Set<String> numbers) {
+        List<OpenInvoice> referenced = numbers.stream()
+                .map(byNumber::get)
+                .filter(Objects::nonNull)
+                .filter(invoice -> invoice.outstanding.signum() > 0)
+                .toList();
+        if (referenced.isEmpty()) {
+            return PaymentMatch.review(line, "Facture citée introuvable ou déjà soldée", List.of());
+        }
+
+        List<UUID> candidates = ids(referenced);
+        if (referenced.stream().anyMatch(invoice -> !invoice.currency.equals(currency))) {
+            return PaymentMatch.review(line, "Devise du crédit différente de celle de la facture", candidates);
+        }
+
+        if (referenced.size() == 1) {
+            OpenInvoice invoice = referenced.getFirst();
+            if (amount.compareTo(invoice.outstanding) > 0) {
+                return PaymentMatch.review(line, "Montant supérieur au reste à payer de la facture " + invoice.number, candidates);
+            }
+            return allocate(line, List.of(new PaymentMatch.Allocation(invoice.id, amount)));
+        }
+
+        // Virement groupé : accepté seulement s'il solde exactement toutes les factures citées
+        BigDecimal total = referenced.stream().map(invoice -> invoice.outstanding).reduce(BigDecimal.ZERO, BigDecimal::add);
+        if (amount.compareTo(total) != 0) {
+            return PaymentMatch.review(line, "Montant différent du total des factures citées", candidates);
+        }
+        return allocate(line, referenced.stream()
+                .map(invoice -> new PaymentMatch.Allocation(invoice.id, invoice.outstanding))
+                .toList());
+    }
+
+    private PaymentMatch matchByAmount(StatementLine line, BigDecimal amount, String currency) {
+        List<OpenInvoice> sameAmount = byOutstanding.getOrDefault(new AmountKey(currency, amount), List.of());
+        if (sameAmount.isEmpty()) {
+            return PaymentMatch.review(line, "Aucune facture ne correspond au montant ni au libellé", List.of());
+        }
+
+        String counterparty = normalizeName(line.counterpartyName());
+        List<OpenInvoice> sameClient = counterparty.length() < MIN_NAME_LENGTH
+                ? List.of()
+                : sameAmount.stream().filter(invoice -> namesMatch(invoice.clientName, counterparty)).toList();
+
+        if (sameClient.size() == 1) {
+            OpenInvoice invoice = sameClient.getFirst();
+            return allocate(line, List.of(new PaymentMatch.Allocation(invoice.id, amount)));
+        }
+        if (sameClient.size() > 1) {
+            return PaymentMatch.review(line, "Plusieurs factures du client pour ce montant", ids(sameClient));
+        }
+        return PaymentMatch.review(line, "Montant correspondant sans numéro de facture ni client reconnu", ids(sameAmount));
+    }
+
+    private PaymentMatch allocate(StatementLine line, List<PaymentMatch.Allocation> allocations) {
+        for (PaymentMatch.Allocation allocation : allocations) {
+            OpenInvoice invoice = byId.get(allocation.invoiceId());
+            unindexOutstanding(invoice);
+            invoice.outstanding = invoice.outstanding.subtract(allocation.amount());
+            indexOutstanding(invoice);
+        }
+        return PaymentMatch.matched(line, allocations);
+    }
+
+    /**
+     * Réintègre dans l'index une imputation qui n'a finalement pas été enregistrée.
+     */
+    void release(PaymentMatch match) {
+        for (PaymentMatch.Allocation allocation : match.allocations()) {
+            OpenInvoice invoice = byId.get(allocation.invoiceId());
+            unindexOutstanding(invoice);
+            invoice.outstanding = invoice.outstanding.add(allocation.amount());
+            indexOutstanding(invoice);
+        }
+    }
+
+    private void indexOutstanding(OpenInvoice invoice) {
+        if (invoice.outstanding.signum() > 0) {
+            byOutstanding.computeIfAbsent(new AmountKey(invoice.currency, invoice.outstanding), key -> new ArrayList<>(1))
+                    .add(invoice);
+        }
+    }
+
+    private void unindexOutstanding(OpenInvoice invoice) {
+        AmountKey key = new AmountKey(invoice.currency, invoice.outstanding);
+        List<OpenInvoice> invoices = byOutstanding.get(key);
+        if (invoices != null && invoices.remove(invoice) && invoices.isEmpty()) {
+            byOutstanding.remove(key);
+        }
+    }
+
+    private static Set<String> referencedNumbers(StatementLine line) {
+        Set<String> numbers = new LinkedHashSet<>();
+        for (String text : new String[]{line.remittanceInfo(), line.reference()}) {
+            if (text == null) {
+                continue;
+            }
+            Matcher matcher = INVOICE_NUMBER.matcher(text.toUpperCase(Locale.ROOT));
+            while (matcher.find()) {
+                numbers.add(matcher.group(1) + matcher.group(2) + matcher.group(3));
+            }
+        }
+        return numbers;
+    }
+
+    private static String numberKey(String number) {
+        return number.toUpperCase(Locale.ROOT).replaceAll("[^A-Z0-9]", "");
+    }
+
+    /**
+     * Nom comparable d'un client ou d'un donneur d'ordre : majuscules sans accents, ponctuation et formes juridiques retirées.
+     */
+    private static String normalizeName(String name) {
+        if (name == null) {
+            return "";
+        }
+        String normalized = Normalizer.normalize(name, Normalizer.Form.NFD)
+                .replaceAll("\\p{M}", "")
+                .toUpperCase(Locale.ROOT)
+                .replaceAll("[^A-Z0-9]+", " ");
+        return LEGAL_FORMS.matcher(normalized).replaceAll(" ").replaceAll("\\s+", " ").trim();
+    }
+
+    private static boolean namesMatch(String clientName, String counterparty) {
+        if (clientName.length() < MIN_NAME_LENGTH) {
+            return false;
+        }
+        String paddedCounterparty = " " + counterparty + " ";
+        String paddedClient = " " + clientName + " ";
+        return paddedCounterparty.contains(paddedClient) || paddedClient.contains(paddedCounterparty);
+    }
+
+    private static List<UUID> ids(List<OpenInvoice> invoices) {
+        return invoices.stream().limit(MAX_CANDIDATES).map(invoice -> invoice.id).toList();
+    }
+
+    private record AmountKey(String currency, BigDecimal amount) {
+    }
+
+    private static final class OpenInvoice {
+        private final UUID id;
+        private final String number;
+        private final String currency;
+        private final String clientName;
+        private BigDecimal outstanding;
+
+        private OpenInvoice(UUID id, String number, String currency, String clientName, BigDecimal outstanding) {
+            this.id = id;
+            this.number = number;
+            this.currency = currency;
+            this.clientName = clientName;
+            this.outstanding = outstanding;
+        }
+    }
+}
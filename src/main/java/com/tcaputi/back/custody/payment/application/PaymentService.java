@@ -0,0 +1,262 @@
+package com.tcaputi.back.custody.payment.application;
+
+import com.tcaputi.back.custody.fx.application.ExchangeRateService;
+import com.tcaputi.back.custody.invoice.application.InvoiceService;
+import com.tcaputi.back.custody.invoice.domain.model.Invoice;
+import com.tcaputi.back.custody.payment.domain.model.Payment;
+import com.tcaputi.back.custody.payment.domain.model.PaymentMethod;
+import com.tcaputi.back.custody.payment.domain.model.PaymentReview;
+import com.tcaputi.back.custody.payment.domain.model.PaymentReviewStatus;
+import com.tcaputi.back.custody.payment.infrastructure.PaymentMapper;
+import com.tcaputi.back.custody.payment.infrastructure.PaymentRepository;
+import com.tcaputi.back.custody.payment.infrastructure.PaymentReviewRepository;
+import com.tcaputi.back.custody.payment.interfaces.dto.PaymentDto;
+import com.tcaputi.back.custody.payment.interfaces.dto.PaymentReviewDto;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.math.BigDecimal;
+import java.math.RoundingMode;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Optional;
+import java.util.Set;
+import java.util.UUID;
+import java.util.stream.Collectors;
+
+/**
+ * Enregistrement des paiements. Chaque paiement est imputé sur les soldes de la facture dans la même transaction,
+ * facture verrouillée : le reste à payer se lit ensuite directement sur la facture.
+ */
+@Slf4j
+@Service
+@RequiredArgsConstructor
+@Transactional(readOnly = true)
+public class PaymentService {
+
+    private static final String DEFAULT_CURRENCY = "EUR";
+
+    private final PaymentRepository paymentRepository;
+    private final PaymentReviewRepository paymentReviewRepository;
+    private final PaymentMapper paymentMapper;
+    private final InvoiceService invoiceService;
+    private final ExchangeRateService exchangeRateService;
+
+    public Optional<PaymentDto> getPaymentById(UUID id) {
+        return paymentRepository.findById(id)
+                .map(paymentMapper::toDto);
+    }
+
+    public List<PaymentDto> getPaymentsByInvoice(UUID invoiceId) {
+        return paymentMapper.toDtoList(paymentRepository.findByInvoiceIdOrderByDateAsc(invoiceId));
+    }
+
+    /**
+     * Enregistre un paiement ; vide si la facture n'existe pas.
+     */
+    @Transactional
+    public Optional<PaymentDto> recordPayment(PaymentDto dto) {
+        if (dto.invoiceId() == null) {
+            throw new IllegalArgumentException("La facture du paiement est obligatoire");
+        }
+        if (dto.amount() == null || dto.amount().signum() <= 0) {
+            throw new IllegalArgumentException("Le montant du paiement doit être strictement positif");
+        }
+        if (dto.method() == null) {
+            throw new IllegalArgumentException("Le moyen de paiement est obligatoire");
+        }
+
+        Optional<Invoice> invoiceOpt = invoiceService.lockInvoiceForPayment(dto.invoiceId());
+        if (invoiceOpt.isEmpty()) {
+            return Optional.empty();
+        }
+
+        Invoice invoice = invoiceOpt.get();
+        String invoiceCurrency = invoice.getCurrency() != null ? invoice.getCurrency() : DEFAULT_CURRENCY;
+        String paymentCurrency = dto.currency() != null ? dto.currency() : invoiceCurrency;
+        LocalDate date = dto.date() != null ? dto.date() : LocalDate.now();
+        BigDecimal fxRate = resolveFxRate(dto, paymentCurrency, invoiceCurrency, date);
+        BigDecimal appliedAmount = fxRate == null
+                ? dto.amount().setScale(2, RoundingMode.HALF_UP)
+                : dto.amount().multiply(fxRate).setScale(2, RoundingMode.HALF_UP);
+
+        invoiceService.applyPayment(invoice, appliedAmount);
+
+        Payment payment = paymentRepository.save(Payment.builder()
+                .invoice(invoice)
+                .date(date)
+                .method(dto.method())
+                .currency(paymentCurrency)
+                .amount(dto.amount())
+                .fxRateAtPayment(fxRate)
+                .appliedAmount(appliedAmount)
+                .bankReference(dto.bankReference())
+                .build());
+
+        log.info("Paiement {} enregistré sur la facture {}", payment.getId(), invoice.getNumber());
+        return Optional.of(paymentMapper.toDto(payment));
+    }
+
+    /**
+     * Références bancaires déjà importées, en paiement ou en revue.
+     */
+    public Set<String> findKnownBankReferences(Collection<String> references) {
+        Set<String> known = new HashSet<>(paymentRepository.findExistingBankReferences(references));
+        known.addAll(paymentReviewRepository.findExistingBankReferences(references));
+        return known;
+    }
+
+    /**
+     * Enregistre un lot de rapprochements de relevé dans une seule transaction : les imputations sur les factures
+     * verrouillées, le reste en revue. Une imputation que la facture ne permet plus (réglée entre-temps) part en revue.
+     * Retourne ces imputations refusées, que l'appelant réintègre dans son index de rapprochement.
+     */
+    @Transactional
+    public List<PaymentMatch> recordImportBatch(List<PaymentMatch> matches) {
+        Instant now = Instant.now();
+        List<Payment> payments = new ArrayList<>();
+        List<PaymentReview> reviews = new ArrayList<>();
+        List<PaymentMatch> rejected = new ArrayList<>();
+        for (PaymentMatch match : matches) {
+            if (!match.isMatched()) {
+                reviews.add(toReview(match, match.reviewReason(), now));
+                continue;
+            }
+            applyAllocations(match, payments).ifPresent(reason -> {
+                reviews.add(toReview(match, reason, now));
+                rejected.add(match);
+            });
+        }
+
+        paymentRepository.saveAll(payments);
+        paymentReviewRepository.saveAll(reviews);
+        return rejected;
+    }
+
+    public Page<PaymentReviewDto> getPaymentReviews(PaymentReviewStatus status, Integer page, Integer size) {
+        return paymentReviewRepository.findByStatusOrderByCreatedAtAsc(status, PageRequest.of(page, size))
+                .map(PaymentReviewDto::of);
+    }
+
+    /**
+     * Impute une ligne en revue sur la facture choisie ; vide si la ligne n'existe pas.
+     * Sans taux fourni, une facture dans une autre devise que le relevé est imputée au taux du cache.
+     */
+    @Transactional
+    public Optional<PaymentReviewDto> resolveReview(UUID reviewId, UUID invoiceId, BigDecimal fxRate) {
+        Optional<PaymentReview> reviewOpt = paymentReviewRepository.findById(reviewId);
+        if (reviewOpt.isEmpty()) {
+            return Optional.empty();
+        }
+
+        PaymentReview review = pendingReview(reviewOpt.get());
+        PaymentDto payment = recordPayment(new PaymentDto(null, invoiceId, review.getBookingDate(), PaymentMethod.TRANSFER,
+                review.getCurrency(), review.getAmount(), fxRate, null, review.getBankReference()))
+                .orElseThrow(() -> new IllegalArgumentException("Facture introuvable : " + invoiceId));
+
+        review.setStatus(PaymentReviewStatus.RESOLVED);
+        review.setPaymentId(payment.id());
+        review.setResolvedAt(Instant.now());
+        return Optional.of(PaymentReviewDto.of(review));
+    }
+
+    /**
+     * Écarte une ligne en revue sans rapport avec une facture (virement interne, remboursement...).
+     */
+    @Transactional
+    public Optional<PaymentReviewDto> dismissReview(UUID reviewId) {
+        return paymentReviewRepository.findById(reviewId)
+                .map(this::pendingReview)
+                .map(review -> {
+                    review.setStatus(PaymentReviewStatus.DISMISSED);
+                    review.setResolvedAt(Instant.now());
+                    return PaymentReviewDto.of(review);
+                });
+    }
+
+    private PaymentReview pendingReview(PaymentReview review) {
+        if (review.getStatus() != PaymentReviewStatus.PENDING) {
+            throw new IllegalStateException("Cette ligne de relevé a déjà été traitée");
+        }
+        return review;
+    }
+
+    /**
+     * Verrouille et vérifie toutes les factures du crédit avant d'en imputer une seule : un virement groupé
+     * est imputé en entier ou pas du tout.
+     */
+    private Optional<String> applyAllocations(PaymentMatch match, List<Payment> payments) {
+        List<Invoice> invoices = new ArrayList<>(match.allocations().size());
+        for (PaymentMatch.Allocation allocation : match.allocations()) {
+            Optional<Invoice> invoice = invoiceService.lockInvoiceForPayment(allocation.invoiceId());
+            if (invoice.isEmpty()) {
+                return Optional.of("Facture supprimée pendant l'import");
+            }
+            Optional<String> rejection = invoiceService.getPaymentRejection(invoice.get(), allocation.amount());
+            if (rejection.isPresent()) {
+                return rejection;
+            }
+            invoices.add(invoice.get());
+        }
+
+        StatementLine line = match.line();
+        for (int i = 0; i < invoices.size(); i++) {
+            BigDecimal amount = match.allocations().get(i).amount();
+            Invoice invoice = invoiceService.applyPayment(invoices.get(i), amount);
+            payments.add(Payment.builder()
+                    .invoice(invoice)
+                    .date(line.bookingDate() != null ? line.bookingDate() : LocalDate.now())
+                    .method(PaymentMethod.TRANSFER)
+                    .currency(line.currency() != null ? line.currency() : invoice.getCurrency())
+                    .amount(amount)
+                    .appliedAmount(amount)
+                    .bankReference(line.reference())
+                    .build());
+        }
+        return Optional.empty();
+    }
+
+    private static PaymentReview toReview(PaymentMatch match, String reason, Instant now) {
+        StatementLine line = match.line();
+        List<UUID> candidates = match.isMatched()
+                ? match.allocations().stream().map(PaymentMatch.Allocation::invoiceId).toList()
+                : match.candidateInvoiceIds();
+        return PaymentReview.builder()
+                .bankReference(line.reference())
+                .bookingDate(line.bookingDate())
+                .amount(line.amount())
+                .currency(line.currency())
+                .counterpartyName(line.counterpartyName())
+                .remittanceInfo(line.remittanceInfo())
+                .candidateInvoiceIds(candidates.stream().map(UUID::toString).collect(Collectors.joining(",")))
+                .reason(reason)
+                .status(PaymentReviewStatus.PENDING)
+                .createdAt(now)
+                .build();
+    }
+
+    /**
+     * Taux du paiement vers la devise de la facture : celui fourni, sinon le taux croisé du cache au jour du paiement ;
+     * null si les deux devises sont identiques.
+     */
+    private BigDecimal resolveFxRate(PaymentDto dto, String paymentCurrency, String invoiceCurrency, LocalDate date) {
+        if (paymentCurrency.equalsIgnoreCase(invoiceCurrency)) {
+            return null;
+        }
+        if (dto.fxRateAtPayment() == null) {
+            return exchangeRateService.getCrossRate(paymentCurrency, invoiceCurrency, date);
+        }
+        if (dto.fxRateAtPayment().signum() <= 0) {
+            throw new IllegalArgumentException("Le taux de change doit être strictement positif");
+        }
+        return dto.fxRateAtPayment();
+    }
+}
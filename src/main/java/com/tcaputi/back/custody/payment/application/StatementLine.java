@@ -0,0 +1,16 @@
+package com.tcaputi.back.custody.payment.application;
+
+import java.math.BigDecimal;
+import java.time.LocalDate;
+
+/**
+ * Opération lue sur un relevé bancaire. Le montant est signé : positif pour un crédit, négatif pour un débit.
+ * La référence est celle attribuée par la banque ; à défaut, l'import en dérive une du contenu de la ligne.
+ */
+public record StatementLine(String reference,
+                            LocalDate bookingDate,
+                            BigDecimal amount,
+                            String currency,
+                            String counterpartyName,
+                            String remittanceInfo) {
+}
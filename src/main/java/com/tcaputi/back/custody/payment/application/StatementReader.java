@@ -0,0 +1,17 @@
+package com.tcaputi.back.custody.payment.application;
+
+import java.io.Closeable;
+import java.io.IOException;
+
+/**
+ * Lecture en flux d'un relevé bancaire, une opération à la fois : la mémoire utilisée ne dépend pas
+ * de la taille du fichier.
+ */
+public interface StatementReader extends Closeable {
+
+    /**
+     * Opération suivante, null en fin de relevé.
+     * Une ligne illisible lève une IllegalArgumentException ; la lecture peut reprendre à la ligne suivante.
+     */
+    StatementLine next() throws IOException;
+}
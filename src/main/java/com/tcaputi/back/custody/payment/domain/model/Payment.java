@@ -14,13 +14,16 @@ import java.util.UUID;
 @Builder
 @NoArgsConstructor
 @AllArgsConstructor
-@Table(name = "payments")
+@Table(name = "payments", indexes = {
+        @Index(name = "idx_payments_invoice_id", columnList = "invoice_id"),
+        @Index(name = "uk_payments_bank_reference_invoice", columnList = "bankReference, invoice_id", unique = true)
+})
 public class Payment {
     @Id
     @GeneratedValue(strategy = GenerationType.UUID)
     private UUID id;
 
-    @ManyToOne(optional = false)
+    @ManyToOne(fetch = FetchType.LAZY, optional = false)
     private Invoice invoice;
 
     private LocalDate date;
@@ -30,5 +33,9 @@ public class Payment {
 
     private String currency;
     private BigDecimal amount;
-    private BigDecimal fxRateAtPayment;
+    private BigDecimal fxRateAtPayment; // Unités de devise de la facture pour une unité de devise du paiement
+
+    private BigDecimal appliedAmount; // Montant imputé, en devise de la facture
+
+    private String bankReference; // Référence de l'opération sur le relevé, rend l'import rejouable
 }
@@ -0,0 +1,53 @@
+package com.tcaputi.back.custody.payment.domain.model;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.util.UUID;
+
+/**
+ * Crédit d'un relevé bancaire que le rapprochement automatique n'a pas pu imputer sans ambiguïté.
+ */
+@Entity
+@Builder
+@Setter
+@Getter
+@NoArgsConstructor
+@AllArgsConstructor
+@Table(name = "payment_reviews", indexes = {
+        @Index(name = "idx_payment_reviews_status_created_at", columnList = "status, createdAt"),
+        @Index(name = "idx_payment_reviews_bank_reference", columnList = "bankReference")
+})
+public class PaymentReview {
+    @Id
+    @GeneratedValue(strategy = GenerationType.UUID)
+    private UUID id;
+
+    private String bankReference;
+    private LocalDate bookingDate;
+    private BigDecimal amount;
+    private String currency;
+    private String counterpartyName;
+
+    @Column(columnDefinition = "TEXT")
+    private String remittanceInfo;
+
+    @Column(columnDefinition = "TEXT")
+    private String candidateInvoiceIds; // Factures proposées, identifiants séparés par des virgules
+
+    private String reason;
+
+    @Enumerated(EnumType.STRING)
+    @Column(nullable = false)
+    private PaymentReviewStatus status;
+
+    private UUID paymentId; // Paiement enregistré à la résolution
+
+    @Column(nullable = false)
+    private Instant createdAt;
+
+    private Instant resolvedAt;
+}
@@ -0,0 +1,11 @@
+package com.tcaputi.back.custody.payment.domain.model;
+
+/**
+ * Cycle de vie d'une ligne de relevé en attente de rapprochement manuel.
+ * PENDING -> RESOLVED (paiement enregistré) ou DISMISSED (sans rapport avec une facture)
+ */
+public enum PaymentReviewStatus {
+    PENDING,
+    RESOLVED,
+    DISMISSED
+}
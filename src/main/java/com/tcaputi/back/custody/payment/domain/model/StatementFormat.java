@@ -0,0 +1,9 @@
+package com.tcaputi.back.custody.payment.domain.model;
+
+/**
+ * Formats de relevé bancaire acceptés à l'import.
+ */
+public enum StatementFormat {
+    CSV,
+    CAMT_053
+}
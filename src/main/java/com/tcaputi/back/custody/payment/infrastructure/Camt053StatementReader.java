@@ -0,0 +1,259 @@
+package com.tcaputi.back.custody.payment.infrastructure;
+
+import com.tcaputi.back.custody.payment.application.StatementLine;
+import com.tcaputi.back.custody.payment.application.StatementReader;
+
+import javax.xml.stream.XMLInputFactory;
+import javax.xml.stream.XMLStreamConstants;
+import javax.xml.stream.XMLStreamException;
+import javax.xml.stream.XMLStreamReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.math.BigDecimal;
+import java.time.LocalDate;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+
+/**
+ * Relevé de compte ISO 20022 camt.053 lu avec StAX : seule l'écriture (Ntry) en cours est gardée en mémoire.
+ * Les éléments sont repérés par leur nom local, ce qui couvre les versions 001.02 à 001.08 du schéma ;
+ * une écriture groupée produit une opération par transaction (TxDtls).
+ */
+class Camt053StatementReader implements StatementReader {
+
+    private static final String CREDIT = "CRDT";
+    private static final String NOT_PROVIDED = "NOTPROVIDED";
+
+    private final InputStream inputStream;
+    private final XMLStreamReader xml;
+    private final Deque<String> path = new ArrayDeque<>();
+    private final Deque<StatementLine> pending = new ArrayDeque<>();
+    private final StringBuilder text = new StringBuilder();
+
+    private Entry entry;
+    private Transaction transaction;
+    private String amountCurrency;
+
+    Camt053StatementReader(InputStream inputStream) throws IOException {
+        XMLInputFactory factory = XMLInputFactory.newFactory();
+        factory.setProperty(XMLInputFactory.SUPPORT_DTD, false);
+        factory.setProperty(XMLInputFactory.IS_SUPPORTING_EXTERNAL_ENTITIES, false);
+        this.inputStream = inputStream;
+        try {
+            this.xml = factory.createXMLStreamReader(inputStream);
+        } catch (XMLStreamException e) {
+            throw new IOException("Relevé camt.053 illisible : " + e.getMessage(), e);
+        }
+    }
+
+    @Override
+    public StatementLine next() throws IOException {
+        try {
+            while (pending.isEmpty() && xml.hasNext()) {
+                switch (xml.next()) {
+                    case XMLStreamConstants.START_ELEMENT -> startElement(xml.getLocalName());
+                    case XMLStreamConstants.CHARACTERS, XMLStreamConstants.CDATA -> text.append(xml.getText());
+                    case XMLStreamConstants.END_ELEMENT -> endElement(xml.getLocalName());
+                    default -> {
+                    }
+                }
+            }
+        } catch (XMLStreamException e) {
+            throw new IOException("Relevé camt.053 illisible : " + e.getMessage(), e);
+        }
+        return pending.poll();
+    }
+
+    @Override
+    public void close() throws IOException {
+        try {
+            xml.close();
+        } catch (XMLStreamException e) {
+            throw new IOException(e);
+        } finally {
+            inputStream.close();
+        }
+    }
+
+    private void startElement(String name) {
+        path.push(name);
+        text.setLength(0);
+        switch (name) {
+            case "Ntry" -> entry = new Entry();
+            case "TxDtls" -> transaction = entry != null ? new Transaction() : null;
+            case "Amt" -> amountCurrency = xml.getAttributeValue(null, "Ccy");
+            default -> {
+            }
+        }
+    }
+
+    private void endElement(String name) {
+        path.pop();
+        String parent = path.peek();
+        String value = text.toString().trim();
+        text.setLength(0);
+        if (entry == null) {
+            return;
+        }
+
+        try {
+            if (transaction != null) {
+                readTransactionField(name, parent, value);
+            } else {
+                readEntryField(name, parent, value);
+            }
+        } catch (DateTimeParseException | NumberFormatException e) {
+            entry.error = name + " : " + e.getMessage();
+        }
+
+        if ("TxDtls".equals(name) && transaction != null) {
+            entry.transactions.add(transaction);
+            transaction = null;
+        } else if ("Ntry".equals(name)) {
+            Entry done = entry;
+            entry = null;
+            emit(done);
+        }
+    }
+
+    private void readEntryField(String name, String parent, String value) {
+        if ("Ntry".equals(parent)) {
+            switch (name) {
+                case "Amt" -> {
+                    entry.amount = new BigDecimal(value);
+                    entry.currency = amountCurrency;
+                }
+                case "CdtDbtInd" -> entry.credit = CREDIT.equals(value);
+                case "RvslInd" -> entry.reversal = Boolean.parseBoolean(value);
+                case "AcctSvcrRef" -> entry.reference = value;
+                case "NtryRef" -> entry.entryReference = value;
+                case "AddtlNtryInf" -> entry.information = value;
+                default -> {
+                }
+            }
+        } else if (("Dt".equals(name) || "DtTm".equals(name)) && entry.bookingDate == null
+                && ("BookgDt".equals(parent) || "ValDt".equals(parent))) {
+            entry.bookingDate = LocalDate.parse(value.substring(0, Math.min(10, value.length())));
+        }
+    }
+
+    private void readTransactionField(String name, String parent, String value) {
+        switch (name) {
+            case "Amt" -> {
+                if ("TxDtls".equals(parent) || "TxAmt".equals(parent)) {
+                    transaction.amount = new BigDecimal(value);
+                    transaction.currency = amountCurrency;
+                }
+            }
+            case "CdtDbtInd" -> {
+                if ("TxDtls".equals(parent)) {
+                    transaction.credit = CREDIT.equals(value);
+                }
+            }
+            case "AcctSvcrRef" -> {
+                if ("Refs".equals(parent)) {
+                    transaction.reference = value;
+                }
+            }
+            case "EndToEndId" -> {
+                if ("Refs".equals(parent) && !NOT_PROVIDED.equals(value)) {
+                    transaction.appendRemittance(value); // Souvent renseigné avec le numéro de facture par le payeur
+                }
+            }
+            case "Ustrd" -> {
+                if ("RmtInf".equals(parent)) {
+                    transaction.appendRemittance(value);
+                }
+            }
+            case "Ref" -> {
+                if ("CdtrRefInf".equals(parent)) {
+                    transaction.appendRemittance(value);
+                }
+            }
+            case "Nm" -> {
+                if (transaction.debtorName == null && path.contains("Dbtr") && path.contains("RltdPties")) {
+                    transaction.debtorName = value;
+                }
+            }
+            default -> {
+            }
+        }
+    }
+
+    private void emit(Entry done) {
+        String entryReference = done.reference != null ? done.reference : done.entryReference;
+        if (done.error != null) {
+            throw new IllegalArgumentException("Écriture " + entryReference + " illisible : " + done.error);
+        }
+        if (done.reversal) {
+            return; // Contre-passation : sans effet sur les factures
+        }
+
+        if (done.transactions.isEmpty()) {
+            pending.add(new StatementLine(entryReference, done.bookingDate, signed(done.amount, done.credit),
+                    done.currency, null, done.information));
+            return;
+        }
+
+        boolean single = done.transactions.size() == 1;
+        List<StatementLine> lines = new ArrayList<>(done.transactions.size());
+        for (int i = 0; i < done.transactions.size(); i++) {
+            Transaction tx = done.transactions.get(i);
+            BigDecimal amount = tx.amount != null ? tx.amount : single ? done.amount : null;
+            if (amount == null) {
+                throw new IllegalArgumentException("Écriture " + entryReference + " : montant de la transaction " + (i + 1) + " absent");
+            }
+            String reference = tx.reference != null ? tx.reference
+                    : entryReference == null || single ? entryReference : entryReference + "/" + (i + 1);
+            lines.add(new StatementLine(reference, done.bookingDate,
+                    signed(amount, tx.credit != null ? tx.credit : done.credit),
+                    tx.currency != null ? tx.currency : done.currency,
+                    tx.debtorName,
+                    tx.remittance != null ? tx.remittance.toString() : done.information));
+        }
+        pending.addAll(lines);
+    }
+
+    private static BigDecimal signed(BigDecimal amount, Boolean credit) {
+        if (amount == null || credit == null) {
+            throw new IllegalArgumentException("Écriture sans montant ou sans sens (CdtDbtInd)");
+        }
+        return credit ? amount : amount.negate();
+    }
+
+    private static final class Entry {
+        private BigDecimal amount;
+        private String currency;
+        private Boolean credit;
+        private boolean reversal;
+        private LocalDate bookingDate;
+        private String reference;
+        private String entryReference;
+        private String information;
+        private String error;
+        private final List<Transaction> transactions = new ArrayList<>();
+    }
+
+    private static final class Transaction {
+        private BigDecimal amount;
+        private String currency;
+        private Boolean credit;
+        private String reference;
+        private String debtorName;
+        private StringBuilder remittance;
+
+        private void appendRemittance(String value) {
+            if (value.isEmpty()) {
+                return;
+            }
+            if (remittance == null) {
+                remittance = new StringBuilder(value);
+            } else {
+                remittance.append(' ').append(value);
+            }
+        }
+    }
+}
@@ -0,0 +1,234 @@
+package com.tcaputi.back.custody.payment.infrastructure;
+
+import com.tcaputi.back.custody.payment.application.StatementLine;
+import com.tcaputi.back.custody.payment.application.StatementReader;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.math.BigDecimal;
+import java.nio.charset.StandardCharsets;
+import java.text.Normalizer;
+import java.time.LocalDate;
+import java.time.format.DateTimeFormatter;
+import java.time.format.DateTimeParseException;
+import java.util.ArrayList;
+import java.util.EnumMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Relevé CSV exporté depuis la banque, lu ligne à ligne.
+ * Les colonnes sont repérées par leur en-tête (français ou anglais) et le séparateur (point-virgule, virgule
+ * ou tabulation) est déduit de la ligne d'en-tête. Le montant est soit signé, soit réparti en colonnes Débit / Crédit ;
+ * les dates sont au format jj/mm/aaaa ou aaaa-mm-jj.
+ */
+class CsvStatementReader implements StatementReader {
+
+    private static final DateTimeFormatter FRENCH_DATE = DateTimeFormatter.ofPattern("dd/MM/yyyy");
+
+    private enum Column { DATE, AMOUNT, CREDIT, DEBIT, CURRENCY, COUNTERPARTY, REMITTANCE, REFERENCE }
+
+    private static final Map<String, Column> HEADER_ALIASES = Map.ofEntries(
+            Map.entry("date", Column.DATE),
+            Map.entry("date operation", Column.DATE),
+            Map.entry("date comptable", Column.DATE),
+            Map.entry("date de comptabilisation", Column.DATE),
+            Map.entry("booking date", Column.DATE),
+            Map.entry("montant", Column.AMOUNT),
+            Map.entry("amount", Column.AMOUNT),
+            Map.entry("credit", Column.CREDIT),
+            Map.entry("debit", Column.DEBIT),
+            Map.entry("devise", Column.CURRENCY),
+            Map.entry("currency", Column.CURRENCY),
+            Map.entry("tiers", Column.COUNTERPARTY),
+            Map.entry("contrepartie", Column.COUNTERPARTY),
+            Map.entry("donneur d'ordre", Column.COUNTERPARTY),
+            Map.entry("emetteur", Column.COUNTERPARTY),
+            Map.entry("counterparty", Column.COUNTERPARTY),
+            Map.entry("libelle", Column.REMITTANCE),
+            Map.entry("motif", Column.REMITTANCE),
+            Map.entry("communication", Column.REMITTANCE),
+            Map.entry("description", Column.REMITTANCE),
+            Map.entry("label", Column.REMITTANCE),
+            Map.entry("reference", Column.REFERENCE),
+            Map.entry("reference banque", Column.REFERENCE),
+            Map.entry("ref", Column.REFERENCE));
+
+    private final BufferedReader reader;
+    private final String defaultCurrency;
+    private final char delimiter;
+    private final Map<Column, Integer> columns;
+    private int lineNumber;
+
+    CsvStatementReader(InputStream inputStream, String defaultCurrency) throws IOException {
+        this.reader = new BufferedReader(new InputStreamReader(inputStream, StandardCharsets.UTF_8));
+        this.defaultCurrency = defaultCurrency;
+
+        String header = reader.readLine();
+        if (header == null) {
+            throw new IllegalArgumentException("Le relevé CSV est vide");
+        }
+        lineNumber = 1;
+        if (header.startsWith("\uFEFF")) {
+            header = header.substring(1); // BOM des exports Excel
+        }
+        this.delimiter = detectDelimiter(header);
+        this.columns = mapColumns(parseRecord(header));
+    }
+
+    @Override
+    public StatementLine next() throws IOException {
+        List<String> record;
+        do {
+            String line = reader.readLine();
+            if (line == null) {
+                return null;
+            }
+            lineNumber++;
+            record = parseRecord(line);
+        } while (record.stream().allMatch(String::isEmpty));
+
+        try {
+            String currency = value(record, Column.CURRENCY);
+            return new StatementLine(
+                    value(record, Column.REFERENCE),
+                    parseDate(value(record, Column.DATE)),
+                    readAmount(record),
+                    currency != null ? currency.toUpperCase(Locale.ROOT) : defaultCurrency,
+                    value(record, Column.COUNTERPARTY),
+                    value(record, Column.REMITTANCE));
+        } catch (DateTimeParseException | NumberFormatException e) {
+            throw new IllegalArgumentException("Ligne " + lineNumber + " du relevé illisible : " + e.getMessage(), e);
+        }
+    }
+
+    @Override
+    public void close() throws IOException {
+        reader.close();
+    }
+
+    private Map<Column, Integer> mapColumns(List<String> header) {
+        Map<Column, Integer> mapped = new EnumMap<>(Column.class);
+        for (int i = 0; i < header.size(); i++) {
+            Column column = HEADER_ALIASES.get(normalizeHeader(header.get(i)));
+            if (column != null) {
+                mapped.putIfAbsent(column, i);
+            }
+        }
+        if (!mapped.containsKey(Column.DATE)
+                || (!mapped.containsKey(Column.AMOUNT) && !mapped.containsKey(Column.CREDIT))) {
+            throw new IllegalArgumentException("En-tête CSV non reconnu : une colonne de date et une colonne de montant sont requises");
+        }
+        return mapped;
+    }
+
+    /**
+     * Découpe un enregistrement ; un champ entre guillemets peut contenir le séparateur ou s'étendre sur plusieurs lignes.
+     */
+    private List<String> parseRecord(String line) throws IOException {
+        List<String> fields = new ArrayList<>();
+        StringBuilder field = new StringBuilder();
+        boolean quoted = false;
+        while (true) {
+            for (int i = 0; i < line.length(); i++) {
+                char c = line.charAt(i);
+                if (quoted) {
+                    if (c != '"') {
+                        field.append(c);
+                    } else if (i + 1 < line.length() && line.charAt(i + 1) == '"') {
+                        field.append('"');
+                        i++;
+                    } else {
+                        quoted = false;
+                    }
+                } else if (c == '"') {
+                    quoted = true;
+                } else if (c == delimiter) {
+                    fields.add(field.toString().trim());
+                    field.setLength(0);
+                } else {
+                    field.append(c);
+                }
+            }
+            if (!quoted) {
+                break;
+            }
+            line = reader.readLine();
+            if (line == null) {
+                throw new IllegalArgumentException("Ligne " + lineNumber + " : guillemet non fermé en fin de relevé");
+            }
+            lineNumber++;
+            field.append('\n');
+        }
+        fields.add(field.toString().trim());
+        return fields;
+    }
+
+    private String value(List<String> record, Column column) {
+        Integer index = columns.get(column);
+        if (index == null || index >= record.size() || record.get(index).isEmpty()) {
+            return null;
+        }
+        return record.get(index);
+    }
+
+    private BigDecimal readAmount(List<String> record) {
+        String amount = value(record, Column.AMOUNT);
+        if (amount != null) {
+            return parseAmount(amount);
+        }
+        String credit = value(record, Column.CREDIT);
+        if (credit != null) {
+            return parseAmount(credit).abs();
+        }
+        String debit = value(record, Column.DEBIT);
+        if (debit != null) {
+            return parseAmount(debit).abs().negate();
+        }
+        throw new NumberFormatException("montant absent");
+    }
+
+    /**
+     * Montant au format français (1 234,56) ou anglais (1,234.56) : le dernier séparateur est la décimale.
+     */
+    private static BigDecimal parseAmount(String raw) {
+        String digits = raw.replaceAll("[^0-9,.\\-]", "");
+        if (digits.lastIndexOf(',') > digits.lastIndexOf('.')) {
+            digits = digits.replace(".", "").replace(',', '.');
+        } else {
+            digits = digits.replace(",", "");
+        }
+        return new BigDecimal(digits);
+    }
+
+    private static LocalDate parseDate(String raw) {
+        if (raw == null) {
+            throw new DateTimeParseException("date absente", "", 0);
+        }
+        return raw.indexOf('/') >= 0 ? LocalDate.parse(raw, FRENCH_DATE) : LocalDate.parse(raw);
+    }
+
+    private static char detectDelimiter(String header) {
+        char best = ';';
+        long bestCount = header.chars().filter(c -> c == ';').count();
+        for (char candidate : new char[]{',', '\t'}) {
+            long count = header.chars().filter(c -> c == candidate).count();
+            if (count > bestCount) {
+                best = candidate;
+                bestCount = count;
+            }
+        }
+        return best;
+    }
+
+    private static String normalizeHeader(String header) {
+        return Normalizer.normalize(header, Normalizer.Form.NFD)
+                .replaceAll("\\p{M}", "")
+                .toLowerCase(Locale.ROOT)
+                .replaceAll("\\s+", " ")
+                .trim();
+    }
+}
@@ -0,0 +1,17 @@
+package com.tcaputi.back.custody.payment.infrastructure;
+
+import com.tcaputi.back.custody.payment.domain.model.Payment;
+import com.tcaputi.back.custody.payment.interfaces.dto.PaymentDto;
+import org.mapstruct.Mapper;
+import org.mapstruct.Mapping;
+
+import java.util.List;
+
+@Mapper(componentModel = "spring")
+public interface PaymentMapper {
+
+    @Mapping(source = "invoice.id", target = "invoiceId")
+    PaymentDto toDto(Payment payment);
+
+    List<PaymentDto> toDtoList(List<Payment> payments);
+}
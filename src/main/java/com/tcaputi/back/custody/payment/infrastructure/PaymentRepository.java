@@ -0,0 +1,21 @@
+package com.tcaputi.back.custody.payment.infrastructure;
+
+import com.tcaputi.back.custody.payment.domain.model.Payment;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.UUID;
+
+@Repository
+public interface PaymentRepository extends JpaRepository<Payment, UUID> {
+
+    List<Payment> findByInvoiceIdOrderByDateAsc(UUID invoiceId);
+
+    // Import de relevés : opérations déjà enregistrées lors d'un import précédent
+    @Query("SELECT DISTINCT p.bankReference FROM Payment p WHERE p.bankReference IN :references")
+    List<String> findExistingBankReferences(@Param("references") Collection<String> references);
+}
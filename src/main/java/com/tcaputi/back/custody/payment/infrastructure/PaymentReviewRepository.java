@@ -0,0 +1,23 @@
+package com.tcaputi.back.custody.payment.infrastructure;
+
+import com.tcaputi.back.custody.payment.domain.model.PaymentReview;
+import com.tcaputi.back.custody.payment.domain.model.PaymentReviewStatus;
+import org.springframework.data.domain.Page;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.Collection;
+import java.util.List;
+import java.util.UUID;
+
+@Repository
+public interface PaymentReviewRepository extends JpaRepository<PaymentReview, UUID> {
+
+    Page<PaymentReview> findByStatusOrderByCreatedAtAsc(PaymentReviewStatus status, Pageable pageable);
+
+    @Query("SELECT DISTINCT r.bankReference FROM PaymentReview r WHERE r.bankReference IN :references")
+    List<String> findExistingBankReferences(@Param("references") Collection<String> references);
+}
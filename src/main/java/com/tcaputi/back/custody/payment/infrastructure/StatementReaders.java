@@ -0,0 +1,26 @@
+package com.tcaputi.back.custody.payment.infrastructure;
+
+import com.tcaputi.back.custody.payment.application.StatementReader;
+import com.tcaputi.back.custody.payment.domain.model.StatementFormat;
+
+import java.io.IOException;
+import java.io.InputStream;
+
+/**
+ * Ouvre le lecteur adapté au format du relevé.
+ */
+public final class StatementReaders {
+
+    private StatementReaders() {
+    }
+
+    /**
+     * La devise par défaut s'applique aux relevés CSV sans colonne de devise.
+     */
+    public static StatementReader open(StatementFormat format, InputStream inputStream, String defaultCurrency) throws IOException {
+        return switch (format) {
+            case CSV -> new CsvStatementReader(inputStream, defaultCurrency);
+            case CAMT_053 -> new Camt053StatementReader(inputStream);
+        };
+    }
+}
@@ -0,0 +1,115 @@
+package com.tcaputi.back.custody.payment.interfaces;
+
+import com.tcaputi.back.custody.payment.application.BankStatementImportService;
+import com.tcaputi.back.custody.payment.application.PaymentService;
+import com.tcaputi.back.custody.payment.domain.model.PaymentReviewStatus;
+import com.tcaputi.back.custody.payment.domain.model.StatementFormat;
+import com.tcaputi.back.custody.payment.interfaces.dto.BankStatementImportResult;
+import com.tcaputi.back.custody.payment.interfaces.dto.PaymentDto;
+import com.tcaputi.back.custody.payment.interfaces.dto.PaymentReviewDto;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.data.domain.Page;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.*;
+import org.springframework.web.multipart.MultipartFile;
+
+import java.io.IOException;
+import java.io.InputStream;
+import java.math.BigDecimal;
+import java.net.URI;
+import java.util.List;
+import java.util.UUID;
+
+@Slf4j
+@RestController
+@RequestMapping("/payments")
+@RequiredArgsConstructor
+class PaymentController {
+
+    private final PaymentService paymentService;
+    private final BankStatementImportService bankStatementImportService;
+
+    @GetMapping("/{id}")
+    public ResponseEntity<PaymentDto> getPayment(@PathVariable UUID id) {
+        return paymentService.getPaymentById(id)
+                .map(ResponseEntity::ok)
+                .orElse(ResponseEntity.notFound().build());
+    }
+
+    @GetMapping("/invoice/{invoiceId}")
+    public ResponseEntity<List<PaymentDto>> getPaymentsByInvoice(@PathVariable UUID invoiceId) {
+        return ResponseEntity.ok(paymentService.getPaymentsByInvoice(invoiceId));
+    }
+
+    /**
+     * Enregistre un paiement ; le reste à payer et le statut de la facture sont mis à jour dans la foulée.
+     */
+    @PostMapping
+    public ResponseEntity<PaymentDto> recordPayment(@RequestBody PaymentDto dto) {
+        try {
+            return paymentService.recordPayment(dto)
+                    .map(payment -> ResponseEntity.created(URI.create("/payments/" + payment.id())).body(payment))
+                    .orElse(ResponseEntity.notFound().build());
+        } catch (IllegalArgumentException | IllegalStateException e) {
+            log.warn("Erreur lors de l'enregistrement du paiement : {}", e.getMessage());
+            return ResponseEntity.badRequest().build();
+        }
+    }
+
+    /**
+     * Importe un relevé bancaire (CSV ou camt.053) : les crédits rapprochés sans ambiguïté sont enregistrés
+     * comme paiements, les autres rejoignent la file de revue.
+     */
+    @PostMapping(value = "/imports", consumes = MediaType.MULTIPART_FORM_DATA_VALUE)
+    public ResponseEntity<BankStatementImportResult> importStatement(
+            @RequestParam("file") MultipartFile file,
+            @RequestParam(defaultValue = "CSV") StatementFormat format) {
+        try (InputStream inputStream = file.getInputStream()) {
+            return ResponseEntity.ok(bankStatementImportService.importStatement(inputStream, format));
+        } catch (IllegalStateException e) {
+            log.warn(e.getMessage());
+            return ResponseEntity.status(HttpStatus.CONFLICT).build();
+        } catch (IllegalArgumentException | IOException e) {
+            log.warn("Erreur lors de l'import du relevé {} : {}", file.getOriginalFilename(), e.getMessage());
+            return ResponseEntity.badRequest().build();
+        }
+    }
+
+    @GetMapping("/reviews")
+    public ResponseEntity<Page<PaymentReviewDto>> getPaymentReviews(
+            @RequestParam(defaultValue = "PENDING") PaymentReviewStatus status,
+            @RequestParam(defaultValue = "0") Integer page,
+            @RequestParam(defaultValue = "20") Integer size) {
+        return ResponseEntity.ok(paymentService.getPaymentReviews(status, page, size));
+    }
+
+    @PostMapping("/reviews/{id}/resolve")
+    public ResponseEntity<PaymentReviewDto> resolveReview(
+            @PathVariable UUID id,
+            @RequestParam UUID invoiceId,
+            @RequestParam(required = false) BigDecimal fxRate) {
+        try {
+            return paymentService.resolveReview(id, invoiceId, fxRate)
+                    .map(ResponseEntity::ok)
+                    .orElse(ResponseEntity.notFound().build());
+        } catch (IllegalArgumentException | IllegalStateException e) {
+            log.warn("Erreur lors du rapprochement manuel de la ligne {} : {}", id, e.getMessage());
+            return ResponseEntity.badRequest().build();
+        }
+    }
+
+    @PostMapping("/reviews/{id}/dismiss")
+    public ResponseEntity<PaymentReviewDto> dismissReview(@PathVariable UUID id) {
+        try {
+            return paymentService.dismissReview(id)
+                    .map(ResponseEntity::ok)
+                    .orElse(ResponseEntity.notFound().build());
+        } catch (IllegalStateException e) {
+            log.warn("Erreur lors de l'abandon de la ligne {} : {}", id, e.getMessage());
+            return ResponseEntity.badRequest().build();
+        }
+    }
+}
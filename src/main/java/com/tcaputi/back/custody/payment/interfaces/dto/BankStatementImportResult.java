@@ -0,0 +1,13 @@
+package com.tcaputi.back.custody.payment.interfaces.dto;
+
+/**
+ * Bilan d'un import de relevé bancaire.
+ * Les doublons sont les opérations déjà importées ; les lignes en erreur sont illisibles ou n'ont pas pu être enregistrées.
+ */
+public record BankStatementImportResult(int lines,
+                                        int credits,
+                                        int matched,
+                                        int queuedForReview,
+                                        int duplicates,
+                                        int failed) {
+}
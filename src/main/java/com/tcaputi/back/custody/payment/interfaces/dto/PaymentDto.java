@@ -17,5 +17,7 @@ public record PaymentDto(UUID id,
                          PaymentMethod method,
                          String currency,
                          BigDecimal amount,
-                         BigDecimal fxRateAtPayment) implements Serializable {
+                         BigDecimal fxRateAtPayment,
+                         BigDecimal appliedAmount,
+                         String bankReference) implements Serializable {
 }
\ No newline at end of file
@@ -0,0 +1,38 @@
+package com.tcaputi.back.custody.payment.interfaces.dto;
+
+import com.tcaputi.back.custody.payment.domain.model.PaymentReview;
+import com.tcaputi.back.custody.payment.domain.model.PaymentReviewStatus;
+
+import java.math.BigDecimal;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.util.Arrays;
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Ligne de relevé à rapprocher manuellement, avec les factures proposées par le rapprochement automatique.
+ */
+public record PaymentReviewDto(UUID id,
+                               String bankReference,
+                               LocalDate bookingDate,
+                               BigDecimal amount,
+                               String currency,
+                               String counterpartyName,
+                               String remittanceInfo,
+                               List<UUID> candidateInvoiceIds,
+                               String reason,
+                               PaymentReviewStatus status,
+                               UUID paymentId,
+                               Instant createdAt,
+                               Instant resolvedAt) {
+
+    public static PaymentReviewDto of(PaymentReview review) {
+        List<UUID> candidates = review.getCandidateInvoiceIds() == null || review.getCandidateInvoiceIds().isEmpty()
+                ? List.of()
+                : Arrays.stream(review.getCandidateInvoiceIds().split(",")).map(UUID::fromString).toList();
+        return new PaymentReviewDto(review.getId(), review.getBankReference(), review.getBookingDate(), review.getAmount(),
+                review.getCurrency(), review.getCounterpartyName(), review.getRemittanceInfo(), candidates,
+                review.getReason(), review.getStatus(), review.getPaymentId(), review.getCreatedAt(), review.getResolvedAt());
+    }
+}
@@ -1,7 +1,11 @@
 package com.tcaputi.back.custody.project.application;
 
-import com.tcaputi.back.custody.client.domain.model.Client;
+import com.tcaputi.back.custody.client.application.ClientService;
 import com.tcaputi.back.custody.client.infrastructure.ClientRepository;
+import com.tcaputi.back.custody.common.config.CacheConfig;
+import com.tcaputi.back.custody.common.dto.CursorPage;
+import com.tcaputi.back.custody.common.infrastructure.CursorCodec;
+import com.tcaputi.back.custody.common.infrastructure.ETags;
 import com.tcaputi.back.custody.project.domain.model.Project;
 import com.tcaputi.back.custody.project.domain.model.ProjectStatus;
 import com.tcaputi.back.custody.project.infrastructure.ProjectMapper;
@@ -9,12 +13,15 @@ import com.tcaputi.back.custody.project.infrastructure.ProjectRepository;
 import com.tcaputi.back.custody.project.interfaces.dto.ProjectDto;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
+import org.springframework.cache.annotation.CacheEvict;
+import org.springframework.cache.annotation.Cacheable;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
 import java.util.List;
+import java.util.Objects;
 import java.util.Optional;
 import java.util.UUID;
 
@@ -26,6 +33,7 @@ public class ProjectService {
 
     private final ProjectRepository projectRepository;
     private final ClientRepository clientRepository;
+    private final ClientService clientService;
     private final ProjectMapper projectMapper;
 
     public Page<ProjectDto> getProjects(Integer page, Integer size) {
@@ -33,11 +41,34 @@ public class ProjectService {
         return projects.map(projectMapper::toDto);
     }
 
+    public CursorPage<ProjectDto> getProjectsByCursor(String cursor, int size, boolean withTotal) {
+        CursorPage.validateSize(size);
+        int limit = size + 1; // Une ligne de plus pour savoir s'il existe une page suivante
+
+        List<Project> projects;
+        if (cursor == null) {
+            projects = projectRepository.findFirstKeysetPage(limit);
+        } else {
+            CursorCodec.Cursor position = CursorCodec.decode(cursor);
+            projects = projectRepository.findKeysetPageAfter(Objects.requireNonNullElse(position.key(), ""), position.id(), limit);
+        }
+
+        Long total = withTotal ? projectRepository.count() : null;
+        return CursorPage.of(projects, size, projectMapper::toDto,
+                project -> CursorCodec.encode(project.getCode(), project.getId()), total);
+    }
+
+    @Cacheable(cacheNames = CacheConfig.PROJECTS, key = "#id", unless = "#result == null")
     public Optional<ProjectDto> getProjectById(UUID id) {
         return projectRepository.findById(id)
                 .map(projectMapper::toDto);
     }
 
+    public Optional<String> getProjectETag(UUID id) {
+        return projectRepository.findStampById(id)
+                .map(stamp -> ETags.of(stamp.id(), stamp.updatedAt()));
+    }
+
     public int getProjectCountByClientId(UUID clientId) {
         return projectRepository.countProjectsByClientId(clientId);
     }
@@ -92,7 +123,7 @@ public class ProjectService {
         log.debug("Création d'un nouveau projet : {}", dto.name());
 
         // Validation du client
-        if (!clientRepository.existsById(dto.clientId())) {
+        if (clientService.getClientById(dto.clientId()).isEmpty()) {
             throw new IllegalArgumentException("Le client avec l'ID " + dto.clientId() + " n'existe pas");
         }
 
@@ -106,9 +137,8 @@ public class ProjectService {
 
         Project entity = projectMapper.toEntity(dto);
 
-        // Récupération et assignation du client (obligatoire avec le premier mapping)
-        Client client = clientRepository.findById(dto.clientId()).orElseThrow();
-        entity.setClient(client);
+        // Assignation du client (obligatoire avec le premier mapping), son existence est déjà vérifiée
+        entity.setClient(clientRepository.getReferenceById(dto.clientId()));
 
         Project savedProject = projectRepository.save(entity);
 
@@ -118,6 +148,7 @@ public class ProjectService {
 
 
     @Transactional
+    @CacheEvict(cacheNames = CacheConfig.PROJECTS, key = "#id")
     public boolean deleteProject(UUID id) {
         if (!projectRepository.existsById(id)) {
             log.warn("Tentative de suppression d'un projet inexistant : {}", id);
@@ -130,6 +161,7 @@ public class ProjectService {
     }
 
     @Transactional
+    @CacheEvict(cacheNames = CacheConfig.PROJECTS, key = "#id")
     public Optional<ProjectDto> updateProject(UUID id, ProjectDto dto) {
         // Validation de cohérence ID
         if (!id.equals(dto.id())) {
@@ -143,7 +175,7 @@ public class ProjectService {
         }
 
         // Validation du client
-        if (!clientRepository.existsById(dto.clientId())) {
+        if (clientService.getClientById(dto.clientId()).isEmpty()) {
             throw new IllegalArgumentException("Le client avec l'ID " + dto.clientId() + " n'existe pas");
         }
 
@@ -159,9 +191,8 @@ public class ProjectService {
         
         Project entity = projectMapper.toEntity(dto);
         
-        // Récupération et assignation du client
-        Client client = clientRepository.findById(dto.clientId()).orElseThrow();
-        entity.setClient(client);
+        // Assignation du client
+        entity.setClient(clientRepository.getReferenceById(dto.clientId()));
 
         Project updatedProject = projectRepository.save(entity);
         
@@ -5,6 +5,7 @@ import jakarta.persistence.*;
 import lombok.*;
 
 import java.math.BigDecimal;
+import java.time.Instant;
 import java.time.LocalDate;
 import java.util.UUID;
 
@@ -14,14 +15,14 @@ import java.util.UUID;
 @Builder
 @NoArgsConstructor
 @AllArgsConstructor
-@Table(name = "projects")
+@Table(name = "projects", indexes = @Index(name = "idx_projects_code_id", columnList = "code, id"))
 public class Project {
 
     @Id
     @GeneratedValue(strategy = GenerationType.UUID)
     private UUID id;
 
-    @ManyToOne(optional = false)
+    @ManyToOne(fetch = FetchType.LAZY, optional = false)
     private Client client;
 
     @Column(nullable = false)
@@ -45,4 +46,12 @@ public class Project {
     private BigDecimal hourlyRate;
     private String currency;
 
+    private Instant updatedAt; // Base des ETags, mise à jour à chaque écriture de l'entité
+
+    @PrePersist
+    @PreUpdate
+    void touch() {
+        updatedAt = Instant.now();
+    }
 }
+
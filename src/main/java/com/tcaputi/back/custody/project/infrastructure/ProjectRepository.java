@@ -1,5 +1,6 @@
 package com.tcaputi.back.custody.project.infrastructure;
 
+import com.tcaputi.back.custody.common.dto.EntityStamp;
 import com.tcaputi.back.custody.project.domain.model.Project;
 import com.tcaputi.back.custody.project.domain.model.ProjectStatus;
 import org.springframework.data.domain.Page;
@@ -10,6 +11,7 @@ import org.springframework.data.repository.query.Param;
 
 import java.time.LocalDate;
 import java.util.List;
+import java.util.Optional;
 import java.util.UUID;
 
 public interface ProjectRepository extends JpaRepository<Project, UUID> {
@@ -48,4 +50,15 @@ public interface ProjectRepository extends JpaRepository<Project, UUID> {
 
     int countProjectsByStatus(ProjectStatus status);
 
-}
\ No newline at end of file
+    // Pagination par curseur : tri (code, id)
+    @Query(value = "SELECT * FROM projects p ORDER BY p.code, p.id LIMIT :limit", nativeQuery = true)
+    List<Project> findFirstKeysetPage(@Param("limit") int limit);
+
+    @Query(value = "SELECT * FROM projects p WHERE (p.code, p.id) > (:code, :id) " +
+            "ORDER BY p.code, p.id LIMIT :limit", nativeQuery = true)
+    List<Project> findKeysetPageAfter(@Param("code") String code, @Param("id") UUID id, @Param("limit") int limit);
+
+    // ETag : date de dernière écriture, sans charger l'entité
+    @Query("SELECT new com.tcaputi.back.custody.common.dto.EntityStamp(p.id, p.updatedAt) FROM Project p WHERE p.id = :id")
+    Optional<EntityStamp> findStampById(@Param("id") UUID id);
+}
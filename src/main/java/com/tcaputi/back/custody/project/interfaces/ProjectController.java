@@ -1,17 +1,21 @@
 package com.tcaputi.back.custody.project.interfaces;
 
+import com.tcaputi.back.custody.common.dto.CursorPage;
 import com.tcaputi.back.custody.project.application.ProjectService;
 import com.tcaputi.back.custody.project.domain.model.ProjectStatus;
 import com.tcaputi.back.custody.project.interfaces.dto.ProjectDto;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.data.domain.Page;
+import org.springframework.http.CacheControl;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 
 import java.net.URI;
 import java.util.List;
+import java.util.Optional;
 import java.util.UUID;
 
 @Slf4j
@@ -30,6 +34,19 @@ class ProjectController {
         return ResponseEntity.ok(projects);
     }
 
+    @GetMapping("/cursor")
+    public ResponseEntity<CursorPage<ProjectDto>> getProjectsByCursor(
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "20") Integer size,
+            @RequestParam(defaultValue = "false") boolean withTotal) {
+        try {
+            return ResponseEntity.ok(projectService.getProjectsByCursor(cursor, size, withTotal));
+        } catch (IllegalArgumentException e) {
+            log.warn("Erreur lors de la pagination des projets : {}", e.getMessage());
+            return ResponseEntity.badRequest().build();
+        }
+    }
+
     @GetMapping("/count/{clientId}")
     public int getProjectCount(@PathVariable UUID clientId) {
         return projectService.getProjectCountByClientId(clientId);
@@ -41,9 +58,17 @@ class ProjectController {
     }
 
     @GetMapping("/{id}")
-    public ResponseEntity<ProjectDto> getProject(@PathVariable UUID id) {
+    public ResponseEntity<ProjectDto> getProject(@PathVariable UUID id, WebRequest request) {
+        Optional<String> eTag = projectService.getProjectETag(id);
+        if (eTag.isEmpty()) {
+            return ResponseEntity.notFound().build();
+        }
+        if (request.checkNotModified(eTag.get())) {
+            return null; // 304 déjà posé sur la réponse, sans relire l'entité
+        }
+
         return projectService.getProjectById(id)
-                .map(ResponseEntity::ok)
+                .map(dto -> ResponseEntity.ok().eTag(eTag.get()).cacheControl(CacheControl.noCache().cachePrivate()).body(dto))
                 .orElse(ResponseEntity.notFound().build());
     }
 
@@ -0,0 +1,44 @@
+package com.tcaputi.back.custody.quote.application;
+
+import com.tcaputi.back.custody.quote.infrastructure.QuoteRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.LocalDate;
+
+/**
+ * Passe au statut EXPIRED les devis envoyés dont la date de validité est dépassée.
+ * Même principe que les factures en retard : une requête UPDATE par lot, chacune dans sa propre transaction,
+ * les lignes verrouillées par une autre instance étant ignorées.
+ */
+@Slf4j
+@Component
+@RequiredArgsConstructor
+public class QuoteExpiryJob {
+
+    private final QuoteRepository quoteRepository;
+
+    @Value("${custody.quote.expiry.chunk-size:500}")
+    private int chunkSize;
+
+    @EventListener(ApplicationReadyEvent.class)
+    @Scheduled(cron = "${custody.quote.expiry.cron:0 10 0 * * *}")
+    public void expireQuotes() {
+        LocalDate today = LocalDate.now();
+        int total = 0;
+        int updated;
+        do {
+            updated = quoteRepository.expireChunk(today, chunkSize);
+            total += updated;
+        } while (updated == chunkSize);
+
+        if (total > 0) {
+            log.info("{} devis passé(s) au statut EXPIRED", total);
+        }
+    }
+}
@@ -0,0 +1,96 @@
+package com.tcaputi.back.custody.quote.application;
+
+import com.tcaputi.back.custody.quote.domain.model.QuoteSequence;
+import com.tcaputi.back.custody.quote.infrastructure.QuoteSequenceRepository;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.LocalDate;
+import java.util.Collection;
+import java.util.List;
+import java.util.regex.Matcher;
+import java.util.regex.Pattern;
+import java.util.stream.LongStream;
+
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class QuoteNumberService {
+
+    private static final String PREFIX = "Q";
+    private static final Pattern QUOTE_NUMBER_PATTERN = Pattern.compile("^" + PREFIX + "-(\\d{4})-(\\d{1,18})$");
+
+    private final QuoteSequenceRepository quoteSequenceRepository;
+
+    /**
+     * Génère le prochain numéro de devis
+     * Format: Q-{ANNEE}-{NUMERO_SEQUENTIEL}
+     * Ex: Q-2025-001
+     */
+    @Transactional
+    public String generateQuoteNumber() {
+        return allocateQuoteNumbers(1).getFirst();
+    }
+
+    /**
+     * Réserve un bloc contigu de numéros pour l'année courante, sur le même principe que les factures :
+     * la ligne de séquence reste verrouillée jusqu'à la fin de la transaction appelante.
+     */
+    @Transactional
+    public List<String> allocateQuoteNumbers(int count) {
+        if (count < 1) {
+            throw new IllegalArgumentException("Le nombre de numéros à réserver doit être positif");
+        }
+
+        int currentYear = LocalDate.now().getYear();
+        QuoteSequence sequence = lockSequence(currentYear);
+
+        long first = sequence.getCurrentNumber() + 1;
+        sequence.setCurrentNumber(sequence.getCurrentNumber() + count);
+
+        List<String> numbers = LongStream.range(first, first + count)
+                .mapToObj(sequenceNumber -> String.format("%s-%d-%03d", PREFIX, currentYear, sequenceNumber))
+                .toList();
+
+        log.info("Numéro(s) de devis réservé(s) : {} à {}", numbers.getFirst(), numbers.getLast());
+        return numbers;
+    }
+
+    /**
+     * Fait avancer la séquence de l'année courante au-delà des numéros saisis manuellement, sous le verrou
+     * de l'allocation, pour qu'elle n'attribue jamais un numéro déjà pris (voir InvoiceNumberService).
+     */
+    @Transactional
+    public void reserveManualNumbers(Collection<String> numbers) {
+        int currentYear = LocalDate.now().getYear();
+        long highest = 0;
+        for (String number : numbers) {
+            Matcher matcher = QUOTE_NUMBER_PATTERN.matcher(number);
+            if (matcher.matches() && Integer.parseInt(matcher.group(1)) == currentYear) {
+                highest = Math.max(highest, Long.parseLong(matcher.group(2)));
+            }
+        }
+        if (highest == 0) {
+            return;
+        }
+
+        QuoteSequence sequence = lockSequence(currentYear);
+        if (sequence.getCurrentNumber() < highest) {
+            log.info("Séquence {}-{} avancée de {} à {} après saisie manuelle",
+                    PREFIX, currentYear, sequence.getCurrentNumber(), highest);
+            sequence.setCurrentNumber(highest);
+        }
+    }
+
+    private QuoteSequence lockSequence(int year) {
+        return quoteSequenceRepository.findByYear(year)
+                .orElseGet(() -> {
+                    // Premier devis de l'année : la séquence reprend après les numéros existants
+                    quoteSequenceRepository.createIfAbsent(year, PREFIX + "-" + year + "-%");
+                    return quoteSequenceRepository.findByYear(year)
+                            .orElseThrow(() -> new IllegalStateException("Séquence de numérotation introuvable pour " + PREFIX + "-" + year));
+                });
+    }
+}
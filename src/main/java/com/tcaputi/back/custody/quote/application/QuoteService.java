@@ -1,36 +1,67 @@
 package com.tcaputi.back.custody.quote.application;
 
+import com.tcaputi.back.custody.client.application.ClientService;
+import com.tcaputi.back.custody.client.domain.model.Client;
 import com.tcaputi.back.custody.client.infrastructure.ClientRepository;
+import com.tcaputi.back.custody.common.dto.CursorPage;
+import com.tcaputi.back.custody.common.infrastructure.CursorCodec;
+import com.tcaputi.back.custody.common.infrastructure.ETags;
+import com.tcaputi.back.custody.common.pricing.PricingEngine;
+import com.tcaputi.back.custody.common.pricing.PricingResult;
+import com.tcaputi.back.custody.fx.application.ExchangeRateService;
+import com.tcaputi.back.custody.fx.application.ExchangeRateStamp;
+import com.tcaputi.back.custody.project.application.ProjectService;
+import com.tcaputi.back.custody.project.domain.model.Project;
 import com.tcaputi.back.custody.project.infrastructure.ProjectRepository;
 import com.tcaputi.back.custody.quote.domain.model.Quote;
 import com.tcaputi.back.custody.quote.domain.model.QuoteLine;
 import com.tcaputi.back.custody.quote.domain.model.QuoteStatus;
 import com.tcaputi.back.custody.quote.infrastructure.QuoteMapper;
 import com.tcaputi.back.custody.quote.infrastructure.QuoteRepository;
+import com.tcaputi.back.custody.quote.interfaces.dto.QuoteBatchItemResult;
+import com.tcaputi.back.custody.quote.interfaces.dto.QuoteBatchResponse;
 import com.tcaputi.back.custody.quote.interfaces.dto.QuoteDto;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.PageRequest;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Sort;
 import org.springframework.stereotype.Service;
 import org.springframework.transaction.annotation.Transactional;
 
-import java.math.BigDecimal;
+import java.time.Instant;
 import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashSet;
+import java.util.LinkedHashMap;
 import java.util.List;
+import java.util.Map;
+import java.util.Objects;
 import java.util.Optional;
+import java.util.Set;
 import java.util.UUID;
+import java.util.function.Function;
+import java.util.stream.Collectors;
 
 @Slf4j
 @Service
 @RequiredArgsConstructor
+@Transactional(readOnly = true)
 public class QuoteService {
 
+    private static final int MAX_BATCH_SIZE = 5000;
+
     private final QuoteRepository quoteRepository;
     private final ClientRepository clientRepository;
     private final ProjectRepository projectRepository;
+    private final ClientService clientService;
+    private final ProjectService projectService;
     private final QuoteMapper quoteMapper;
+    private final PricingEngine pricingEngine;
+    private final ExchangeRateService exchangeRateService;
+    private final QuoteNumberService quoteNumberService;
 
     public Page<QuoteDto> getQuotes(Integer page, Integer size) {
         Pageable pageable = PageRequest.of(page, size);
@@ -38,11 +69,35 @@ public class QuoteService {
         return quotes.map(quoteMapper::toDto);
     }
 
+    public CursorPage<QuoteDto> getQuotesByCursor(String cursor, int size, boolean withTotal) {
+        CursorPage.validateSize(size);
+        int limit = size + 1; // Une ligne de plus pour savoir s'il existe une page suivante
+
+        List<Quote> quotes;
+        if (cursor == null) {
+            quotes = quoteRepository.findFirstKeysetPage(limit);
+        } else {
+            CursorCodec.Cursor position = CursorCodec.decode(cursor);
+            quotes = position.key() == null
+                    ? quoteRepository.findKeysetPageAfterUndated(position.id(), limit)
+                    : quoteRepository.findKeysetPageAfter(position.dateKey(), position.id(), limit);
+        }
+
+        Long total = withTotal ? quoteRepository.count() : null;
+        return CursorPage.of(quotes, size, quoteMapper::toDto,
+                quote -> CursorCodec.encode(Objects.toString(quote.getIssueDate(), null), quote.getId()), total);
+    }
+
     public Optional<QuoteDto> getQuoteById(UUID id) {
-        return quoteRepository.findById(id)
+        return quoteRepository.findDetailById(id)
                 .map(quoteMapper::toDto);
     }
 
+    public Optional<String> getQuoteETag(UUID id) {
+        return quoteRepository.findStampById(id)
+                .map(stamp -> ETags.of(stamp.id(), stamp.updatedAt()));
+    }
+
     public int getQuoteCountByStatus(QuoteStatus status) {
         return quoteRepository.countByStatus(status);
     }
@@ -75,21 +130,27 @@ public class QuoteService {
         log.debug("Création d'un nouveau devis pour le client : {}", quoteDto.clientId());
 
         // Vérifier que le client existe
-        if (!clientRepository.existsById(quoteDto.clientId())) {
+        if (clientService.getClientById(quoteDto.clientId()).isEmpty()) {
             throw new IllegalArgumentException("Client introuvable : " + quoteDto.clientId());
         }
 
         // Vérifier que le projet existe si spécifié
-        if (quoteDto.projectId() != null && !projectRepository.existsById(quoteDto.projectId())) {
+        if (quoteDto.projectId() != null && projectService.getProjectById(quoteDto.projectId()).isEmpty()) {
             throw new IllegalArgumentException("Projet introuvable : " + quoteDto.projectId());
         }
 
+        String number = cleanParameter(quoteDto.number());
+        if (number != null && quoteRepository.existsByNumber(number)) {
+            throw new IllegalArgumentException("Un devis avec le numéro " + number + " existe déjà");
+        }
+        if (number != null) {
+            quoteNumberService.reserveManualNumbers(List.of(number));
+        }
+
         Quote quote = quoteMapper.toEntity(quoteDto);
         
         // Générer un numéro si pas fourni
-        if (quote.getNumber() == null || quote.getNumber().trim().isEmpty()) {
-            quote.setNumber(generateQuoteNumber());
-        }
+        quote.setNumber(number != null ? number : quoteNumberService.generateQuoteNumber());
 
         // Statut par défaut
         if (quote.getStatus() == null) {
@@ -111,12 +172,85 @@ public class QuoteService {
         // Calculer les totaux
         calculateTotals(quote);
 
+        // Taux de change du jour d'émission, sauf taux convenu fourni avec le devis
+        if (quote.getExchangeRateValue() == null) {
+            ExchangeRateStamp stamp = exchangeRateService.stamp(quote.getCurrency(), quote.getIssueDate());
+            quote.setExchangeRateProvider(stamp.provider());
+            quote.setExchangeRateValue(stamp.value());
+        }
+
         Quote savedQuote = quoteRepository.save(quote);
         log.info("Devis créé avec l'ID : {}", savedQuote.getId());
 
         return quoteMapper.toDto(savedQuote);
     }
 
+    /**
+     * Crée un lot de devis en une transaction, sur le modèle des factures : clients, projets et numéros existants
+     * sont vérifiés en une requête chacun, les devis invalides sont écartés avec leur erreur
+     * et les autres reçoivent un bloc de numéros réservé en une seule fois.
+     */
+    @Transactional
+    public QuoteBatchResponse createQuotes(List<QuoteDto> dtos) {
+        if (dtos.size() > MAX_BATCH_SIZE) {
+            throw new IllegalArgumentException("Un lot ne peut pas dépasser " + MAX_BATCH_SIZE + " devis");
+        }
+        log.debug("Création d'un lot de {} devis", dtos.size());
+
+        Map<UUID, Client> clients = clientRepository.findAllById(collectIds(dtos, QuoteDto::clientId)).stream()
+                .collect(Collectors.toMap(Client::getId, Function.identity()));
+        Map<UUID, Project> projects = projectRepository.findAllById(collectIds(dtos, QuoteDto::projectId)).stream()
+                .collect(Collectors.toMap(Project::getId, Function.identity()));
+
+        Set<String> requestedNumbers = dtos.stream()
+                .map(QuoteDto::number)
+                .map(this::cleanParameter)
+                .filter(Objects::nonNull)
+                .collect(Collectors.toSet());
+        Set<String> takenNumbers = requestedNumbers.isEmpty()
+                ? new HashSet<>()
+                : new HashSet<>(quoteRepository.findExistingNumbers(requestedNumbers));
+
+        QuoteBatchItemResult[] results = new QuoteBatchItemResult[dtos.size()];
+        Map<Integer, Quote> accepted = new LinkedHashMap<>();
+
+        for (int index = 0; index < dtos.size(); index++) {
+            try {
+                accepted.put(index, prepareBatchQuote(dtos.get(index), clients, projects, takenNumbers));
+            } catch (IllegalArgumentException e) {
+                results[index] = QuoteBatchItemResult.failed(index, e.getMessage());
+            }
+        }
+
+        // Numéros saisis : la séquence passe au-delà avant d'allouer les autres
+        List<String> manualNumbers = accepted.values().stream()
+                .map(Quote::getNumber)
+                .filter(Objects::nonNull)
+                .toList();
+        if (!manualNumbers.isEmpty()) {
+            quoteNumberService.reserveManualNumbers(manualNumbers);
+        }
+
+        // Numérotation par bloc, uniquement pour les devis retenus afin de ne pas créer de trou
+        List<Quote> toNumber = accepted.values().stream()
+                .filter(quote -> quote.getNumber() == null)
+                .toList();
+        if (!toNumber.isEmpty()) {
+            List<String> numbers = quoteNumberService.allocateQuoteNumbers(toNumber.size());
+            for (int i = 0; i < toNumber.size(); i++) {
+                toNumber.get(i).setNumber(numbers.get(i));
+            }
+        }
+
+        quoteRepository.saveAll(accepted.values());
+
+        accepted.forEach((index, quote) ->
+                results[index] = QuoteBatchItemResult.created(index, quote.getId(), quote.getNumber()));
+
+        log.info("Lot de devis traité : {} créé(s), {} rejeté(s)", accepted.size(), dtos.size() - accepted.size());
+        return new QuoteBatchResponse(accepted.size(), dtos.size() - accepted.size(), Arrays.asList(results));
+    }
+
     @Transactional
     public Optional<QuoteDto> updateQuote(UUID id, QuoteDto quoteDto) {
         if (!id.equals(quoteDto.id())) {
@@ -132,15 +266,23 @@ public class QuoteService {
         Quote existingQuote = existingQuoteOpt.get();
         
         // Vérifier que le client existe
-        if (!clientRepository.existsById(quoteDto.clientId())) {
+        if (clientService.getClientById(quoteDto.clientId()).isEmpty()) {
             throw new IllegalArgumentException("Client introuvable : " + quoteDto.clientId());
         }
 
         // Vérifier que le projet existe si spécifié
-        if (quoteDto.projectId() != null && !projectRepository.existsById(quoteDto.projectId())) {
+        if (quoteDto.projectId() != null && projectService.getProjectById(quoteDto.projectId()).isEmpty()) {
             throw new IllegalArgumentException("Projet introuvable : " + quoteDto.projectId());
         }
 
+        String number = cleanParameter(quoteDto.number());
+        if (number != null && quoteRepository.existsByNumberAndIdNot(number, id)) {
+            throw new IllegalArgumentException("Un devis avec le numéro " + number + " existe déjà");
+        }
+        if (number != null && !number.equals(existingQuote.getNumber())) {
+            quoteNumberService.reserveManualNumbers(List.of(number));
+        }
+
         log.debug("Mise à jour du devis : {}", id);
 
         // Mettre à jour les propriétés de base
@@ -164,6 +306,7 @@ public class QuoteService {
 
         // Recalculer les totaux
         calculateTotals(existingQuote);
+        existingQuote.setUpdatedAt(Instant.now()); // Une modification des seules lignes ne touche pas la ligne du devis
 
         Quote updatedQuote = quoteRepository.save(existingQuote);
         return Optional.of(quoteMapper.toDto(updatedQuote));
@@ -204,40 +347,85 @@ public class QuoteService {
         return Optional.of(quoteMapper.toDto(updatedQuote));
     }
 
-    public List<QuoteDto> getExpiredQuotes() {
-        List<Quote> expiredQuotes = quoteRepository.findByValidUntilBefore(LocalDate.now());
-        return quoteMapper.toDtoList(expiredQuotes);
+    public Page<QuoteDto> getExpiredQuotes(Integer page, Integer size) {
+        Pageable pageable = PageRequest.of(page, size, Sort.by(Sort.Direction.DESC, "validUntil", "id"));
+        return quoteRepository.findByStatus(QuoteStatus.EXPIRED, pageable)
+                .map(quoteMapper::toDto);
     }
 
-    private void calculateTotals(Quote quote) {
-        if (quote.getLines() == null || quote.getLines().isEmpty()) {
-            quote.setSubtotal(BigDecimal.ZERO);
-            quote.setTaxTotal(BigDecimal.ZERO);
-            quote.setTotal(BigDecimal.ZERO);
-            return;
+    private Quote prepareBatchQuote(QuoteDto dto, Map<UUID, Client> clients, Map<UUID, Project> projects,
+                                    Set<String> takenNumbers) {
+        Client client = dto.clientId() != null ? clients.get(dto.clientId()) : null;
+        if (client == null) {
+            throw new IllegalArgumentException("Client introuvable : " + dto.clientId());
         }
 
-        BigDecimal subtotal = BigDecimal.ZERO;
-        BigDecimal taxTotal = BigDecimal.ZERO;
+        Project project = null;
+        if (dto.projectId() != null) {
+            project = projects.get(dto.projectId());
+            if (project == null) {
+                throw new IllegalArgumentException("Projet introuvable : " + dto.projectId());
+            }
+        }
 
-        for (QuoteLine line : quote.getLines()) {
-            BigDecimal quantity = line.getQuantity() != null ? line.getQuantity() : BigDecimal.ONE;
-            BigDecimal unitPrice = line.getUnitPrice() != null ? line.getUnitPrice() : BigDecimal.ZERO;
-            BigDecimal discount = line.getDiscount() != null ? line.getDiscount() : BigDecimal.ZERO;
-            BigDecimal taxRate = line.getTaxRate() != null ? line.getTaxRate() : BigDecimal.ZERO;
+        String number = cleanParameter(dto.number());
+        // Couvre aussi les doublons au sein du lot
+        if (number != null && takenNumbers.contains(number)) {
+            throw new IllegalArgumentException("Un devis avec le numéro " + number + " existe déjà");
+        }
 
-            // Calcul du montant HT après remise
-            BigDecimal lineSubtotal = quantity.multiply(unitPrice).subtract(discount);
-            subtotal = subtotal.add(lineSubtotal);
+        Quote quote = quoteMapper.toEntity(dto);
+        quote.setId(null); // Toujours une création : évite un merge par devis
+        quote.setNumber(number);
+        quote.setClient(client);
+        quote.setProject(project);
+        if (quote.getStatus() == null) {
+            quote.setStatus(QuoteStatus.DRAFT);
+        }
+        if (quote.getIssueDate() == null) {
+            quote.setIssueDate(LocalDate.now());
+        }
 
-            // Calcul de la TVA
-            BigDecimal lineTax = lineSubtotal.multiply(taxRate).divide(BigDecimal.valueOf(100));
-            taxTotal = taxTotal.add(lineTax);
+        if (dto.lines() != null && !dto.lines().isEmpty()) {
+            List<QuoteLine> lines = quoteMapper.toLineEntityList(dto.lines());
+            lines.forEach(line -> {
+                line.setId(null);
+                line.setQuote(quote);
+            });
+            quote.setLines(new ArrayList<>(lines));
         }
 
-        quote.setSubtotal(subtotal);
-        quote.setTaxTotal(taxTotal);
-        quote.setTotal(subtotal.add(taxTotal));
+        calculateTotals(quote);
+
+        if (quote.getExchangeRateValue() == null) {
+            ExchangeRateStamp stamp = exchangeRateService.stamp(quote.getCurrency(), quote.getIssueDate());
+            quote.setExchangeRateProvider(stamp.provider());
+            quote.setExchangeRateValue(stamp.value());
+        }
+
+        // Numéro réservé seulement une fois le devis retenu : un rejet ne doit pas le bloquer pour la suite du lot
+        if (number != null) {
+            takenNumbers.add(number);
+        }
+        return quote;
+    }
+
+    private Set<UUID> collectIds(List<QuoteDto> dtos, Function<QuoteDto, UUID> idExtractor) {
+        return dtos.stream()
+                .map(idExtractor)
+                .filter(Objects::nonNull)
+                .collect(Collectors.toSet());
+    }
+
+    private String cleanParameter(String parameter) {
+        return (parameter != null && !parameter.trim().isEmpty()) ? parameter.trim() : null;
+    }
+
+    private void calculateTotals(Quote quote) {
+        PricingResult pricing = pricingEngine.price(quote.getLines());
+        quote.setSubtotal(pricing.subtotal());
+        quote.setTaxTotal(pricing.taxTotal());
+        quote.setTotal(pricing.total());
     }
 
     private boolean isValidStatusTransition(QuoteStatus currentStatus, QuoteStatus newStatus) {
@@ -249,11 +437,4 @@ public class QuoteService {
             case ACCEPTED, REJECTED, EXPIRED -> false; // États finaux
         };
     }
-
-    private String generateQuoteNumber() {
-        // Logique de génération du numéro de devis
-        int year = LocalDate.now().getYear();
-        long count = quoteRepository.count() + 1;
-        return String.format("Q-%d-%03d", year, count);
-    }
 }
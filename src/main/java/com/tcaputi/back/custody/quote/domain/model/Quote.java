@@ -6,6 +6,7 @@ import jakarta.persistence.*;
 import lombok.*;
 
 import java.math.BigDecimal;
+import java.time.Instant;
 import java.time.LocalDate;
 import java.util.ArrayList;
 import java.util.List;
@@ -20,7 +21,12 @@ import java.util.UUID;
 @Getter
 @NoArgsConstructor
 @AllArgsConstructor
-@Table(name = "quotes")
+@Table(name = "quotes",
+       indexes = {
+               @Index(name = "idx_quotes_issue_date_id", columnList = "issueDate, id"),
+               @Index(name = "idx_quotes_status_valid_until", columnList = "status, validUntil")
+       },
+       uniqueConstraints = @UniqueConstraint(name = "uk_quotes_number", columnNames = "number"))
 public class Quote {
 
     @Id
@@ -29,10 +35,10 @@ public class Quote {
 
     private String number; // Q-2025-001
 
-    @ManyToOne(optional = false)
+    @ManyToOne(fetch = FetchType.LAZY, optional = false)
     private Client client;
 
-    @ManyToOne
+    @ManyToOne(fetch = FetchType.LAZY)
     private Project project;
 
     private LocalDate issueDate;
@@ -55,4 +61,12 @@ public class Quote {
     @Column(columnDefinition = "TEXT")
     private String terms;
 
+    private Instant updatedAt; // Base des ETags, mise à jour à chaque écriture de l'entité
+
+    @PrePersist
+    @PreUpdate
+    void touch() {
+        updatedAt = Instant.now();
+    }
 }
+
@@ -1,5 +1,6 @@
 package com.tcaputi.back.custody.quote.domain.model;
 
+import com.tcaputi.back.custody.common.pricing.PricedLine;
 import jakarta.persistence.*;
 import lombok.*;
 
@@ -13,12 +14,12 @@ import java.util.UUID;
 @NoArgsConstructor
 @AllArgsConstructor
 @Table(name = "quote_lines")
-public class QuoteLine {
+public class QuoteLine implements PricedLine {
     @Id
     @GeneratedValue(strategy = GenerationType.UUID)
     private UUID id;
 
-    @ManyToOne(optional = false)
+    @ManyToOne(fetch = FetchType.LAZY, optional = false)
     private Quote quote;
 
     private String designation;
@@ -26,5 +27,7 @@ public class QuoteLine {
     private String unit;
     private BigDecimal unitPrice;
     private BigDecimal taxRate;
+    // Pourcentage du montant de la ligne ; l'ancienne colonne discount (montant absolu) est convertie par schema.sql
+    @Column(name = "discount_rate")
     private BigDecimal discount;
 }
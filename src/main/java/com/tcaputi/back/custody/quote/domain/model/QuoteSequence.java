@@ -0,0 +1,30 @@
+package com.tcaputi.back.custody.quote.domain.model;
+
+import jakarta.persistence.*;
+import lombok.*;
+
+/**
+ * Compteur annuel des numéros de devis.
+ */
+@Entity
+@Builder
+@Setter
+@Getter
+@NoArgsConstructor
+@AllArgsConstructor
+@Table(name = "quote_sequences",
+       uniqueConstraints = @UniqueConstraint(columnNames = {"year"}))
+public class QuoteSequence {
+    @Id
+    @GeneratedValue(strategy = GenerationType.IDENTITY)
+    private Long id;
+
+    @Column(nullable = false)
+    private Integer year;
+
+    @Column(nullable = false)
+    private Long currentNumber;
+
+    @Version
+    private Long version; // Pour la gestion de la concurrence
+}
@@ -1,16 +1,22 @@
 package com.tcaputi.back.custody.quote.infrastructure;
 
+import com.tcaputi.back.custody.common.dto.EntityStamp;
 import com.tcaputi.back.custody.quote.domain.model.Quote;
 import com.tcaputi.back.custody.quote.domain.model.QuoteStatus;
 import org.springframework.data.domain.Page;
 import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
 import org.springframework.data.jpa.repository.Query;
 import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.time.LocalDate;
+import java.util.Collection;
 import java.util.List;
+import java.util.Optional;
 import java.util.UUID;
 
 @Repository
@@ -22,13 +28,55 @@ public interface QuoteRepository extends JpaRepository<Quote, UUID> {
     
     Page<Quote> findByStatus(QuoteStatus status, Pageable pageable);
     
-    List<Quote> findByValidUntilBefore(LocalDate date);
-    
+    @EntityGraph(attributePaths = "lines")
     @Query("SELECT q FROM Quote q WHERE q.client.id = :clientId AND q.status = :status")
     List<Quote> findByClientIdAndStatus(@Param("clientId") UUID clientId, @Param("status") QuoteStatus status);
     
+    @EntityGraph(attributePaths = "lines")
     @Query("SELECT q FROM Quote q WHERE q.number LIKE %:number%")
     List<Quote> findByNumberContaining(@Param("number") String number);
 
     int countByStatus(QuoteStatus status);
+
+    // Devis échus : passage au statut EXPIRED par lot
+    @Transactional
+    @Modifying
+    @Query(value = """
+            UPDATE quotes SET status = 'EXPIRED', updated_at = now()
+            WHERE id IN (
+                SELECT id FROM quotes
+                WHERE status = 'SENT' AND valid_until < :today
+                LIMIT :chunkSize
+                FOR UPDATE SKIP LOCKED
+            )
+            """, nativeQuery = true)
+    int expireChunk(@Param("today") LocalDate today, @Param("chunkSize") int chunkSize);
+
+    boolean existsByNumber(String number);
+
+    boolean existsByNumberAndIdNot(String number, UUID id);
+
+    @Query("SELECT q.number FROM Quote q WHERE q.number IN :numbers")
+    List<String> findExistingNumbers(@Param("numbers") Collection<String> numbers);
+
+    // Détail : devis et lignes en une requête (client et projet restent des références)
+    @EntityGraph(attributePaths = "lines")
+    @Query("SELECT q FROM Quote q WHERE q.id = :id")
+    Optional<Quote> findDetailById(@Param("id") UUID id);
+
+    // ETag : date de dernière écriture, sans charger l'entité
+    @Query("SELECT new com.tcaputi.back.custody.common.dto.EntityStamp(q.id, q.updatedAt) FROM Quote q WHERE q.id = :id")
+    Optional<EntityStamp> findStampById(@Param("id") UUID id);
+
+    // Pagination par curseur : tri (issue_date DESC, id DESC), les lignes sans date d'émission en tête
+    @Query(value = "SELECT * FROM quotes q ORDER BY q.issue_date DESC, q.id DESC LIMIT :limit", nativeQuery = true)
+    List<Quote> findFirstKeysetPage(@Param("limit") int limit);
+
+    @Query(value = "SELECT * FROM quotes q WHERE (q.issue_date, q.id) < (:issueDate, :id) " +
+            "ORDER BY q.issue_date DESC, q.id DESC LIMIT :limit", nativeQuery = true)
+    List<Quote> findKeysetPageAfter(@Param("issueDate") LocalDate issueDate, @Param("id") UUID id, @Param("limit") int limit);
+
+    @Query(value = "SELECT * FROM quotes q WHERE (q.issue_date IS NULL AND q.id < :id) OR q.issue_date IS NOT NULL " +
+            "ORDER BY q.issue_date DESC, q.id DESC LIMIT :limit", nativeQuery = true)
+    List<Quote> findKeysetPageAfterUndated(@Param("id") UUID id, @Param("limit") int limit);
 }
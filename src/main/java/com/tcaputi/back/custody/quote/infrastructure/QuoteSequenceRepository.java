@@ -0,0 +1,33 @@
+package com.tcaputi.back.custody.quote.infrastructure;
+
+import com.tcaputi.back.custody.quote.domain.model.QuoteSequence;
+import jakarta.persistence.LockModeType;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.util.Optional;
+
+@Repository
+public interface QuoteSequenceRepository extends JpaRepository<QuoteSequence, Long> {
+
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    Optional<QuoteSequence> findByYear(Integer year);
+
+    /**
+     * Crée la séquence de l'année si elle n'existe pas encore, initialisée au plus grand numéro déjà émis.
+     * Sans effet si une autre transaction l'a créée entre-temps.
+     */
+    @Modifying
+    @Query(value = """
+            INSERT INTO quote_sequences (year, current_number, version)
+            SELECT :year, COALESCE(MAX(CAST(split_part(q.number, '-', 3) AS bigint)), 0), 0
+            FROM quotes q
+            WHERE q.number LIKE :pattern AND split_part(q.number, '-', 3) ~ '^[0-9]+$'
+            ON CONFLICT (year) DO NOTHING
+            """, nativeQuery = true)
+    int createIfAbsent(@Param("year") int year, @Param("pattern") String pattern);
+}
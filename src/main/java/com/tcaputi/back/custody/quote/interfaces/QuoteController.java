@@ -1,14 +1,18 @@
 package com.tcaputi.back.custody.quote.interfaces;
 
+import com.tcaputi.back.custody.common.dto.CursorPage;
 import com.tcaputi.back.custody.quote.application.QuoteService;
 import com.tcaputi.back.custody.quote.domain.model.QuoteStatus;
+import com.tcaputi.back.custody.quote.interfaces.dto.QuoteBatchResponse;
 import com.tcaputi.back.custody.quote.interfaces.dto.QuoteDto;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
 import org.springframework.data.domain.Page;
+import org.springframework.http.CacheControl;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.context.request.WebRequest;
 
 import java.util.List;
 import java.util.Optional;
@@ -32,12 +36,33 @@ public class QuoteController {
         return ResponseEntity.ok(quotes);
     }
 
+    @GetMapping("/cursor")
+    public ResponseEntity<CursorPage<QuoteDto>> getQuotesByCursor(
+            @RequestParam(required = false) String cursor,
+            @RequestParam(defaultValue = "20") Integer size,
+            @RequestParam(defaultValue = "false") boolean withTotal) {
+        try {
+            return ResponseEntity.ok(quoteService.getQuotesByCursor(cursor, size, withTotal));
+        } catch (IllegalArgumentException e) {
+            log.warn("Erreur lors de la pagination des devis : {}", e.getMessage());
+            return ResponseEntity.badRequest().build();
+        }
+    }
+
     @GetMapping("/{id}")
-    public ResponseEntity<QuoteDto> getQuoteById(@PathVariable UUID id) {
+    public ResponseEntity<QuoteDto> getQuoteById(@PathVariable UUID id, WebRequest request) {
         log.debug("Récupération du devis avec l'ID : {}", id);
-        
+
+        Optional<String> eTag = quoteService.getQuoteETag(id);
+        if (eTag.isEmpty()) {
+            return ResponseEntity.notFound().build();
+        }
+        if (request.checkNotModified(eTag.get())) {
+            return null; // 304 déjà posé sur la réponse, sans relire l'entité
+        }
+
         Optional<QuoteDto> quote = quoteService.getQuoteById(id);
-        return quote.map(ResponseEntity::ok)
+        return quote.map(dto -> ResponseEntity.ok().eTag(eTag.get()).cacheControl(CacheControl.noCache().cachePrivate()).body(dto))
                    .orElse(ResponseEntity.notFound().build());
     }
 
@@ -87,9 +112,12 @@ public class QuoteController {
     }
 
     @GetMapping("/expired")
-    public ResponseEntity<List<QuoteDto>> getExpiredQuotes() {
-        log.debug("Récupération des devis expirés");
-        List<QuoteDto> expiredQuotes = quoteService.getExpiredQuotes();
+    public ResponseEntity<Page<QuoteDto>> getExpiredQuotes(
+            @RequestParam(defaultValue = "0") Integer page,
+            @RequestParam(defaultValue = "20") Integer size) {
+
+        log.debug("Récupération des devis expirés - page: {}, size: {}", page, size);
+        Page<QuoteDto> expiredQuotes = quoteService.getExpiredQuotes(page, size);
         return ResponseEntity.ok(expiredQuotes);
     }
 
@@ -106,6 +134,16 @@ public class QuoteController {
         }
     }
 
+    @PostMapping("/batch")
+    public ResponseEntity<QuoteBatchResponse> createQuotes(@RequestBody List<QuoteDto> dtos) {
+        try {
+            return ResponseEntity.ok(quoteService.createQuotes(dtos));
+        } catch (IllegalArgumentException e) {
+            log.warn("Erreur lors de la création du lot de devis : {}", e.getMessage());
+            return ResponseEntity.badRequest().build();
+        }
+    }
+
     @PutMapping("/{id}")
     public ResponseEntity<QuoteDto> updateQuote(@PathVariable UUID id, @RequestBody QuoteDto quoteDto) {
         log.debug("Mise à jour du devis : {}", id);
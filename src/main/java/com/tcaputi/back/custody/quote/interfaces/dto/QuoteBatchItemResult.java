@@ -0,0 +1,21 @@
+package com.tcaputi.back.custody.quote.interfaces.dto;
+
+import java.util.UUID;
+
+/**
+ * Résultat de la création d'un devis au sein d'un lot, repéré par sa position dans la requête.
+ */
+public record QuoteBatchItemResult(int index,
+                                   UUID id,
+                                   String number,
+                                   boolean success,
+                                   String error) {
+
+    public static QuoteBatchItemResult created(int index, UUID id, String number) {
+        return new QuoteBatchItemResult(index, id, number, true, null);
+    }
+
+    public static QuoteBatchItemResult failed(int index, String error) {
+        return new QuoteBatchItemResult(index, null, null, false, error);
+    }
+}
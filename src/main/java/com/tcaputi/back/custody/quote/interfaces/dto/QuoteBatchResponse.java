@@ -0,0 +1,11 @@
+package com.tcaputi.back.custody.quote.interfaces.dto;
+
+import java.util.List;
+
+/**
+ * Réponse de la création de devis en lot : un résultat par devis, dans l'ordre de la requête.
+ */
+public record QuoteBatchResponse(int created,
+                                 int failed,
+                                 List<QuoteBatchItemResult> results) {
+}
@@ -0,0 +1,34 @@
+package com.tcaputi.back.custody.search.application;
+
+import com.tcaputi.back.custody.search.infrastructure.SearchRepository;
+import com.tcaputi.back.custody.search.interfaces.dto.SearchResultDto;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.stereotype.Service;
+
+import java.util.List;
+
+@Slf4j
+@Service
+@RequiredArgsConstructor
+public class SearchService {
+
+    // En dessous de 3 caractères, les index trigrammes ne peuvent pas servir la recherche
+    private static final int MIN_QUERY_LENGTH = 3;
+    private static final int MAX_LIMIT = 100;
+
+    private final SearchRepository searchRepository;
+
+    public List<SearchResultDto> search(String query, int limit) {
+        String cleanQuery = query != null ? query.trim() : "";
+        if (cleanQuery.length() < MIN_QUERY_LENGTH) {
+            throw new IllegalArgumentException("La recherche doit contenir au moins " + MIN_QUERY_LENGTH + " caractères");
+        }
+        if (limit < 1 || limit > MAX_LIMIT) {
+            throw new IllegalArgumentException("La limite doit être comprise entre 1 et " + MAX_LIMIT);
+        }
+
+        log.debug("Recherche globale : query={}, limit={}", cleanQuery, limit);
+        return searchRepository.search(cleanQuery, limit);
+    }
+}
@@ -0,0 +1,8 @@
+package com.tcaputi.back.custody.search.domain.model;
+
+public enum SearchResultType {
+    INVOICE,
+    QUOTE,
+    CLIENT,
+    PROJECT
+}
@@ -0,0 +1,84 @@
+package com.tcaputi.back.custody.search.infrastructure;
+
+import com.tcaputi.back.custody.search.domain.model.SearchResultType;
+import com.tcaputi.back.custody.search.interfaces.dto.SearchResultDto;
+import lombok.RequiredArgsConstructor;
+import org.springframework.jdbc.core.namedparam.MapSqlParameterSource;
+import org.springframework.jdbc.core.namedparam.NamedParameterJdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.util.List;
+import java.util.UUID;
+
+/**
+ * Recherche globale servie par les index trigrammes (pg_trgm, GIN) créés dans schema.sql :
+ * les ILIKE '%...%' utilisent ces index, le classement se fait par similarité.
+ */
+@Repository
+@RequiredArgsConstructor
+public class SearchRepository {
+
+    // Chaque branche ne fournit que ses :limit meilleurs candidats : une requête fréquente ("FA-", une année)
+    // ne fait ni matérialiser ni trier toutes les lignes correspondantes avant le dédoublonnage et le tri final
+    private static final String SEARCH_QUERY = """
+            SELECT type, id, label, matched_text, score FROM (
+                SELECT DISTINCT ON (type, id) type, id, label, matched_text, score FROM (
+                    (SELECT 'INVOICE' AS type, i.id, i.number AS label, i.number AS matched_text,
+                           similarity(i.number, :query) AS score
+                     FROM invoices i WHERE i.number ILIKE :pattern
+                     ORDER BY similarity(i.number, :query) DESC LIMIT :limit)
+                    UNION ALL
+                    (SELECT 'INVOICE', i.id, i.number, l.designation, similarity(l.designation, :query)
+                     FROM invoice_lines l JOIN invoices i ON i.id = l.invoice_id WHERE l.designation ILIKE :pattern
+                     ORDER BY similarity(l.designation, :query) DESC LIMIT :limit)
+                    UNION ALL
+                    (SELECT 'QUOTE', q.id, q.number, q.number, similarity(q.number, :query)
+                     FROM quotes q WHERE q.number ILIKE :pattern
+                     ORDER BY similarity(q.number, :query) DESC LIMIT :limit)
+                    UNION ALL
+                    (SELECT 'CLIENT', c.id, c.legal_name, c.legal_name, similarity(c.legal_name, :query)
+                     FROM clients c WHERE c.legal_name ILIKE :pattern
+                     ORDER BY similarity(c.legal_name, :query) DESC LIMIT :limit)
+                    UNION ALL
+                    (SELECT 'CLIENT', c.id, c.legal_name, c.contact_name, similarity(c.contact_name, :query)
+                     FROM clients c WHERE c.contact_name ILIKE :pattern
+                     ORDER BY similarity(c.contact_name, :query) DESC LIMIT :limit)
+                    UNION ALL
+                    (SELECT 'CLIENT', c.id, c.legal_name, c.contact_email, similarity(c.contact_email, :query)
+                     FROM clients c WHERE c.contact_email ILIKE :pattern
+                     ORDER BY similarity(c.contact_email, :query) DESC LIMIT :limit)
+                    UNION ALL
+                    (SELECT 'PROJECT', p.id, p.code, p.code, similarity(p.code, :query)
+                     FROM projects p WHERE p.code ILIKE :pattern
+                     ORDER BY similarity(p.code, :query) DESC LIMIT :limit)
+                    UNION ALL
+                    (SELECT 'PROJECT', p.id, p.code, p.name, similarity(p.name, :query)
+                     FROM projects p WHERE p.name ILIKE :pattern
+                     ORDER BY similarity(p.name, :query) DESC LIMIT :limit)
+                ) matches
+                ORDER BY type, id, score DESC
+            ) best
+            ORDER BY score DESC, label
+            LIMIT :limit
+            """;
+
+    private final NamedParameterJdbcTemplate jdbcTemplate;
+
+    public List<SearchResultDto> search(String query, int limit) {
+        MapSqlParameterSource params = new MapSqlParameterSource()
+                .addValue("query", query)
+                .addValue("pattern", "%" + escapeLikePattern(query) + "%")
+                .addValue("limit", limit);
+
+        return jdbcTemplate.query(SEARCH_QUERY, params, (rs, rowNum) -> new SearchResultDto(
+                SearchResultType.valueOf(rs.getString("type")),
+                rs.getObject("id", UUID.class),
+                rs.getString("label"),
+                rs.getString("matched_text"),
+                rs.getDouble("score")));
+    }
+
+    private String escapeLikePattern(String value) {
+        return value.replace("\\", "\\\\").replace("%", "\\%").replace("_", "\\_");
+    }
+}
@@ -0,0 +1,34 @@
+package com.tcaputi.back.custody.search.interfaces;
+
+import com.tcaputi.back.custody.search.application.SearchService;
+import com.tcaputi.back.custody.search.interfaces.dto.SearchResultDto;
+import lombok.RequiredArgsConstructor;
+import lombok.extern.slf4j.Slf4j;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RequestParam;
+import org.springframework.web.bind.annotation.RestController;
+
+import java.util.List;
+
+@Slf4j
+@RestController
+@RequestMapping("/search")
+@RequiredArgsConstructor
+class SearchController {
+
+    private final SearchService searchService;
+
+    @GetMapping
+    public ResponseEntity<List<SearchResultDto>> search(
+            @RequestParam String q,
+            @RequestParam(defaultValue = "20") Integer limit) {
+        try {
+            return ResponseEntity.ok(searchService.search(q, limit));
+        } catch (IllegalArgumentException e) {
+            log.warn("Erreur lors de la recherche : {}", e.getMessage());
+            return ResponseEntity.badRequest().build();
+        }
+    }
+}
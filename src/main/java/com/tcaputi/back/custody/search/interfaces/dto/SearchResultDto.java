@@ -0,0 +1,16 @@
+package com.tcaputi.back.custody.search.interfaces.dto;
+
+import com.tcaputi.back.custody.search.domain.model.SearchResultType;
+
+import java.util.UUID;
+
+/**
+ * Résultat de la recherche globale.
+ * label identifie l'élément (numéro, raison sociale, code), matchedText est le champ qui a correspondu.
+ */
+public record SearchResultDto(SearchResultType type,
+                              UUID id,
+                              String label,
+                              String matchedText,
+                              double score) {
+}
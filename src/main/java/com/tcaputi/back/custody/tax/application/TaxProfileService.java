@@ -1,8 +1,7 @@
 package com.tcaputi.back.custody.tax.application;
 
+import com.tcaputi.back.custody.issuer.application.IssuerSnapshotService;
 import com.tcaputi.back.custody.tax.domain.model.TaxType;
-import com.tcaputi.back.custody.tax.infrastructure.TaxProfileMapper;
-import com.tcaputi.back.custody.tax.infrastructure.TaxProfileRepository;
 import com.tcaputi.back.custody.tax.interfaces.dto.TaxProfileDto;
 import lombok.RequiredArgsConstructor;
 import lombok.extern.slf4j.Slf4j;
@@ -12,40 +11,33 @@ import java.util.List;
 import java.util.Optional;
 import java.util.UUID;
 
+/**
+ * Profils fiscaux, servis depuis l'instantané émetteur en mémoire : aucune lecture ne sollicite la base.
+ */
 @Slf4j
 @Service
 @RequiredArgsConstructor
 public class TaxProfileService {
 
-    private final TaxProfileMapper taxProfileMapper;
-    private final TaxProfileRepository taxProfileRepository;
+    private final IssuerSnapshotService issuerSnapshotService;
     
     public Optional<TaxProfileDto> getTaxProfileById(UUID id) {
-        return taxProfileRepository.findById(id)
-                .map(taxProfileMapper::toDto);
+        return issuerSnapshotService.get().findTaxProfile(id);
     }
     
     public Optional<TaxProfileDto> getDefaultTaxProfileForFrance() {
-        return taxProfileRepository.findFirstByType(TaxType.FR_TVA_STANDARD)
-                .map(taxProfileMapper::toDto);
+        return issuerSnapshotService.get().findDefaultTaxProfile(TaxType.FR_TVA_STANDARD);
     }
 
     public Optional<TaxProfileDto> getDefaultTaxProfileOuterUE() {
-        return taxProfileRepository.findFirstByType(TaxType.NON_EU_EXPORT_259_1)
-                .map(taxProfileMapper::toDto);
+        return issuerSnapshotService.get().findDefaultTaxProfile(TaxType.NON_EU_EXPORT_259_1);
     }
 
     public List<TaxProfileDto> getAllTaxProfiles() {
-        return taxProfileRepository.findAll()
-                .stream()
-                .map(taxProfileMapper::toDto)
-                .toList();
+        return issuerSnapshotService.get().taxProfiles();
     }
     
     public List<TaxProfileDto> getTaxProfilesByType(TaxType taxType) {
-        return taxProfileRepository.findAllByType(taxType)
-                .stream()
-                .map(taxProfileMapper::toDto)
-                .toList();
+        return issuerSnapshotService.get().getTaxProfilesByType(taxType);
     }
 }
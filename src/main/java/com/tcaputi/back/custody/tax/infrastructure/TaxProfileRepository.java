@@ -2,6 +2,7 @@ package com.tcaputi.back.custody.tax.infrastructure;
 
 import com.tcaputi.back.custody.tax.domain.model.TaxProfile;
 import com.tcaputi.back.custody.tax.domain.model.TaxType;
+import org.springframework.data.jpa.repository.EntityGraph;
 import org.springframework.data.jpa.repository.JpaRepository;
 
 import java.util.List;
@@ -10,7 +11,11 @@ import java.util.UUID;
 
 public interface TaxProfileRepository extends JpaRepository<TaxProfile, UUID> {
 
+    @EntityGraph(attributePaths = "mandatoryMentions")
     Optional<TaxProfile> findFirstByType(TaxType type);
 
     List<TaxProfile> findAllByType(TaxType type);
+
+    @EntityGraph(attributePaths = "mandatoryMentions")
+    List<TaxProfile> findAllByOrderByIdAsc();
 }
\ No newline at end of file
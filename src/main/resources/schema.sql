@@ -0,0 +1,53 @@
+-- Exécuté au démarrage après la mise à jour du schéma par Hibernate (ddl-auto: update).
+-- Chaque instruction doit être idempotente (IF NOT EXISTS, mises à jour sans effet au second passage) :
+-- une instruction en échec arrête le démarrage plutôt que de laisser l'application sans index ni contrainte.
+-- Le script est découpé sur les points-virgules : pas de bloc DO ni de corps de fonction.
+
+-- Recherche globale : index trigrammes pour les recherches par sous-chaîne (ILIKE '%...%')
+CREATE EXTENSION IF NOT EXISTS pg_trgm;
+
+CREATE INDEX IF NOT EXISTS idx_invoices_number_trgm ON invoices USING gin (number gin_trgm_ops);
+CREATE INDEX IF NOT EXISTS idx_invoice_lines_designation_trgm ON invoice_lines USING gin (designation gin_trgm_ops);
+CREATE INDEX IF NOT EXISTS idx_quotes_number_trgm ON quotes USING gin (number gin_trgm_ops);
+CREATE INDEX IF NOT EXISTS idx_clients_legal_name_trgm ON clients USING gin (legal_name gin_trgm_ops);
+CREATE INDEX IF NOT EXISTS idx_clients_contact_name_trgm ON clients USING gin (contact_name gin_trgm_ops);
+CREATE INDEX IF NOT EXISTS idx_clients_contact_email_trgm ON clients USING gin (contact_email gin_trgm_ops);
+CREATE INDEX IF NOT EXISTS idx_projects_code_trgm ON projects USING gin (code gin_trgm_ops);
+CREATE INDEX IF NOT EXISTS idx_projects_name_trgm ON projects USING gin (name gin_trgm_ops);
+
+-- Paiements : soldes des factures antérieures aux colonnes paid_amount / outstanding_amount
+UPDATE invoices SET paid_amount = CASE WHEN status = 'PAID' THEN total ELSE 0 END,
+                    outstanding_amount = CASE WHEN status = 'PAID' THEN 0 ELSE total END
+WHERE paid_amount IS NULL AND total IS NOT NULL;
+-- Factures PAID initialisées avec un reste à payer par la première version de la reprise, ou passées à PAID
+-- sans paiement enregistré : soldées
+UPDATE invoices SET paid_amount = total, outstanding_amount = 0
+WHERE status = 'PAID' AND total IS NOT NULL AND outstanding_amount <> 0;
+
+-- Devis : les numéros en double hérités de l'ancienne numérotation (count + 1) sont suffixés
+-- avant la pose de la contrainte d'unicité, que Hibernate ne peut pas créer tant qu'ils existent
+UPDATE quotes q SET number = q.number || '-' || d.rn
+FROM (SELECT id, row_number() OVER (PARTITION BY number ORDER BY issue_date, id) AS rn
+      FROM quotes WHERE number IS NOT NULL) d
+WHERE q.id = d.id AND d.rn > 1;
+CREATE UNIQUE INDEX IF NOT EXISTS uk_quotes_number ON quotes (number);
+
+-- Chiffre d'affaires : premier calcul des agrégats tant que la table est vide (même règle que rebuildFromInvoices)
+INSERT INTO revenue_rollups (period_year, period_month, currency, client_id, revenue, invoice_count)
+SELECT EXTRACT(YEAR FROM i.issue_date), EXTRACT(MONTH FROM i.issue_date), COALESCE(i.currency, 'EUR'),
+       i.client_id, SUM(i.total), COUNT(*)
+FROM invoices i
+WHERE i.status = 'PAID' AND i.issue_date IS NOT NULL AND i.total IS NOT NULL
+  AND NOT EXISTS (SELECT 1 FROM revenue_rollups)
+GROUP BY 1, 2, 3, 4
+ON CONFLICT (period_year, period_month, currency, client_id) DO NOTHING;
+
+-- Devis : les remises étaient des montants absolus (colonne discount), elles deviennent des pourcentages
+-- (colonne discount_rate). Conversion des lignes existantes, bornée à 0-100 % ; les lignes déjà converties
+-- ou créées depuis ont discount_rate renseigné ou discount vide et ne sont plus touchées.
+ALTER TABLE quote_lines ADD COLUMN IF NOT EXISTS discount numeric(38, 2);
+UPDATE quote_lines SET discount_rate = CASE
+        WHEN discount = 0 OR quantity IS NULL OR unit_price IS NULL OR quantity * unit_price <= 0 THEN 0
+        ELSE LEAST(100, GREATEST(0, ROUND(discount * 100 / (quantity * unit_price), 2)))
+    END
+WHERE discount IS NOT NULL AND discount_rate IS NULL;